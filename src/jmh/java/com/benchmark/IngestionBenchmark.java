@@ -0,0 +1,53 @@
+package com.benchmark;
+
+import com.utils.ExcelDataReader;
+import com.utils.TaskStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Full read of a workbook or raw export: parsing, typed conversion, aggregation and storage
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class IngestionBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"xlsx", "tsv"})
+    private String format;
+
+    @Param({"list", "columnar"})
+    private String store;
+
+    private String path;
+
+    @Setup
+    public void generate() throws IOException {
+        File file = "tsv".equals(format) ? SyntheticWorkbook.tsv(rows) : SyntheticWorkbook.xlsx(rows);
+        path = file.getPath();
+    }
+
+    @Benchmark
+    public ExcelDataReader readExcelData() {
+        ExcelDataReader reader = new ExcelDataReader(path, TaskStore.create(store));
+        reader.readExcelData();
+        return reader;
+    }
+}
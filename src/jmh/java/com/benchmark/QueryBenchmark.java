@@ -0,0 +1,138 @@
+package com.benchmark;
+
+import com.ui.ChartDatasets;
+import com.ui.ChartView;
+import com.utils.ExcelDataReader;
+import com.utils.TaskFields;
+import com.utils.TaskStore;
+import org.jfree.data.category.CategoryDataset;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Queries and chart datasets on data that has already been read, as run on every dashboard refresh
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class QueryBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"list", "columnar"})
+    private String store;
+
+    private ExcelDataReader reader;
+    private String lastWorkingDate;
+    private LocalDate rangeStart;
+    private LocalDate rangeEnd;
+
+    @Setup
+    public void load() throws IOException {
+        // The raw export is used because it is the quicker one to read, the resulting data is the same
+        reader = new ExcelDataReader(SyntheticWorkbook.tsv(rows).getPath(), TaskStore.create(store));
+        reader.readExcelData();
+
+        LocalDate day = LocalDate.now();
+        while (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            day = day.minusDays(1);
+        }
+        lastWorkingDate = TaskFields.formatDate((int) day.toEpochDay());
+        rangeEnd = day;
+        rangeStart = day.minusWeeks(1);
+    }
+
+    // Views are consumed element by element, like the table and the weekly lists do
+    @Benchmark
+    public void getTasksByDate(Blackhole blackhole) {
+        for (ExcelDataReader.TaskData task : reader.getTasksByDate(lastWorkingDate)) {
+            blackhole.consume(task);
+        }
+    }
+
+    @Benchmark
+    public void getTasksByDateRange(Blackhole blackhole) {
+        for (ExcelDataReader.TaskData task : reader.getTasksByDateRange(rangeStart, rangeEnd)) {
+            blackhole.consume(task);
+        }
+    }
+
+    @Benchmark
+    public void getMonthlyWeekData(Blackhole blackhole) {
+        for (ExcelDataReader.WeekData week : reader.getMonthlyWeekData()) {
+            blackhole.consume(week.getTasks().size());
+        }
+    }
+
+    @Benchmark
+    public CategoryDataset createLineDatasetWeekly() {
+        return ChartDatasets.createLineDataset(reader, ChartView.WEEK);
+    }
+
+    @Benchmark
+    public CategoryDataset createLineDatasetMonthly() {
+        return ChartDatasets.createLineDataset(reader, ChartView.MONTH);
+    }
+
+    @Benchmark
+    public CategoryDataset createLineDatasetQuarterly() {
+        return ChartDatasets.createLineDataset(reader, ChartView.QUARTER);
+    }
+
+    @Benchmark
+    public CategoryDataset createLineDatasetYearly() {
+        return ChartDatasets.createLineDataset(reader, ChartView.YEAR);
+    }
+
+    @Benchmark
+    public CategoryDataset createBarDatasetWeekly() {
+        return ChartDatasets.createBarDataset(reader, ChartView.WEEK);
+    }
+
+    @Benchmark
+    public CategoryDataset createBarDatasetMonthly() {
+        return ChartDatasets.createBarDataset(reader, ChartView.MONTH);
+    }
+
+    @Benchmark
+    public CategoryDataset createBarDatasetQuarterly() {
+        return ChartDatasets.createBarDataset(reader, ChartView.QUARTER);
+    }
+
+    @Benchmark
+    public CategoryDataset createBarDatasetYearly() {
+        return ChartDatasets.createBarDataset(reader, ChartView.YEAR);
+    }
+
+    // Target TAT check over every task
+    @Benchmark
+    public int isWithinTargetTat() {
+        int within = 0;
+        List<ExcelDataReader.TaskData> tasks = reader.getTaskList();
+        for (int i = 0; i < tasks.size(); i++) {
+            ExcelDataReader.TaskData task = tasks.get(i);
+            if (task.isTatTracked() && task.isWithinTargetTat()) {
+                within++;
+            }
+        }
+        return within;
+    }
+}
@@ -0,0 +1,153 @@
+package com.benchmark;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.annotation.ExcelProperty;
+import com.alibaba.excel.write.metadata.WriteSheet;
+import com.utils.ExcelDataReader.ExcelModel;
+import com.utils.TaskFields;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Generates data.xlsx-shaped workbooks and raw exports of a given size for the benchmarks.
+// Dates are spread over the working days before today so the weekly and monthly views find data.
+// Files are cached in the temp directory, delete them to regenerate.
+public final class SyntheticWorkbook {
+    private static final int BATCH_SIZE = 10_000;
+
+    // Working days before today that the generated rows are spread over
+    private static final int HISTORY_DAYS = 60;
+
+    private static final String[] DOCUMENT_TYPES = {
+            "Ecoll - Export Collection", "Ecoll - Export Collection", "Ecoll - Export Collection",
+            "Icoll - Import Collection", "Elc - Export LC"
+    };
+    private static final String[] CLIENTS = {"A Co.Ltd", "B Co.Ltd", "C Co.Ltd", "D Trading", "E Holdings"};
+    private static final String[] HANDLERS = {"Candy", "Jack", "Sam", "Jason"};
+
+    private SyntheticWorkbook() {
+    }
+
+    // Path of a cached workbook with the given number of data rows, generated on first use
+    public static File xlsx(int rows) throws IOException {
+        File file = new File(System.getProperty("java.io.tmpdir"), "dashboard-bench-" + rows + ".xlsx");
+        if (!file.exists()) {
+            writeXlsx(file, rows);
+        }
+        return file;
+    }
+
+    // Path of a cached tab-separated export with the given number of data rows, generated on first use
+    public static File tsv(int rows) throws IOException {
+        File file = new File(System.getProperty("java.io.tmpdir"), "dashboard-bench-" + rows + ".tsv");
+        if (!file.exists()) {
+            writeTsv(file, rows);
+        }
+        return file;
+    }
+
+    private static void writeXlsx(File file, int rows) {
+        Random random = new Random(42);
+        List<LocalDate> days = workingDays();
+        ExcelWriter writer = EasyExcel.write(file, ExcelModel.class).build();
+        try {
+            WriteSheet sheet = EasyExcel.writerSheet("Sheet1").build();
+            for (int start = 0; start < rows; start += BATCH_SIZE) {
+                List<ExcelModel> batch = new ArrayList<>(BATCH_SIZE);
+                for (int i = start; i < Math.min(rows, start + BATCH_SIZE); i++) {
+                    batch.add(row(random, days, i));
+                }
+                writer.write(batch, sheet);
+            }
+        } finally {
+            writer.finish();
+        }
+    }
+
+    private static void writeTsv(File file, int rows) throws IOException {
+        Random random = new Random(42);
+        List<LocalDate> days = workingDays();
+        Field[] fields = ExcelModel.class.getDeclaredFields();
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            StringBuilder line = new StringBuilder();
+            for (Field field : fields) {
+                field.setAccessible(true);
+                line.append(line.length() == 0 ? "" : "\t").append(field.getAnnotation(ExcelProperty.class).value()[0]);
+            }
+            out.write(line.append('\n').toString());
+
+            for (int i = 0; i < rows; i++) {
+                ExcelModel model = row(random, days, i);
+                line.setLength(0);
+                for (int column = 0; column < fields.length; column++) {
+                    Object value = fields[column].get(model);
+                    line.append(column == 0 ? "" : "\t").append(value == null ? "" : value);
+                }
+                out.write(line.append('\n').toString());
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // One row with the value formats of data.xlsx
+    private static ExcelModel row(Random random, List<LocalDate> days, int index) {
+        LocalDate day = days.get(random.nextInt(days.size()));
+        long received = day.atTime(9, 0).toInstant(ZoneOffset.UTC).toEpochMilli() + random.nextInt(8 * 3600) * 1000L;
+        int atBranch = random.nextInt(3 * 3600);
+        int verification = random.nextInt(600);
+        long scanned = received + atBranch * 1000L;
+        long verified = scanned + verification * 1000L;
+        long lodgementStarted = verified + random.nextInt(24 * 3600) * 1000L;
+        int entry = random.nextInt(1800);
+        long confirmed = lodgementStarted + entry * 1000L;
+        long complianceVerified = confirmed + random.nextInt(1800) * 1000L;
+        long authorized = complianceVerified + random.nextInt(3600) * 1000L;
+
+        int statusPick = random.nextInt(10);
+        String status = statusPick < 8 ? "Lodge" : statusPick < 9 ? "Pending" : "Reject";
+
+        ExcelModel model = new ExcelModel();
+        model.setDate(TaskFields.formatDate((int) day.toEpochDay()));
+        model.setDocumentType(DOCUMENT_TYPES[random.nextInt(DOCUMENT_TYPES.length)]);
+        model.setApplicationReceivedAt(TaskFields.formatTimestamp(received));
+        model.setScannedAt(TaskFields.formatTimestamp(scanned));
+        model.setTotalTimeAtBranch(TaskFields.formatDuration(atBranch));
+        model.setVerifiedAt(TaskFields.formatTimestamp(verified));
+        model.setTotalTimeForVerification(TaskFields.formatDuration(verification));
+        model.setLodgementStartedAt(TaskFields.formatTimestamp(lodgementStarted));
+        model.setConfirmedAt(TaskFields.formatTimestamp(confirmed));
+        model.setTotalTimeForEntry(TaskFields.formatDuration(entry));
+        model.setComplianceVerifiedAt(TaskFields.formatTimestamp(complianceVerified));
+        model.setAuthorizedAt(TaskFields.formatTimestamp(authorized));
+        model.setDocumentSerial(String.valueOf(11_500_000 + index));
+        model.setStatus(status);
+        model.setReferenceNumber(String.valueOf(643_000_000L + index));
+        model.setAmount(String.format("USD %,.2f", random.nextInt(100_000_000) / 100.0));
+        model.setClientName(CLIENTS[random.nextInt(CLIENTS.length)]);
+        model.setTat(TaskFields.formatDuration((int) ((authorized - received) / 1000)));
+        model.setHandler(HANDLERS[random.nextInt(HANDLERS.length)]);
+        return model;
+    }
+
+    private static List<LocalDate> workingDays() {
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = LocalDate.now(); days.size() < HISTORY_DAYS; day = day.minusDays(1)) {
+            if (day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+}
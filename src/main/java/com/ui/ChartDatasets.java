@@ -0,0 +1,185 @@
+package com.ui;
+
+import com.utils.BusinessCalendar;
+import com.utils.ExcelDataReader;
+import com.utils.FacetIndex;
+import com.utils.TaskCounters;
+import com.utils.TaskFields;
+import org.jfree.data.category.CategoryDataset;
+import org.jfree.data.category.DefaultCategoryDataset;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+
+// Builds the chart datasets from the reader's aggregates; free of Swing so it can run on any thread
+public final class ChartDatasets {
+
+    // Formatter for the "MMM yyyy" month labels of the quarter and year views
+    private static final DateTimeFormatter MONTH_LABEL_FORMATTER = DateTimeFormatter.ofPattern("MMM yyyy", Locale.ENGLISH);
+
+    private ChartDatasets() {
+    }
+
+    // Creating Line Chart Data Sets
+    public static CategoryDataset createLineDataset(ExcelDataReader dataReader, ChartView view) {
+        return createLineDataset(dataReader, view, null, null, null);
+    }
+
+    // Line chart of the rows selected in a facet index plus the matching archived tasks by day, or of all tasks
+    // if the selection is null
+    public static CategoryDataset createLineDataset(ExcelDataReader dataReader, ChartView view, FacetIndex facets, BitSet selection,
+                                                    NavigableMap<Integer, TaskCounters> archived) {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();  // Create an empty dataset
+
+        // Adding data in chronological order, one range of the daily index per bucket
+        for (Bucket bucket : getBuckets(dataReader, view)) {
+            TaskCounters counters = bucketCounters(dataReader, bucket, facets, selection, archived);
+
+            // Count the number of tasks with a status of LODGE
+            dataset.addValue(counters.getCompleted(), "Completed Tasks", bucket.getLabel());
+        }
+
+        return dataset;
+    }
+
+
+    // Modifying Bar Chart Data Sets
+    public static CategoryDataset createBarDataset(ExcelDataReader dataReader, ChartView view) {
+        return createBarDataset(dataReader, view, null, null, null);
+    }
+
+    // Bar chart of the rows selected in a facet index plus the matching archived tasks by day, or of all tasks
+    // if the selection is null
+    public static CategoryDataset createBarDataset(ExcelDataReader dataReader, ChartView view, FacetIndex facets, BitSet selection,
+                                                   NavigableMap<Integer, TaskCounters> archived) {
+        // Create a default dataset
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+
+        for (Bucket bucket : getBuckets(dataReader, view)) {
+            String label = bucket.getLabel();
+            TaskCounters counters = bucketCounters(dataReader, bucket, facets, selection, archived);
+
+            // New tasks are only shown per day
+            // Within/Over Target TAT only count DocumentType == Ecoll - Export Collection && Status == LODGE
+            if (view == ChartView.WEEK) {
+                dataset.addValue(counters.getNewTasks(), "New Tasks", label);
+            }
+            dataset.addValue(counters.getOngoing(), "Ongoing Tasks", label);
+            dataset.addValue(counters.getCompleted(), "Completed Tasks", label);
+            dataset.addValue(counters.getWithinTat(), "Within Target TAT", label);
+            dataset.addValue(counters.getOverTat(), "Over Target TAT", label);
+        }
+
+        return dataset;
+    }
+
+
+    // Counters of one bucket, population counts of the selection and the archived days if there is one
+    private static TaskCounters bucketCounters(ExcelDataReader dataReader, Bucket bucket, FacetIndex facets, BitSet selection,
+                                               NavigableMap<Integer, TaskCounters> archived) {
+        if (selection != null) {
+            TaskCounters counters = facets.count(selection, bucket.getStart(), bucket.getEnd());
+            if (archived != null) {
+                for (TaskCounters day : archived.subMap((int) bucket.getStart().toEpochDay(), true,
+                        (int) bucket.getEnd().toEpochDay(), true).values()) {
+                    counters.add(day);
+                }
+            }
+            return counters;
+        }
+        return bucket.getCounters() != null ? bucket.getCounters() : dataReader.getRangeCounters(bucket.getStart(), bucket.getEnd());
+    }
+
+
+    // Date ranges shown by a view, in chronological order
+    private static List<Bucket> getBuckets(ExcelDataReader dataReader, ChartView view) {
+        List<Bucket> buckets = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        switch (view) {
+            case WEEK:
+                // Get the last 5 working days and their corresponding display labels
+                for (WorkDay workDay : getLastFiveWorkDays()) {
+                    buckets.add(new Bucket(workDay.getLabel() + "（" + workDay.getDate() + "）",
+                            workDay.getDay(), workDay.getDay(), null));
+                }
+                break;
+            case MONTH:
+                // Monthly view: weekly counters summed from the daily index
+                for (ExcelDataReader.WeekStats weekStats : dataReader.getMonthlyWeekStats()) {
+                    buckets.add(new Bucket(weekStats.getWeekLabel(), weekStats.getStart(), weekStats.getEnd(),
+                            weekStats.getCounters()));
+                }
+                break;
+            default:
+                // Calendar months of the current quarter or year
+                int firstMonth = view == ChartView.QUARTER ? (today.getMonthValue() - 1) / 3 * 3 + 1 : 1;
+                int months = view == ChartView.QUARTER ? 3 : 12;
+                for (int month = firstMonth; month < firstMonth + months; month++) {
+                    LocalDate start = LocalDate.of(today.getYear(), month, 1);
+                    buckets.add(new Bucket(start.format(MONTH_LABEL_FORMATTER), start,
+                            start.withDayOfMonth(start.lengthOfMonth()), null));
+                }
+        }
+        return buckets;
+    }
+
+
+    // A chart category: its label, its days, and its counters if already summed by the reader
+    private static class Bucket {
+        private final String label;
+        private final LocalDate start;
+        private final LocalDate end;
+        private final TaskCounters counters;
+
+        Bucket(String label, LocalDate start, LocalDate end, TaskCounters counters) {
+            this.label = label;
+            this.start = start;
+            this.end = end;
+            this.counters = counters;
+        }
+
+        String getLabel() { return label; }
+        LocalDate getStart() { return start; }
+        LocalDate getEnd() { return end; }
+        TaskCounters getCounters() { return counters; }
+    }
+
+
+    static class WorkDay {
+        private final LocalDate day;
+        private final String date;
+        private final String label;
+
+        public WorkDay(LocalDate day, String date, String label) {
+            this.day = day;
+            this.date = date;
+            this.label = label;
+        }
+
+        // Get the day used as key of the daily index
+        public LocalDate getDay() { return day; }
+
+        // Get the actual date in English “d-MMM-yy” format
+        public String getDate() { return date; }
+
+        // Get display labels
+        public String getLabel() { return label; }
+    }
+
+    // Get the last 5 business days and their labels; weekends and public holidays are skipped
+    static List<WorkDay> getLastFiveWorkDays() {
+        List<WorkDay> workDays = new ArrayList<>();
+        for (LocalDate day : BusinessCalendar.getDefault().getLastWorkdays(LocalDate.now(), 5)) {
+            String date = TaskFields.formatDate((int) day.toEpochDay());
+            String label = day.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
+            workDays.add(new WorkDay(day, date, label));
+        }
+        return workDays;
+    }
+}
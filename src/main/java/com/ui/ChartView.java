@@ -0,0 +1,33 @@
+package com.ui;
+
+// Periods the charts can show, each with its toggle button label and the titles and bucket axis labels of both charts
+public enum ChartView {
+    WEEK("Weekly", "Weekly Completed Tasks Trend", "Day of Week",
+            "Last 5 Working Days Status Distribution", "Date"),  // The last five working days
+    MONTH("Monthly", "Monthly Completed Tasks Trend", "Week",
+            "Monthly Status Distribution", "Week"),  // The working weeks of the current month
+    QUARTER("Quarterly", "Quarterly Completed Tasks Trend", "Month",
+            "Quarterly Status Distribution", "Month"),  // The months of the current quarter
+    YEAR("Yearly", "Yearly Completed Tasks Trend", "Month",
+            "Yearly Status Distribution", "Month");  // The months of the current year
+
+    private final String buttonLabel;
+    private final String lineTitle;
+    private final String axisLabel;
+    private final String barTitle;
+    private final String barAxisLabel;
+
+    ChartView(String buttonLabel, String lineTitle, String axisLabel, String barTitle, String barAxisLabel) {
+        this.buttonLabel = buttonLabel;
+        this.lineTitle = lineTitle;
+        this.axisLabel = axisLabel;
+        this.barTitle = barTitle;
+        this.barAxisLabel = barAxisLabel;
+    }
+
+    public String getButtonLabel() { return buttonLabel; }
+    public String getLineTitle() { return lineTitle; }
+    public String getAxisLabel() { return axisLabel; }
+    public String getBarTitle() { return barTitle; }
+    public String getBarAxisLabel() { return barAxisLabel; }
+}
@@ -0,0 +1,152 @@
+package com.ui;
+
+import com.utils.RefreshMetrics;
+
+import java.awt.EventQueue;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Posts a probe to the Event Dispatch Thread at a fixed interval and measures how long it waits in the queue.
+// If a probe waits longer than the threshold the EDT is blocked: the stack traces of the EDT and of the refresh
+// thread are appended to a rolling diagnostics file, showing whether updateCharts(), updateDataTable() or
+// something else holds the EDT and what the parse was doing at the time
+class EdtWatchdog implements Closeable {
+    private static final long MAX_FILE_BYTES = 1024 * 1024;  // Size at which the diagnostics file is rolled over
+    private static final int KEPT_FILES = 3;  // Rolled-over files kept as <file>.1 .. <file>.3
+
+    private final RefreshMetrics metrics;
+    private final long intervalMillis;
+    private final long thresholdNanos;
+    private final File file;
+    private final String[] otherThreads;  // Names of threads whose stacks are captured with the EDT's
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "edt-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // The EDT as seen by the last probe; it is replaced if an exception kills it
+    private volatile Thread edt;
+
+    // Post time of the probe waiting in the queue, 0 if it has run
+    private volatile long probePostedAt;
+
+    // Queue latency of the last probe that ran
+    private volatile long lastLatency;
+
+    // State of the watchdog thread: whether the current wait was reported, and GC time when the probe was posted
+    private boolean stallReported;
+    private long gcMillisAtPost;
+
+    EdtWatchdog(RefreshMetrics metrics, long intervalMillis, long thresholdMillis, File file, String... otherThreads) {
+        this.metrics = metrics;
+        this.intervalMillis = intervalMillis;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.file = file;
+        this.otherThreads = otherThreads;
+    }
+
+    void start() {
+        timer.scheduleWithFixedDelay(this::check, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Runs on the watchdog thread: post the next probe once the previous one has run, or report a blocked EDT
+    private void check() {
+        long posted = probePostedAt;
+        if (posted == 0) {
+            if (stallReported) {
+                stallReported = false;
+                append(String.format("EDT responsive again after %d ms%n%n", TimeUnit.NANOSECONDS.toMillis(lastLatency)));
+            }
+            long now = System.nanoTime();
+            gcMillisAtPost = gcMillis();
+            probePostedAt = now;
+            EventQueue.invokeLater(() -> probe(now));
+            return;
+        }
+
+        long blocked = System.nanoTime() - posted;
+        if (!stallReported && blocked >= thresholdNanos) {
+            stallReported = true;
+            captureStall(blocked);
+        }
+    }
+
+    // Runs on the EDT
+    private void probe(long postedAt) {
+        edt = Thread.currentThread();
+        long latency = System.nanoTime() - postedAt;
+        lastLatency = latency;
+        metrics.recordEdtQueueLatency(latency);
+        if (latency >= thresholdNanos) {
+            metrics.recordEdtStall();
+        }
+        probePostedAt = 0;
+    }
+
+    private void captureStall(long blockedNanos) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("=== %s EDT blocked for %d ms (threshold %d ms, GC %d ms meanwhile) ===%n",
+                LocalDateTime.now(), TimeUnit.NANOSECONDS.toMillis(blockedNanos),
+                TimeUnit.NANOSECONDS.toMillis(thresholdNanos), gcMillis() - gcMillisAtPost));
+
+        Thread eventThread = edt;
+        for (Map.Entry<Thread, StackTraceElement[]> entry : Thread.getAllStackTraces().entrySet()) {
+            Thread thread = entry.getKey();
+            boolean isEdt = eventThread != null ? thread == eventThread : thread.getName().startsWith("AWT-EventQueue");
+            boolean other = false;
+            for (String name : otherThreads) {
+                other |= thread.getName().equals(name);
+            }
+            if (isEdt || other) {
+                report.append('"').append(thread.getName()).append("\" ").append(thread.getState()).append(System.lineSeparator());
+                for (StackTraceElement element : entry.getValue()) {
+                    report.append("    at ").append(element).append(System.lineSeparator());
+                }
+            }
+        }
+        append(report.toString());
+    }
+
+    // Append to the diagnostics file, rolling it over when it gets too large
+    private void append(String text) {
+        try {
+            if (file.length() > MAX_FILE_BYTES) {
+                new File(file.getPath() + "." + KEPT_FILES).delete();
+                for (int i = KEPT_FILES - 1; i >= 1; i--) {
+                    new File(file.getPath() + "." + i).renameTo(new File(file.getPath() + "." + (i + 1)));
+                }
+                file.renameTo(new File(file.getPath() + ".1"));
+            }
+            try (PrintWriter out = new PrintWriter(new FileWriter(file, true))) {
+                out.print(text);
+            }
+        } catch (IOException e) {
+            System.err.println("Cannot write EDT diagnostics to " + file + ": " + e.getMessage());
+        }
+    }
+
+    // Total collection time of all garbage collectors
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+}
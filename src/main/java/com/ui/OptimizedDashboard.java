@@ -1,7 +1,18 @@
 package com.ui;
 
 import com.formdev.flatlaf.FlatLightLaf;
+import com.utils.DashboardSettings;
+import com.utils.DataSnapshot;
 import com.utils.ExcelDataReader;
+import com.utils.FacetIndex;
+import com.utils.RefreshMetrics;
+import com.utils.RejectedRow;
+import com.utils.SnapshotClient;
+import com.utils.TaskCounters;
+import com.utils.TaskDelta;
+import com.utils.TaskFields;
+import com.utils.TaskFilter;
+import com.utils.WorkbookWatcher;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
@@ -30,24 +41,35 @@ import java.awt.*;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseAdapter;
 import javax.swing.border.AbstractBorder;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableColumn;
 
 import java.awt.Graphics2D;
+import java.io.File;
 import java.awt.RenderingHints;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.List;
+import java.util.Set;
 import java.util.ArrayList;
 import java.time.LocalDate;
 import java.time.DayOfWeek;
-import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.time.format.TextStyle;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class OptimizedDashboard extends JFrame {
     // Define theme colors
@@ -65,17 +87,53 @@ public class OptimizedDashboard extends JFrame {
     private static final Color WITHIN_TAT_COLOR = Color.decode("#00C853");  // Setting the color in the TAT range to a more vibrant green
     private static final Color OVER_TAT_COLOR = Color.decode("#FF1744");  // Set colors outside the TAT range to a more vibrant red
 
-    private boolean isWeeklyView = true;  // Controls whether the weekly view is displayed, defaults to weekly view
+    // Table cell backgrounds by RowStyle, for other cells and for the TAT cell (TaskTableModel.TAT_COLUMN); null is the table background.
+    // Tasks over the target TAT get a light red TAT cell and a paler rest of the row
+    private static final Color[][] STYLE_BACKGROUNDS = {
+            {null, null},  // RowStyle.PLAIN
+            {new Color(255, 235, 235), new Color(255, 204, 204)}  // RowStyle.OVER_TAT
+    };
+
+    private ChartView chartView = ChartView.WEEK;  // Period shown by the charts, defaults to the weekly view; only touched on the EDT
+    private DashboardView shownView;  // View currently shown, holds the datasets of every chart view; null until the first view, only touched on the EDT
     private ChartPanel lineChartPanel;  // Storing panels for line graphs
     private ChartPanel barChartPanel;  // Panel for storing bar charts
+    private final DefaultCategoryDataset lineDataset = new DefaultCategoryDataset();  // Live dataset of the line chart, updated in place on the EDT
+    private final DefaultCategoryDataset barDataset = new DefaultCategoryDataset();  // Live dataset of the bar chart, updated in place on the EDT
     private JScrollPane tableScrollPane;  // Scrolling panels for storing data tables
     private JTable dataTable;  // Stored Data Forms
-    private ExcelDataReader dataReader;  // Readers for reading Excel data
+    private JButton rejectedRowsButton;  // Opens the list of rows with unparseable values, shows their count
+    private JTextField searchField;  // Type-ahead search of the table by serial, reference number, client or handler
+    private JButton filterButton;  // Opens the facet filter, shows whether one is applied
+    private volatile TaskFilter facetFilter = TaskFilter.NONE;  // Facet filter chosen on the EDT, applied by the refresh thread
+    private TaskFilter shownFilter = TaskFilter.NONE;  // Facet filter of the view currently shown, only touched on the EDT
+    private TaskCounters shownCounters;  // Card values of the filtered tasks, null if no filter is shown
+    private int[] facetRows;  // Store rows of the filtered tasks, null if no filter is shown
+    private TaskTableModel tableModel;  // Model of the data table, reads cells from the current snapshot
+    private ExcelDataReader dataReader;  // Readers for reading Excel data, only touched by the refresh thread after startup
+    private final String excelFilePath;  // Path of the Excel file being monitored
+    private DataSnapshot snapshot;  // Snapshot currently shown by the UI, only touched on the EDT
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);  // Creating a Timed Task Scheduler
-    private static final int REFRESH_INTERVAL = 10;  // Refresh interval (seconds)
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, REFRESH_THREAD_NAME));  // Worker thread that parses and aggregates data off the EDT
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();  // Whether a refresh is already waiting on the worker thread
+    private final AtomicBoolean reloadRequested = new AtomicBoolean();  // Whether the queued refresh should re-read the Excel file
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();  // Whether the queued refresh should rebuild the charts even if the data is unchanged
+    private final AtomicReference<DashboardView> pendingView = new AtomicReference<>();  // Latest view built by the worker, waiting for the EDT
+    private ChartSet chartSet;  // Datasets of every chart view for one version, filter and day, only touched by the refresh thread
+    private DataSnapshot lastSnapshot;  // Latest snapshot built by the refresh thread
+    private WorkbookWatcher workbookWatcher;  // Reports workbook changes in watch mode
+    private SnapshotClient snapshotClient;  // Keeps the reader in step with a snapshot server in client mode
+    private final RefreshMetrics metrics = new RefreshMetrics();  // Refresh timings and counters, exported over JMX
+    private EdtWatchdog edtWatchdog;  // Measures EDT queue latency and records stalls, null if disabled
+    private static final String LOADING_TEXT = "Loading...";  // Placeholder of the cards and charts until the first view
+    private static final String REFRESH_THREAD_NAME = "dashboard-refresh";  // Name of the worker thread, also in stall reports
+    private static final int WATCHDOG_INTERVAL_MILLIS = 100;  // Default interval of the EDT watchdog probes
+    private static final int WATCHDOG_THRESHOLD_MILLIS = 500;  // Default EDT wait after which the stacks are captured
+    private static final String SERVER_URL = System.getProperty("dashboard.server");  // Snapshot server to read from instead of the workbook, e.g. http://host:8765
 
     // Constructor, pass in the path to the Excel file and initialize the interface.
     public OptimizedDashboard(String excelFilePath) {
+        this.excelFilePath = excelFilePath;
         try {
             UIManager.setLookAndFeel(new FlatLightLaf());  // Set the appearance to FlatLightLaf
         } catch (Exception ex) {
@@ -91,9 +149,26 @@ public class OptimizedDashboard extends JFrame {
         gbc.fill = GridBagConstraints.BOTH;  // Letting components fill their available space
         gbc.insets = new Insets(5, 15, 5, 15);  // Set the inner margins of the component to reduce the top and bottom spacing and maintain the left and right spacing
 
-        // Initializing the data reader and reading Excel data
+        // Initializing the data reader; the snapshot cache of the previous run is shown right away and
+        // compared with the workbook in the background. Without a cache the window opens with placeholders
+        // and the workbook is read by the refresh thread
         dataReader = new ExcelDataReader(excelFilePath);
-        dataReader.readExcelData();
+        dataReader.setMetrics(metrics);
+        dataReader.setSearchIndexed(true);
+        dataReader.setFacetIndexed(true);
+        metrics.register(excelFilePath);
+        if (SERVER_URL != null) {
+            // Client mode: a snapshot server reads the workbook, this dashboard only applies its versions
+            snapshotClient = new SnapshotClient(SERVER_URL, dataReader);
+        } else {
+            DashboardSettings.applyHistory(dataReader, excelFilePath);
+            if (DashboardSettings.USE_CACHE) {
+                dataReader.loadCache();
+            }
+        }
+        snapshot = dataReader.createSnapshot();
+        lastSnapshot = snapshot;
+        dataReader.addDeltaListener(this::onDataChanged);
 
         // Part I: Statistical regions of the mandate
         JPanel taskSummaryPanel = createTaskSummaryPanel();  // Creating a Task Statistics Panel
@@ -125,8 +200,8 @@ public class OptimizedDashboard extends JFrame {
         gbc.weighty = 0;
         add(togglePanel, gbc);  // Adding the toggle button panel to a window
 
-        // Part IV: Line Charts
-        lineChartPanel = createLineChart(350);  // Creating and setting up the Line Chart panel
+        // Part IV: Line Charts, empty until the refresh thread has built the first view
+        lineChartPanel = createLineChart(350, lineDataset, chartView);  // Creating and setting up the Line Chart panel, created once and kept
         gbc.gridx = 0;
         gbc.gridy = 3;
         gbc.gridwidth = 2;
@@ -136,7 +211,7 @@ public class OptimizedDashboard extends JFrame {
         add(lineChartPanel, gbc);
 
         // Part V: Bar charts
-        barChartPanel = createBarChart(350);  // Creating and setting up the Bar chart panel
+        barChartPanel = createBarChart(350, barDataset, chartView);  // Creating and setting up the Bar chart panel, created once and kept
         gbc.gridx = 0;
         gbc.gridy = 4;
         gbc.gridwidth = 2;
@@ -155,53 +230,186 @@ public class OptimizedDashboard extends JFrame {
         gbc.insets = new Insets(5, 15, 5, 15);
         add(tableScrollPane, gbc);
 
+        // Watch the EDT for stalls, e.g. during chart or table updates with large data
+        if (Boolean.parseBoolean(System.getProperty("dashboard.watchdog", "true"))) {
+            edtWatchdog = new EdtWatchdog(metrics,
+                    Long.getLong("dashboard.watchdog.interval", WATCHDOG_INTERVAL_MILLIS),
+                    Long.getLong("dashboard.watchdog.threshold", WATCHDOG_THRESHOLD_MILLIS),
+                    new File(System.getProperty("dashboard.watchdog.file", "dashboard-edt-stalls.log")),
+                    REFRESH_THREAD_NAME);
+            edtWatchdog.start();
+        }
+
         // Add a timed refresh task
         startAutoRefresh();  // Activate the timed refresh function
+
+        // The first view is built by the refresh thread like every later one. The same refresh reads the
+        // workbook, or re-validates the cached data against it, and then saves the cache; in client mode it
+        // fetches the first snapshot from the server
+        requestRefresh(false);
+        requestRefresh(true);
     }
 
 
-    // Method to start a timed dashboard refresh
+    // Method to start the dashboard refresh: driven by file change events ("watch", default) or by a timer ("poll"),
+    // selected with -Ddashboard.refresh.mode; in client mode "watch" long-polls the snapshot server
     private void startAutoRefresh() {
-        // Use the scheduler to execute tasks periodically at intervals specified by REFRESH_INTERVAL
-        scheduler.scheduleAtFixedRate(() -> {
-            try {
-                String excelFilePath = "data.xlsx";  // Specify the path to the Excel file
-
-                // Perform UI updates in the Event Dispatch Thread (EDT) to ensure thread-safety
-                SwingUtilities.invokeLater(() -> {
-                    // Reinitialize the data reader to read new Excel data
-                    dataReader = new ExcelDataReader(excelFilePath);
-                    dataReader.readExcelData();  // Reading data from an Excel file
-
-                    // Updating the Dashboard
-                    updateDashboard();
-                });
-            } catch (Exception e) {
-                e.printStackTrace();
+        boolean eventDriven;
+        if (snapshotClient != null) {
+            eventDriven = DashboardSettings.isWatchMode();
+            if (eventDriven) {
+                snapshotClient.startLongPoll(() -> requestRefresh(true));
             }
-        }, REFRESH_INTERVAL, REFRESH_INTERVAL, TimeUnit.SECONDS);  // Scheduling tasks at fixed intervals
+        } else {
+            workbookWatcher = DashboardSettings.startWatcher(excelFilePath, () -> requestRefresh(true));
+            eventDriven = workbookWatcher != null;  // Fall back to polling
+        }
+        // If events drive the refresh, the timer only remains as a slow safety net
+        int pollInterval = DashboardSettings.pollInterval(eventDriven);
+
+        // Use the scheduler to request a refresh periodically; an unchanged file costs only a size/mtime check
+        if (pollInterval > 0) {
+            scheduler.scheduleAtFixedRate(() -> requestRefresh(true),
+                    pollInterval, pollInterval, TimeUnit.SECONDS);  // Scheduling tasks at fixed intervals
+        }
     }
 
 
-    // Add a way to update the dashboard
-    // Ways to update dashboard
-    private void updateDashboard() {
+    // Queue a refresh on the worker thread; requests arriving while one is already queued are merged into it
+    private void requestRefresh(boolean reloadData) {
+        if (reloadData) {
+            reloadRequested.set(true);
+        } else {
+            rebuildRequested.set(true);
+        }
+        if (refreshQueued.compareAndSet(false, true)) {
+            refreshExecutor.execute(this::runRefresh);
+        } else {
+            metrics.recordCoalescedRefresh();
+        }
+    }
+
+
+    // Runs on the worker thread: parse the file, aggregate and build chart and table data off the EDT
+    private void runRefresh() {
+        refreshQueued.set(false);
+        boolean reload = reloadRequested.getAndSet(false);
+        boolean rebuild = rebuildRequested.getAndSet(false);
         try {
-            // Update the data in the Task Statistics panel
-            updateTaskSummaryCards();
+            // Read the changes of the file, or fetch them from the snapshot server; a read that changed something
+            // is reported to onDataChanged
+            boolean changed = reload && (snapshotClient != null ? snapshotClient.refresh() : dataReader.refresh());
+            if (!changed && !rebuild) {
+                if (reload) {
+                    metrics.logLastRefresh();
+                }
+                return;
+            }
+
+            long datasetStart = System.nanoTime();
+            DashboardView view = buildView(lastSnapshot);
+            metrics.recordDatasetBuild(System.nanoTime() - datasetStart);
 
-            // Update data in the task status panel
-            updateTaskStatusCards();
+            // Only the newest view is applied; if the EDT has not picked up the previous one yet it is replaced
+            if (pendingView.getAndSet(view) == null) {
+                SwingUtilities.invokeLater(this::applyPendingView);
+            } else {
+                metrics.recordReplacedView();
+            }
 
+            // Keep the snapshot cache current for the next start, after the view has been handed over
+            if (changed && DashboardSettings.USE_CACHE && snapshotClient == null) {
+                dataReader.saveCache();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+
+    // Runs on the worker thread: cards, rows and the datasets of every chart view for a snapshot, so switching
+    // the chart view on the EDT only swaps datasets. The datasets are reused while the version, filter and day stay
+    private DashboardView buildView(DataSnapshot viewSnapshot) {
+        TaskFilter filter = facetFilter;
+        LocalDate today = LocalDate.now();
+
+        // A facet filter is answered from the snapshot's bitsets: the selected rows and population counts,
+        // plus the daily counters of the matching archived tasks, which are not in the snapshot
+        FacetIndex facets = viewSnapshot.getFacetIndex();
+        BitSet selection = filter.isEmpty() || facets == null ? null : facets.select(filter);
+        NavigableMap<Integer, TaskCounters> archived = selection == null ? null : dataReader.getArchivedCounters(filter);
+
+        if (chartSet == null || !chartSet.matches(viewSnapshot.getVersion(), filter, today)) {
+            chartSet = new ChartSet(viewSnapshot.getVersion(), filter, today);
+            for (ChartView view : ChartView.values()) {
+                chartSet.lineDatasets.put(view, ChartDatasets.createLineDataset(dataReader, view, facets, selection, archived));
+                chartSet.barDatasets.put(view, ChartDatasets.createBarDataset(dataReader, view, facets, selection, archived));
+            }
+        }
+        return new DashboardView(viewSnapshot, filter,
+                selection == null ? null : facets.countStatistics(selection, today, archived),
+                selection == null ? null : selection.stream().toArray(), chartSet);
+    }
+
+
+    // Delta listener, runs on the worker thread for every read that changed tasks or statistics
+    private void onDataChanged(TaskDelta delta) {
+        lastSnapshot = dataReader.createSnapshot();
+    }
+
+
+    // Runs on the EDT: swap in the latest view built by the worker thread
+    private void applyPendingView() {
+        DashboardView view = pendingView.getAndSet(null);
+        if (view == null) {
+            return;
+        }
+        boolean firstView = shownView == null;
+        long previousVersion = snapshot.getVersion();
+        snapshot = view.getSnapshot();
+        shownView = view;
+        boolean filterChanged = !view.getFilter().equals(shownFilter) || view.getCounters() != shownCounters;
+        shownFilter = view.getFilter();
+        shownCounters = view.getCounters();
+        facetRows = view.getRows();
+
+        // The delta only describes the step from the directly preceding version; if views were skipped,
+        // or the first view replaces the placeholders, everything is updated
+        TaskDelta delta = snapshot.getVersion() == previousVersion + 1 && !firstView ? snapshot.getDelta() : null;
+        long start = System.nanoTime();
+        if (firstView) {
+            lineChartPanel.getChart().getPlot().setNoDataMessage(null);
+            barChartPanel.getChart().getPlot().setNoDataMessage(null);
+        }
+        updateDashboard(view, firstView || snapshot.getVersion() != previousVersion, firstView || filterChanged, delta);
+        metrics.recordEdtUpdate(System.nanoTime() - start);
+        metrics.logLastRefresh();
+    }
+
+
+    // Add a way to update the dashboard
+    // Ways to update dashboard: only the parts the delta touches are updated
+    private void updateDashboard(DashboardView view, boolean dataChanged, boolean filterChanged, TaskDelta delta) {
+        try {
+            if (filterChanged || (dataChanged && (delta == null || !delta.getCounterChanges().isEmpty()))) {
+                // Update the data in the Task Statistics panel
+                updateTaskSummaryCards();
+
+                // Update data in the task status panel
+                updateTaskStatusCards();
+            }
 
-            updateCharts();
+            // Charts are only redrawn if their values differ
+            updateCharts(view);
 
-            // Updating data tables
-            updateDataTable();
+            // Updating data tables, the model announces only the rows in the delta
+            if (dataChanged || filterChanged) {
+                updateDataTable();
+                rejectedRowsButton.setText(rejectedRowsLabel());
+                filterButton.setText(shownFilter.isEmpty() ? "Filter" : "Filter (on)");
+            }
 
-            // Refresh UI Interface
-            revalidate();
-            repaint();
+            // No frame-wide revalidate/repaint: labels, charts and the table repaint themselves when they change
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -224,13 +432,13 @@ public class OptimizedDashboard extends JFrame {
 
                 switch (titleLabel.getText()) {
                     case "New Tasks":
-                        countLabel.setText(String.valueOf(dataReader.getNewTasksCount()));
+                        countLabel.setText(String.valueOf(shownCounters != null ? shownCounters.getNewTasks() : snapshot.getNewTasksCount()));
                         break;
                     case "Ongoing Tasks":
-                        countLabel.setText(String.valueOf(dataReader.getOngoingTasksCount()));
+                        countLabel.setText(String.valueOf(shownCounters != null ? shownCounters.getOngoing() : snapshot.getOngoingTasksCount()));
                         break;
                     case "Completed Tasks":
-                        countLabel.setText(String.valueOf(dataReader.getCompletedTasksCount()));
+                        countLabel.setText(String.valueOf(shownCounters != null ? shownCounters.getCompleted() : snapshot.getCompletedTasksCount()));
                         break;
                 }
             }
@@ -254,10 +462,10 @@ public class OptimizedDashboard extends JFrame {
 
                 switch (titleLabel.getText()) {
                     case "Within Target TAT":
-                        countLabel.setText(String.valueOf(dataReader.getNormalTATCount()));
+                        countLabel.setText(String.valueOf(shownCounters != null ? shownCounters.getWithinTat() : snapshot.getNormalTATCount()));
                         break;
                     case "Over Target TAT":
-                        countLabel.setText(String.valueOf(dataReader.getAbnormalTATCount()));
+                        countLabel.setText(String.valueOf(shownCounters != null ? shownCounters.getOverTat() : snapshot.getAbnormalTATCount()));
                         break;
                 }
             }
@@ -267,70 +475,42 @@ public class OptimizedDashboard extends JFrame {
 
     // Methods for updating data tables
     private void updateDataTable() {
+        // Only the changed rows are announced, so column widths, selection and scroll position are kept
+        tableModel.setSnapshot(snapshot, tableRows());
+    }
 
-        // Getting task list data from the data reader
-        List<ExcelDataReader.TaskData> taskList = dataReader.getTaskList();
-        Object[][] newData = new Object[taskList.size()][dataTable.getColumnCount()];
-
-        // Populate the task data into the array
-        for (int i = 0; i < taskList.size(); i++) {
-            ExcelDataReader.TaskData task = taskList.get(i);
-            newData[i] = new Object[] {
-                    convertDateToEnglishFormat(task.getDate()),
-                    task.getDocumentSerial(),
-                    task.getDocumentType(),
-                    task.getReferenceNumber(),
-                    task.getAmount(),
-                    task.getClientName(),
-                    task.getStatus(),
-                    task.getTat(),
-                    task.getHandler(),
-                    task.getApplicationReceivedAt(),
-                    task.getScannedAt(),
-                    task.getTotalTimeAtBranch(),
-                    task.getVerifiedAt(),
-                    task.getTotalTimeForVerification(),
-                    task.getLodgementStartedAt(),
-                    task.getConfirmedAt(),
-                    task.getTotalTimeForEntry(),
-                    task.getComplianceVerifiedAt(),
-                    task.getAuthorizedAt()
-            };
-        }
-
-
-        String[] columnNames = {
-                "Date", "Document Serial", "Document Type", "Reference Number",
-                "Amount", "Client Name", "Status", "TAT", "Handler",
-                "Application Received At", "Scanned At", "Total Time At Branch",
-                "Verified At", "Total Time For Verification",
-                "Lodgement Started At", "Confirmed At", "Total Time For Entry",
-                "Compliance Verified At", "Authorized At"
-        };
-
-        // Updating the table model with new data and column names
-        dataTable.setModel(new DefaultTableModel(newData, columnNames));
-
-        // Setting the basic properties of the form
-        dataTable.setFillsViewportHeight(true);
-        dataTable.setRowHeight(35);
-        dataTable.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-        dataTable.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 14));
-        dataTable.setShowGrid(false);
-        dataTable.setIntercellSpacing(new Dimension(0, 0));
-        dataTable.setSelectionBackground(new Color(52, 152, 219, 50));
-        dataTable.setSelectionForeground(PRIMARY_COLOR);
 
+    // Rows shown in the table: those of the facet filter that match the search box
+    private int[] tableRows() {
+        int[] searched = searchRows();
+        if (facetRows == null || searched == null) {
+            return facetRows == null ? searched : facetRows;
+        }
+        int[] rows = new int[Math.min(facetRows.length, searched.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < facetRows.length && j < searched.length; ) {
+            if (facetRows[i] < searched[j]) {
+                i++;
+            } else if (facetRows[i] > searched[j]) {
+                j++;
+            } else {
+                rows[count++] = facetRows[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
 
-        dataTable.getTableHeader().setBackground(BACKGROUND_COLOR);
-        dataTable.getTableHeader().setForeground(PRIMARY_COLOR);
-        dataTable.getTableHeader().setBorder(BorderFactory.createEmptyBorder());
 
-        // Setting Column Width
-        dataTable.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
-        for (int i = 0; i < dataTable.getColumnCount(); i++) {
-            dataTable.getColumnModel().getColumn(i).setPreferredWidth(150);
+    // Rows of the shown snapshot matching the search box, null if it is empty; answered by the snapshot's
+    // search index, which the refresh thread built, so typing never scans the table
+    private int[] searchRows() {
+        String query = searchField.getText();
+        if (query.trim().isEmpty() || snapshot.getSearchIndex() == null) {
+            return null;
         }
+        return snapshot.getSearchIndex().search(query);
     }
 
 
@@ -338,7 +518,18 @@ public class OptimizedDashboard extends JFrame {
     @Override
     public void dispose() {
         // Turn off the timer and stop scheduling tasks
+        if (workbookWatcher != null) {
+            workbookWatcher.close();
+        }
+        if (snapshotClient != null) {
+            snapshotClient.close();
+        }
+        if (edtWatchdog != null) {
+            edtWatchdog.close();
+        }
+        metrics.unregister();
         scheduler.shutdown();
+        refreshExecutor.shutdownNow();
         try {
             // Wait for the timer to turn off completely, up to 2 seconds
             if (!scheduler.awaitTermination(2, TimeUnit.SECONDS)) {
@@ -359,9 +550,9 @@ public class OptimizedDashboard extends JFrame {
         // Use the GridLayout layout manager to create a 1-row, 3-column panel
         JPanel panel = new JPanel(new GridLayout(1, 3, 15, 0));
 
-        panel.add(createTaskCard("New Tasks", dataReader.getNewTasksCount(), NEW_TASK_COLOR));  // 新任务卡片
-        panel.add(createTaskCard("Ongoing Tasks", dataReader.getOngoingTasksCount(), ONGOING_TASK_COLOR));  // 进行中任务卡片
-        panel.add(createTaskCard("Completed Tasks", dataReader.getCompletedTasksCount(), COMPLETED_TASK_COLOR));  // 已完成任务卡片
+        panel.add(createTaskCard("New Tasks", cardText(snapshot.getNewTasksCount()), NEW_TASK_COLOR));  // 新任务卡片
+        panel.add(createTaskCard("Ongoing Tasks", cardText(snapshot.getOngoingTasksCount()), ONGOING_TASK_COLOR));  // 进行中任务卡片
+        panel.add(createTaskCard("Completed Tasks", cardText(snapshot.getCompletedTasksCount()), COMPLETED_TASK_COLOR));  // 已完成任务卡片
 
 
         return panel;
@@ -372,13 +563,19 @@ public class OptimizedDashboard extends JFrame {
     private JPanel createTaskStatusPanel() {
 
         JPanel panel = new JPanel(new GridLayout(1, 2, 15, 0));
-        panel.add(createStatusCard("Within Target TAT", dataReader.getNormalTATCount(), WITHIN_TAT_COLOR));  // 在目标时限内任务卡片
-        panel.add(createStatusCard("Over Target TAT", dataReader.getAbnormalTATCount(), OVER_TAT_COLOR));  // 超出目标时限任务卡片
+        panel.add(createStatusCard("Within Target TAT", cardText(snapshot.getNormalTATCount()), WITHIN_TAT_COLOR));  // 在目标时限内任务卡片
+        panel.add(createStatusCard("Over Target TAT", cardText(snapshot.getAbnormalTATCount()), OVER_TAT_COLOR));  // 超出目标时限任务卡片
 
         return panel;
     }
 
 
+    // Initial card value: the count of the cached or fetched data, a placeholder while nothing is loaded yet
+    private String cardText(int count) {
+        return snapshot.getVersion() == 0 ? LOADING_TEXT : String.valueOf(count);
+    }
+
+
     // Create toggle button area
     private JPanel createTogglePanel() {
 
@@ -386,74 +583,219 @@ public class OptimizedDashboard extends JFrame {
         panel.setBackground(BACKGROUND_COLOR);
         panel.setBorder(BorderFactory.createEmptyBorder(2, 0, 2, 0));
 
-        // Create two buttons: one for the weekly view and the other for the monthly view
-        JButton weeklyButton = createStyledButton("Weekly");
-        JButton monthlyButton = createStyledButton("Monthly");
+        // One button per chart view; the datasets of every view are precomputed, a click only swaps them in
+        Dimension buttonSize = new Dimension(100, 28);
+        for (ChartView view : ChartView.values()) {
+            JButton viewButton = createStyledButton(view.getButtonLabel());
+            viewButton.addActionListener(e -> {
+                chartView = view;
+                if (shownView != null) {
+                    updateCharts(shownView);
+                }
+            });
+
+            // Setting the preferred size of the button
+            viewButton.setPreferredSize(buttonSize);
+            if (view != ChartView.WEEK) {
+                panel.add(Box.createHorizontalStrut(8));
+            }
+            panel.add(viewButton);
+        }
 
-        // Adding a click event listener for the Week View button
-        weeklyButton.addActionListener(e -> {
-            isWeeklyView = true;  // Set to weekly view
-            updateCharts();
+        // Rows with values that could not be parsed are listed on demand instead of being reported one by one
+        rejectedRowsButton = createStyledButton(rejectedRowsLabel());
+        rejectedRowsButton.addActionListener(e -> showRejectedRows());
+        panel.add(Box.createHorizontalStrut(24));
+        panel.add(rejectedRowsButton);
+
+        // The table is filtered on every keystroke
+        searchField = new JTextField(20);
+        searchField.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        searchField.setToolTipText("Document serial, reference number, client or handler");
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { tableModel.setShownRows(tableRows()); }
+            public void removeUpdate(DocumentEvent e) { tableModel.setShownRows(tableRows()); }
+            public void changedUpdate(DocumentEvent e) { tableModel.setShownRows(tableRows()); }
         });
+        // Facet filter of the cards, charts and table
+        filterButton = createStyledButton("Filter");
+        filterButton.addActionListener(e -> showFilterDialog());
+        panel.add(Box.createHorizontalStrut(8));
+        panel.add(filterButton);
+
+        JLabel searchLabel = new JLabel("Search");
+        searchLabel.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        searchLabel.setForeground(PRIMARY_COLOR);
+        panel.add(Box.createHorizontalStrut(24));
+        panel.add(searchLabel);
+        panel.add(searchField);
+
+        return panel;
+    }
+
+
+    private String rejectedRowsLabel() {
+        return "Rejected Rows (" + snapshot.getRejectedRows().size() + ")";
+    }
+
+
+    // Show the quarantine view: every task whose row had values that could not be parsed, as of the shown snapshot
+    private void showRejectedRows() {
+        List<RejectedRow> rows = snapshot.getRejectedRows();
+        String[] columns = {"DocumentSerial", "ReferenceNumber", "Column", "Value", "Unparseable Fields"};
+        Object[][] cells = new Object[rows.size()][];
+        for (int i = 0; i < rows.size(); i++) {
+            RejectedRow row = rows.get(i);
+            cells[i] = new Object[]{row.getDocumentSerial(), row.getReferenceNumber(), row.getColumn(),
+                    row.getValue(), row.getFieldCount()};
+        }
+        JTable table = new JTable(cells, columns);
+        table.setDefaultEditor(Object.class, null);
+        table.setFillsViewportHeight(true);
+
+        JDialog dialog = new JDialog(this, rejectedRowsLabel(), false);
+        dialog.add(new JScrollPane(table));
+        dialog.setSize(800, 400);
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+    }
+
 
-        // Adding a click event listener for the Month View button
-        monthlyButton.addActionListener(e -> {
-            isWeeklyView = false;
-            updateCharts();
+    // Choose status, document type and handler values and a date window; values of one facet are alternatives,
+    // the facets are combined. The choices offered are the values of the shown snapshot
+    private void showFilterDialog() {
+        FacetIndex facets = snapshot.getFacetIndex();
+        if (facets == null) {
+            return;
+        }
+        TaskFilter current = facetFilter;
+        JList<String> statusList = createFacetList(facets.getStatuses(), current.getStatuses());
+        JList<String> typeList = createFacetList(facets.getDocumentTypes(), current.getDocumentTypes());
+        JList<String> handlerList = createFacetList(facets.getHandlers(), current.getHandlers());
+        JTextField fromField = new JTextField(current.getStartDay() == TaskFields.NO_DATE ? "" : TaskFields.formatDate(current.getStartDay()), 10);
+        JTextField toField = new JTextField(current.getEndDay() == TaskFields.NO_DATE ? "" : TaskFields.formatDate(current.getEndDay()), 10);
+
+        JPanel lists = new JPanel(new GridLayout(1, 3, 8, 0));
+        lists.add(createFacetPanel("Status", statusList));
+        lists.add(createFacetPanel("Document Type", typeList));
+        lists.add(createFacetPanel("Handler", handlerList));
+        JPanel dates = new JPanel();
+        dates.add(new JLabel("From (d-MMM-yy)"));
+        dates.add(fromField);
+        dates.add(new JLabel("To"));
+        dates.add(toField);
+
+        JDialog dialog = new JDialog(this, "Filter", true);
+        JButton applyButton = createStyledButton("Apply");
+        JButton clearButton = createStyledButton("Clear");
+        applyButton.addActionListener(e -> {
+            int startDay = TaskFields.parseDate(fromField.getText());
+            int endDay = TaskFields.parseDate(toField.getText());
+            if ((startDay == TaskFields.NO_DATE && !fromField.getText().trim().isEmpty())
+                    || (endDay == TaskFields.NO_DATE && !toField.getText().trim().isEmpty())) {
+                JOptionPane.showMessageDialog(dialog, "Dates are written like 7-Aug-26", "Filter", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            applyFacetFilter(new TaskFilter(new HashSet<>(statusList.getSelectedValuesList()),
+                    new HashSet<>(typeList.getSelectedValuesList()), new HashSet<>(handlerList.getSelectedValuesList()),
+                    startDay, endDay));
+            dialog.dispose();
         });
+        clearButton.addActionListener(e -> {
+            applyFacetFilter(TaskFilter.NONE);
+            dialog.dispose();
+        });
+        JPanel buttons = new JPanel();
+        buttons.add(applyButton);
+        buttons.add(clearButton);
+
+        dialog.setLayout(new BorderLayout(0, 8));
+        dialog.add(lists, BorderLayout.CENTER);
+        dialog.add(dates, BorderLayout.NORTH);
+        dialog.add(buttons, BorderLayout.SOUTH);
+        dialog.setSize(700, 400);
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+    }
 
-        // Setting the preferred size of the button
-        Dimension buttonSize = new Dimension(100, 28);
-        weeklyButton.setPreferredSize(buttonSize);
-        monthlyButton.setPreferredSize(buttonSize);
-        panel.add(weeklyButton);
-        panel.add(Box.createHorizontalStrut(8));
-        panel.add(monthlyButton);
+
+    private static JList<String> createFacetList(Collection<String> values, Set<String> selected) {
+        JList<String> list = new JList<>(values.toArray(new String[0]));
+        list.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        List<Integer> indices = new ArrayList<>();
+        int index = 0;
+        for (String value : values) {
+            if (selected.contains(value)) {
+                indices.add(index);
+            }
+            index++;
+        }
+        list.setSelectedIndices(indices.stream().mapToInt(Integer::intValue).toArray());
+        return list;
+    }
 
 
+    private static JPanel createFacetPanel(String title, JList<String> list) {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(new JLabel(title), BorderLayout.NORTH);
+        panel.add(new JScrollPane(list), BorderLayout.CENTER);
         return panel;
     }
 
 
-    // Update chart area
-    private void updateCharts() {
-        // Remove existing Line Chart and Bar Chart panels
-        remove(lineChartPanel);
-        remove(barChartPanel);
+    // The filtered cards, charts and rows are worked out by the refresh thread like any other view
+    private void applyFacetFilter(TaskFilter filter) {
+        facetFilter = filter;
+        requestRefresh(false);
+    }
 
-        // Create new Line Chart and Bar Chart panels, passing in 350 as the height
-        lineChartPanel = createLineChart(350);
-        barChartPanel = createBarChart(350);
 
-        // Set GridBagConstraints for adjusting the layout of the component
-        GridBagConstraints gbc = new GridBagConstraints();
-        gbc.fill = GridBagConstraints.BOTH;
-        gbc.insets = new Insets(10, 10, 10, 10);
+    // Update chart area: the charts stay in place, only their datasets and titles change
+    private void updateCharts(DashboardView view) {
+        if (!lineDataset.equals(view.getLineDataset(chartView))) {
+            copyDataset(view.getLineDataset(chartView), lineDataset);
+        }
+        if (!barDataset.equals(view.getBarDataset(chartView))) {
+            copyDataset(view.getBarDataset(chartView), barDataset);
+        }
 
-        // Re-add the Line Chart panel to the layout
-        gbc.gridx = 0;
-        gbc.gridy = 3;
-        gbc.gridwidth = 2;
-        gbc.weightx = 1;
-        gbc.weighty = 1;
-        add(lineChartPanel, gbc);
+        JFreeChart lineChart = lineChartPanel.getChart();
+        if (!chartView.getLineTitle().equals(lineChart.getTitle().getText())) {
+            lineChart.getTitle().setText(chartView.getLineTitle());
+            lineChart.getCategoryPlot().getDomainAxis().setLabel(chartView.getAxisLabel());
+        }
+        JFreeChart barChart = barChartPanel.getChart();
+        if (!chartView.getBarTitle().equals(barChart.getTitle().getText())) {
+            barChart.getTitle().setText(chartView.getBarTitle());
+            barChart.getCategoryPlot().getDomainAxis().setLabel(chartView.getBarAxisLabel());
+        }
+    }
 
-        // Re-add the Bar Chart panel to the layout
-        gbc.gridx = 0;
-        gbc.gridy = 4;
-        gbc.gridwidth = 2;
-        gbc.weightx = 1;
-        gbc.weighty = 1;
-        add(barChartPanel, gbc);
 
-        // Re-validating the layout and redrawing the interface
-        revalidate();
-        repaint();
+    // Copy a dataset prepared by the worker into a live chart dataset with a single change notification
+    private static void copyDataset(CategoryDataset source, DefaultCategoryDataset target) {
+        boolean sameKeys = source.getRowKeys().equals(target.getRowKeys())
+                && source.getColumnKeys().equals(target.getColumnKeys());
+
+        target.setNotify(false);
+        try {
+            if (!sameKeys) {
+                target.clear();
+            }
+            for (int row = 0; row < source.getRowCount(); row++) {
+                for (int column = 0; column < source.getColumnCount(); column++) {
+                    target.setValue(source.getValue(row, column), source.getRowKey(row), source.getColumnKey(column));
+                }
+            }
+        } finally {
+            // Re-enabling notification fires one change event, which repaints only the chart panel
+            target.setNotify(true);
+        }
     }
 
 
     // Creating Task Cards
-    private JPanel createTaskCard(String title, int count, Color color) {
+    private JPanel createTaskCard(String title, String count, Color color) {
 
         JPanel card = new JPanel(new BorderLayout(5, 5));
         card.setBackground(CARD_BACKGROUND);
@@ -470,7 +812,7 @@ public class OptimizedDashboard extends JFrame {
         titleLabel.setForeground(PRIMARY_COLOR);
 
         // Create count labels and set fonts and colors
-        JLabel countLabel = new JLabel(String.valueOf(count));
+        JLabel countLabel = new JLabel(count);
         countLabel.setFont(new Font("Segoe UI", Font.BOLD, 32));
         countLabel.setForeground(color);
 
@@ -483,7 +825,7 @@ public class OptimizedDashboard extends JFrame {
 
 
     // Creating Status Card
-    private JPanel createStatusCard(String title, int count, Color color) {
+    private JPanel createStatusCard(String title, String count, Color color) {
         // Create a panel, using the BorderLayout layout, and set the vertical spacing to 5 pixels
         JPanel card = new JPanel(new BorderLayout(0, 5));
         card.setBackground(color);
@@ -499,7 +841,7 @@ public class OptimizedDashboard extends JFrame {
         card.add(titleLabel, BorderLayout.NORTH);
 
         // Create count labels, center them, and remove the percentage sign
-        JLabel countLabel = new JLabel(String.valueOf(count), SwingConstants.CENTER);
+        JLabel countLabel = new JLabel(count, SwingConstants.CENTER);
         countLabel.setFont(new Font("Segoe UI", Font.BOLD, 32));
         countLabel.setForeground(Color.WHITE);
         card.add(countLabel, BorderLayout.CENTER);
@@ -519,17 +861,18 @@ public class OptimizedDashboard extends JFrame {
 
 
     // Creating Line Charts
-    private ChartPanel createLineChart(int height) {
+    private ChartPanel createLineChart(int height, CategoryDataset dataset, ChartView view) {
 
         JFreeChart lineChart = ChartFactory.createLineChart(
-                isWeeklyView ? "Weekly Completed Tasks Trend" : "Monthly Completed Tasks Trend",
-                isWeeklyView ? "Day of Week" : "Week",
+                view.getLineTitle(),
+                view.getAxisLabel(),
                 "Count",
-                createLineDataset()
+                dataset
         );
 
 
         CategoryPlot plot = lineChart.getCategoryPlot();
+        plot.setNoDataMessage(LOADING_TEXT);  // Shown until the first view arrives
         plot.setBackgroundPaint(Color.WHITE);
         plot.setDomainGridlinePaint(new Color(0, 0, 0, 20));
         plot.setRangeGridlinePaint(new Color(0, 0, 0, 20));
@@ -578,76 +921,18 @@ public class OptimizedDashboard extends JFrame {
     }
 
 
-    // Creating Line Chart Data Sets
-    private CategoryDataset createLineDataset() {
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();  // Create an empty dataset
-
-        if (isWeeklyView) {
-            // Get the last 5 working days and their corresponding display labels
-            List<WorkDay> workDays = getLastFiveWorkDays();
-
-            // Adding data in chronological order
-            for (WorkDay workDay : workDays) {
-                String date = workDay.getDate();
-                String label = workDay.getLabel() + "（"+ convertDateToEnglishFormat(date) +"）";
-                List<ExcelDataReader.TaskData> dayTasks = dataReader.getTasksByDate(date);
-
-                // Count the number of tasks with a status of LODGE
-                long completedTasks = dayTasks.stream()
-                        .filter(task -> "LODGE".equalsIgnoreCase(task.getStatus()))
-                        .count();
-
-                dataset.addValue(completedTasks, "Completed Tasks", label);
-            }
-        } else {
-            // Monthly view: using the new method of data acquisition
-            List<ExcelDataReader.WeekData> weekDataList = dataReader.getMonthlyWeekData();  // Access to weekly data
-            for (ExcelDataReader.WeekData weekData : weekDataList) {
-                String weekLabel = weekData.getWeekLabel();
-                List<ExcelDataReader.TaskData> weekTasks = weekData.getTasks();
-
-                // Counts the number of tasks with statuses of PENDING and LODGE
-                long ongoingTasks = weekTasks.stream()
-                        .filter(task -> "PENDING".equalsIgnoreCase(task.getStatus()))
-                        .count();
-
-                long completedTasks = weekTasks.stream()
-                        .filter(task -> "LODGE".equalsIgnoreCase(task.getStatus()))
-                        .count();
-
-                // Statistics on TAT-compliant and non-TAT-compliant tasks
-                long withinTAT = weekTasks.stream()
-                        .filter(task -> "LODGE".equalsIgnoreCase(task.getStatus())
-                                && "Ecoll - Export Collection".equals(task.getDocumentType())
-                                && isWithinTargetTAT(task.getTat()))
-                        .count();
-
-                long overTAT = weekTasks.stream()
-                        .filter(task -> "LODGE".equalsIgnoreCase(task.getStatus())
-                                && "Ecoll - Export Collection".equals(task.getDocumentType())
-                                && !isWithinTargetTAT(task.getTat()))
-                        .count();
-
-
-                dataset.addValue(completedTasks, "Completed Tasks", weekLabel);
-            }
-        }
-
-        return dataset;
-    }
-
-
     // Creating Bar Charts
-    private ChartPanel createBarChart(int height) {
+    private ChartPanel createBarChart(int height, CategoryDataset dataset, ChartView view) {
 
         JFreeChart barChart = ChartFactory.createBarChart(
-                "Last 5 Working Days Status Distribution",
-                "Date",
+                view.getBarTitle(),
+                view.getBarAxisLabel(),
                 "Count",
-                createBarDataset()
+                dataset
         );
 
         CategoryPlot plot = barChart.getCategoryPlot();
+        plot.setNoDataMessage(LOADING_TEXT);
         plot.setBackgroundPaint(Color.WHITE);
         plot.setDomainGridlinePaint(new Color(0, 0, 0, 20));
         plot.setRangeGridlinePaint(new Color(0, 0, 0, 20));
@@ -700,286 +985,70 @@ public class OptimizedDashboard extends JFrame {
         return chartPanel;
     }
 
-    // Modifying Bar Chart Data Sets
-    private CategoryDataset createBarDataset() {
-        // Create a default dataset
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-
-        if (isWeeklyView) {
-            // Get the last 5 working days and their corresponding display labels
-            List<WorkDay> workDays = getLastFiveWorkDays();
-
-            for (WorkDay workDay : workDays) {
-                String date = workDay.getDate();
-                String label = workDay.getLabel() + "（" + convertDateToEnglishFormat(date) + "）";
-                List<ExcelDataReader.TaskData> dayTasks = dataReader.getTasksByDate(date);
-
-                long newTasks = dayTasks.stream()
-                        .filter(task -> task.getDate().equals(date)) // Filter out the day's tasks
-                        .count();
-
-                long ongoingTasks = dayTasks.stream()
-                        .filter(task -> "PENDING".equalsIgnoreCase(task.getStatus()))
-                        .count();
-
-
-                long completedTasks = dayTasks.stream()
-                        .filter(task -> "LODGE".equalsIgnoreCase(task.getStatus()))
-                        .count();
-
-                // 4&5. Within/Over Target TAT:
-                // DocumentType == Ecoll - Export Collection && Status == LODGE
-                long withinTAT = dayTasks.stream()
-                        .filter(task -> "LODGE".equalsIgnoreCase(task.getStatus())
-                                && "Ecoll - Export Collection".equals(task.getDocumentType()) // Ecoll - Export Collection
-                                && isWithinTargetTAT(task.getTat())) //
-                        .count();
-
-                long overTAT = dayTasks.stream()
-                        .filter(task -> "LODGE".equalsIgnoreCase(task.getStatus())
-                                && "Ecoll - Export Collection".equals(task.getDocumentType())
-                                && !isWithinTargetTAT(task.getTat()))
-                        .count();
-
-                // Adding data to a dataset
-                dataset.addValue(newTasks, "New Tasks", label);
-                dataset.addValue(ongoingTasks, "Ongoing Tasks", label);
-                dataset.addValue(completedTasks, "Completed Tasks", label);
-                dataset.addValue(withinTAT, "Within Target TAT", label);
-                dataset.addValue(overTAT, "Over Target TAT", label);
-            }
-        } else {
-
-            List<ExcelDataReader.WeekData> weekDataList = dataReader.getMonthlyWeekData();
-            for (ExcelDataReader.WeekData weekData : weekDataList) {
-                String weekLabel = weekData.getWeekLabel();
-                List<ExcelDataReader.TaskData> weekTasks = weekData.getTasks();
-
-
-                long ongoingTasks = weekTasks.stream()
-                        .filter(task -> "PENDING".equalsIgnoreCase(task.getStatus()))
-                        .count();
-
-                long completedTasks = weekTasks.stream()
-                        .filter(task -> "LODGE".equalsIgnoreCase(task.getStatus()))
-                        .count();
-
-                long withinTAT = weekTasks.stream()
-                        .filter(task -> "LODGE".equalsIgnoreCase(task.getStatus())
-                                && "Ecoll - Export Collection".equals(task.getDocumentType())
-                                && isWithinTargetTAT(task.getTat()))
-                        .count();
-
-                long overTAT = weekTasks.stream()
-                        .filter(task -> "LODGE".equalsIgnoreCase(task.getStatus())
-                                && "Ecoll - Export Collection".equals(task.getDocumentType())
-                                && !isWithinTargetTAT(task.getTat()))
-                        .count();
-
-
-                dataset.addValue(ongoingTasks, "Ongoing Tasks", weekLabel);
-                dataset.addValue(completedTasks, "Completed Tasks", weekLabel);
-                dataset.addValue(withinTAT, "Within Target TAT", weekLabel);
-                dataset.addValue(overTAT, "Over Target TAT", weekLabel);
-            }
-        }
-
-        return dataset;
-    }
-
-
-    // Auxiliary method: determining whether the TAT is within the target time
-    private boolean isWithinTargetTAT(String tatString) {
-        try {
-            // Returns false if the TAT string is null or a space
-            if (tatString == null || tatString.trim().isEmpty()) {
-                return false;
-            }
-
-            // Split the TAT string by colons to get hours, minutes and seconds
-            String[] parts = tatString.split(":");
-            if (parts.length >= 3) {
-
-                int hours = Integer.parseInt(parts[0]);
-                int minutes = Integer.parseInt(parts[1]);
-                int seconds = Integer.parseInt(parts[2]);
-
-                // Calculate total TAT seconds
-                int totalSeconds = hours * 3600 + minutes * 60 + seconds;
-
-                // Returns true if the total number of TAT seconds is less than or equal to 4 hours (14,400 seconds), indicating that the target time in the
-                return totalSeconds <= 4 * 3600;
-            }
-        } catch (Exception e) {
-            e.printStackTrace(); // Catch exceptions and print stack information
+    // Everything the EDT needs to refresh the dashboard, prepared on the worker thread
+    private static class DashboardView {
+        private final DataSnapshot snapshot;
+        private final TaskFilter filter;
+        private final TaskCounters counters;  // Card values of the filtered tasks, null without a filter
+        private final int[] rows;  // Store rows of the filtered tasks, null without a filter
+        private final ChartSet charts;
+
+        public DashboardView(DataSnapshot snapshot, TaskFilter filter, TaskCounters counters, int[] rows, ChartSet charts) {
+            this.snapshot = snapshot;
+            this.filter = filter;
+            this.counters = counters;
+            this.rows = rows;
+            this.charts = charts;
         }
-        return false;
-    }
 
-
-    private static class WorkDay {
-        private final String date;
-        private final String label;
-
-        public WorkDay(String date, String label) {
-            this.date = date;
-            this.label = label;
-        }
-
-        // Get the actual date
-        public String getDate() { return date; }
-
-        // Get display labels
-        public String getLabel() { return label; }
+        public DataSnapshot getSnapshot() { return snapshot; }
+        public TaskFilter getFilter() { return filter; }
+        public TaskCounters getCounters() { return counters; }
+        public int[] getRows() { return rows; }
+        public CategoryDataset getLineDataset(ChartView view) { return charts.lineDatasets.get(view); }
+        public CategoryDataset getBarDataset(ChartView view) { return charts.barDatasets.get(view); }
     }
 
-    // Get the last 5 business days and their labels
-    private List<WorkDay> getLastFiveWorkDays() {
-        List<WorkDay> workDays = new ArrayList<>();
-        LocalDate currentDate = LocalDate.now();
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("d-MMM-yy");
-
 
-        while (workDays.size() < 5) {
-            //  If the current date is not a Saturday or Sunday, it is considered a weekday
-            if (currentDate.getDayOfWeek() != DayOfWeek.SATURDAY &&
-                    currentDate.getDayOfWeek() != DayOfWeek.SUNDAY) {
+    // Datasets of every chart view, built for one data version, facet filter and day; not changed once handed to the EDT
+    private static class ChartSet {
+        private final long version;
+        private final TaskFilter filter;
+        private final LocalDate day;
+        private final Map<ChartView, CategoryDataset> lineDatasets = new EnumMap<>(ChartView.class);
+        private final Map<ChartView, CategoryDataset> barDatasets = new EnumMap<>(ChartView.class);
 
-                String date = currentDate.format(dateFormatter);
-
-                String label = currentDate.getDayOfWeek()
-                        .getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
-
-                workDays.add(0, new WorkDay(date, label));
-            }
-            // Current date minus one day to check if the previous day was a business day
-            currentDate = currentDate.minusDays(1);
+        ChartSet(long version, TaskFilter filter, LocalDate day) {
+            this.version = version;
+            this.filter = filter;
+            this.day = day;
         }
 
-        return workDays;
-    }
-
-
-    private String convertChineseMonthToEnglish(String chineseMonth) {
-        switch (chineseMonth) {
-            case "一月": return "Jan";
-            case "二月": return "Feb";
-            case "三月": return "Mar";
-            case "四月": return "Apr";
-            case "五月": return "May";
-            case "六月": return "Jun";
-            case "七月": return "Jul";
-            case "八月": return "Aug";
-            case "九月": return "Sep";
-            case "十月": return "Oct";
-            case "十一月": return "Nov";
-            case "十二月": return "Dec";
-            default: return chineseMonth;
+        boolean matches(long version, TaskFilter filter, LocalDate day) {
+            return this.version == version && this.filter.equals(filter) && this.day.equals(day);
         }
     }
 
-    public String convertDateToEnglishFormat(String dateString) {
-
-        String[] parts = dateString.split("-");
-        String day = parts[0];
-        String month = convertChineseMonthToEnglish(parts[1]);
-        String year = parts[2];
-
-
-        return day + "-" + month + "-" + year;
-    }
-
-
 
     private JTable createDataTable() {
 
-        String[] columnNames = {
-                "Date", "Document Serial", "Document Type", "Reference Number", "Amount", "Client Name", "Status",
-                "TAT", "Handler", "Application Received At", "Scanned At", "Total Time At Branch", "Verified At",
-                "Total Time For Verification", "Lodgement Started At", "Confirmed At", "Total Time For Entry",
-                "Compliance Verified At", "Authorized At"
-        };
-
-
-        List<ExcelDataReader.TaskData> taskList = dataReader.getTaskList();
-        Object[][] data = new Object[taskList.size()][columnNames.length];
-
-
-        for (int i = 0; i < taskList.size(); i++) {
-            ExcelDataReader.TaskData task = taskList.get(i);
-            data[i] = new Object[] {
-                    convertDateToEnglishFormat(task.getDate()),  // 日期转换为英文格式
-                    task.getDocumentSerial(),
-                    task.getDocumentType(),
-                    task.getReferenceNumber(),
-                    task.getAmount(),
-                    task.getClientName(),
-                    task.getStatus(),
-                    task.getTat(),
-                    task.getHandler(),
-                    task.getApplicationReceivedAt(),
-                    task.getScannedAt(),
-                    task.getTotalTimeAtBranch(),
-                    task.getVerifiedAt(),
-                    task.getTotalTimeForVerification(),
-                    task.getLodgementStartedAt(),
-                    task.getConfirmedAt(),
-                    task.getTotalTimeForEntry(),
-                    task.getComplianceVerifiedAt(),
-                    task.getAuthorizedAt()
-            };
-        }
-
-        // Create a custom JTable for displaying data
-        dataTable = new JTable(data, columnNames) {
+        // Create a custom JTable for displaying data, backed by a model that reads the snapshot lazily
+        tableModel = new TaskTableModel(snapshot);
+        dataTable = new JTable(tableModel) {
             @Override
             public Component prepareRenderer(TableCellRenderer renderer, int row, int column) {
                 Component c = super.prepareRenderer(renderer, row, column);
 
-                // Determine if the current column is a TAT column (column 8)
-                if (column == 7) {
-                    String documentType = (String) getValueAt(row, 2);
-                    String status = (String) getValueAt(row, 6);
-                    String tatValue = (String) getValueAt(row, 7);
-
-                    // Only records in the 'Ecoll - Export Collection' with status 'LODGE' are checked.
-                    if ("Ecoll - Export Collection".equals(documentType) && "LODGE".equalsIgnoreCase(status)) {
-                        // If the target TAT time is exceeded, set the background color to light red
-                        if (!isWithinTargetTAT(tatValue)) {
-                            c.setBackground(new Color(255, 204, 204));
-                        } else {
-                            c.setBackground(getBackground());
-                        }
-                    } else {
-                        c.setBackground(getBackground());
-                    }
-                } else {
-                    c.setBackground(getBackground());
+                // The row's style was worked out at ingest; selected rows keep the selection colour
+                if (!isRowSelected(row)) {
+                    // Columns can be dragged, so the TAT cell is found by its model index
+                    boolean tatCell = convertColumnIndexToModel(column) == TaskTableModel.TAT_COLUMN;
+                    Color background = STYLE_BACKGROUNDS[tableModel.getRowStyle(convertRowIndexToModel(row))][tatCell ? 1 : 0];
+                    c.setBackground(background != null ? background : getBackground());
                 }
 
                 return c;
             }
-
-
-            private boolean isWithinTargetTAT(String tatString) {
-                try {
-                    if (tatString == null || tatString.trim().isEmpty()) {
-                        return false;
-                    }
-                    String[] parts = tatString.split(":");
-                    if (parts.length >= 3) {
-                        int hours = Integer.parseInt(parts[0]);
-                        int minutes = Integer.parseInt(parts[1]);
-                        int seconds = Integer.parseInt(parts[2]);
-
-                        int totalSeconds = hours * 3600 + minutes * 60 + seconds;
-                        return totalSeconds <= 4 * 3600;
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error parsing TAT: " + tatString);
-                }
-                return false;
-            }
         };
 
 
@@ -0,0 +1,200 @@
+package com.ui;
+
+import com.utils.DataSnapshot;
+import com.utils.ExcelDataReader;
+import com.utils.RejectedRow;
+import com.utils.TaskDelta;
+import com.utils.TaskFields;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Table model that reads tasks from the current snapshot on demand instead of copying them into an Object[][].
+// Only rows that are painted get formatted, and their formatted cells are kept in a bounded cache.
+public class TaskTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    static final String[] COLUMN_NAMES = {
+            "Date", "Document Serial", "Document Type", "Reference Number", "Amount", "Client Name", "Status",
+            "TAT", "Handler", "Application Received At", "Scanned At", "Total Time At Branch", "Verified At",
+            "Total Time For Verification", "Lodgement Started At", "Confirmed At", "Total Time For Entry",
+            "Compliance Verified At", "Authorized At"
+    };
+
+    // Model index of the TAT column, highlighted for tasks over the target TAT
+    static final int TAT_COLUMN = 7;
+
+    // Source column of each typed column, as named in RejectedRow; null for text columns
+    private static final String[] SOURCE_COLUMNS = {
+            "Date", null, null, null, null, null, null,
+            "TAT", null, "ApplicationReceivedAt", "ScannedAt", "TotalTimeAtBranch", "VerifiedAt",
+            "TotalTimeForVerification", "LodgementStartedAt", "ConfirmedAt", "TotalTimeForEntry",
+            "ComplianceVerifiedAt", "AuthorizedAt"
+    };
+
+    // Number of formatted rows kept, a few screens' worth
+    private static final int CACHE_ROWS = 2048;
+
+    private DataSnapshot snapshot;
+
+    // Store rows shown, in order; null shows every row of the store
+    private int[] shownRows;
+
+    // Least recently used store rows with their task and formatted cells
+    private final Map<Integer, CachedRow> cache = new LinkedHashMap<Integer, CachedRow>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, CachedRow> eldest) {
+            return size() > CACHE_ROWS;
+        }
+    };
+
+    public TaskTableModel(DataSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    // Switch to a newer snapshot showing the given store rows of it, or all rows if null, and notify the table
+    // only about the rows that changed
+    public void setSnapshot(DataSnapshot newSnapshot, int[] rows) {
+        DataSnapshot oldSnapshot = snapshot;
+        int oldSize = oldSnapshot.getTaskStore().size();
+        int newSize = newSnapshot.getTaskStore().size();
+        boolean filtered = shownRows != null || rows != null;
+        snapshot = newSnapshot;
+        shownRows = rows;
+
+        // Row changes are only known relative to the directly preceding version, and removed rows renumber the rest
+        TaskDelta delta = newSnapshot.getDelta();
+        if (delta == null || newSnapshot.getVersion() - 1 != oldSnapshot.getVersion() || delta.isRowsMoved()) {
+            cache.clear();
+            fireTableDataChanged();
+            return;
+        }
+
+        int[] updatedRows = delta.getUpdatedRows();
+        for (int row : updatedRows) {
+            cache.remove(row);
+        }
+        if (filtered) {
+            // Shown rows are numbered by the filter, not by the store
+            fireTableDataChanged();
+            return;
+        }
+
+        // Updated rows, announced in runs of consecutive rows
+        for (int i = 0; i < updatedRows.length; ) {
+            int first = updatedRows[i];
+            int last = first;
+            while (++i < updatedRows.length && updatedRows[i] == last + 1) {
+                last = updatedRows[i];
+            }
+            fireTableRowsUpdated(first, last);
+        }
+        if (newSize > oldSize) {
+            fireTableRowsInserted(oldSize, newSize - 1);
+        }
+    }
+
+    // Show only the given store rows of the current snapshot, or all rows if null
+    public void setShownRows(int[] rows) {
+        shownRows = rows;
+        fireTableDataChanged();
+    }
+
+    // Task shown in a model row
+    public ExcelDataReader.TaskData getTask(int row) {
+        return cachedRow(row).task;
+    }
+
+    // RowStyle of a model row, looked up without touching the task
+    public byte getRowStyle(int row) {
+        return snapshot.getRowStyle(shownRows != null ? shownRows[row] : row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return shownRows != null ? shownRows.length : snapshot.getTaskStore().size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        CachedRow cached = cachedRow(row);
+        String value = cached.cells[column];
+        if (value == null) {
+            value = formatCell(cached.task, column);
+            if (value.isEmpty() && cached.rejected != null && SOURCE_COLUMNS[column] != null) {
+                // A value that could not be parsed is shown as it was exported, not as an empty cell
+                String raw = cached.rejected.getValue(SOURCE_COLUMNS[column]);
+                if (raw != null) {
+                    value = raw;
+                }
+            }
+            cached.cells[column] = value;
+        }
+        return value;
+    }
+
+    private CachedRow cachedRow(int row) {
+        int storeRow = shownRows != null ? shownRows[row] : row;
+        CachedRow cached = cache.get(storeRow);
+        if (cached == null) {
+            cached = new CachedRow(snapshot.getTaskStore().get(storeRow), snapshot.getRejectedRow(storeRow));
+            cache.put(storeRow, cached);
+        }
+        return cached;
+    }
+
+    // Format one cell for display
+    private static String formatCell(ExcelDataReader.TaskData task, int column) {
+        String value;
+        switch (column) {
+            case 0: value = TaskFields.formatDate(task.getEpochDay()); break;
+            case 1: value = task.getDocumentSerial(); break;
+            case 2: value = task.getDocumentType(); break;
+            case 3: value = task.getReferenceNumber(); break;
+            case 4: value = task.getAmount(); break;
+            case 5: value = task.getClientName(); break;
+            case 6: value = task.getStatusText(); break;
+            case 7: value = TaskFields.formatDuration(task.getTat()); break;
+            case 8: value = task.getHandler(); break;
+            case 9: value = TaskFields.formatTimestamp(task.getApplicationReceivedAt()); break;
+            case 10: value = TaskFields.formatTimestamp(task.getScannedAt()); break;
+            case 11: value = TaskFields.formatDuration(task.getTotalTimeAtBranch()); break;
+            case 12: value = TaskFields.formatTimestamp(task.getVerifiedAt()); break;
+            case 13: value = TaskFields.formatDuration(task.getTotalTimeForVerification()); break;
+            case 14: value = TaskFields.formatTimestamp(task.getLodgementStartedAt()); break;
+            case 15: value = TaskFields.formatTimestamp(task.getConfirmedAt()); break;
+            case 16: value = TaskFields.formatDuration(task.getTotalTimeForEntry()); break;
+            case 17: value = TaskFields.formatTimestamp(task.getComplianceVerifiedAt()); break;
+            case 18: value = TaskFields.formatTimestamp(task.getAuthorizedAt()); break;
+            default: value = "";
+        }
+        return value == null ? "" : value;
+    }
+
+    private static class CachedRow {
+        private final ExcelDataReader.TaskData task;
+        private final RejectedRow rejected;  // Raw text of the values that could not be parsed, null if there are none
+        private final String[] cells = new String[COLUMN_NAMES.length];
+
+        CachedRow(ExcelDataReader.TaskData task, RejectedRow rejected) {
+            this.task = task;
+            this.rejected = rejected;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Hands items from one producing thread to a worker pool in batches and merges the results back on the
+// producing thread in the order the batches were formed. At most maxInFlight batches are outstanding,
+// beyond that the producer waits for the oldest one, so memory stays bounded however fast it produces
+final class BatchPipeline<T, R> {
+    private final ExecutorService workers;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final Function<List<T>, R> work;
+    private final Consumer<R> merge;
+
+    private final ArrayDeque<Future<R>> inFlight = new ArrayDeque<>();
+    private List<T> batch;
+
+    BatchPipeline(ExecutorService workers, int batchSize, int maxInFlight, Function<List<T>, R> work, Consumer<R> merge) {
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+        this.work = work;
+        this.merge = merge;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    void accept(T item) {
+        batch.add(item);
+        if (batch.size() == batchSize) {
+            submit();
+        }
+    }
+
+    // Submit the last partial batch and merge everything that is still outstanding
+    void finish() {
+        if (!batch.isEmpty()) {
+            submit();
+        }
+        while (!inFlight.isEmpty()) {
+            merge.accept(takeOldest());
+        }
+    }
+
+    // Drop the batches not merged yet, after the producer failed
+    void cancel() {
+        for (Future<R> future : inFlight) {
+            future.cancel(true);
+        }
+        inFlight.clear();
+        batch.clear();
+    }
+
+    private void submit() {
+        List<T> items = batch;
+        batch = new ArrayList<>(batchSize);
+        inFlight.addLast(workers.submit(() -> work.apply(items)));
+
+        // Merge the batches that are done, in order, and wait for the oldest if too many are outstanding
+        while (!inFlight.isEmpty() && (inFlight.peekFirst().isDone() || inFlight.size() > maxInFlight)) {
+            merge.accept(takeOldest());
+        }
+    }
+
+    private R takeOldest() {
+        try {
+            return inFlight.removeFirst().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a batch", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
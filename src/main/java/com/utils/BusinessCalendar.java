@@ -0,0 +1,212 @@
+package com.utils;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Working days: Monday to Friday except the public holidays of a holiday file. Each month is worked out once
+// into tables of its days (workday ordinal and week) and its working weeks with their display labels, so the
+// week of an epoch day is two lookups and the charts do not walk the calendar on every build
+public final class BusinessCalendar {
+    // Holidays of Hong Kong shipped with the dashboard, replaced by the file given with -Ddashboard.holidays
+    private static final String HOLIDAY_RESOURCE = "/hk-holidays.txt";
+
+    // Formatter for the “MM.dd” week labels
+    private static final DateTimeFormatter WEEK_LABEL_FORMATTER = DateTimeFormatter.ofPattern("MM.dd");
+
+    private static volatile BusinessCalendar defaultCalendar;
+
+    // Holidays as epoch days
+    private final Set<Integer> holidays;
+
+    // Tables by month as year * 12 + month - 1, filled on first use from any thread
+    private final Map<Integer, MonthTable> months = new ConcurrentHashMap<>();
+
+    public BusinessCalendar(Set<Integer> holidays) {
+        this.holidays = new HashSet<>(holidays);
+    }
+
+    // Calendar of the holiday file given with -Ddashboard.holidays, or of the bundled Hong Kong holidays
+    public static BusinessCalendar getDefault() {
+        BusinessCalendar calendar = defaultCalendar;
+        if (calendar == null) {
+            synchronized (BusinessCalendar.class) {
+                calendar = defaultCalendar;
+                if (calendar == null) {
+                    calendar = new BusinessCalendar(loadHolidays(System.getProperty("dashboard.holidays")));
+                    defaultCalendar = calendar;
+                }
+            }
+        }
+        return calendar;
+    }
+
+    // Read a holiday file: one "yyyy-MM-dd name" per line, blank lines and lines starting with # are skipped.
+    // Without a readable file only weekends are days off
+    private static Set<Integer> loadHolidays(String path) {
+        Set<Integer> holidays = new HashSet<>();
+        try (InputStream in = path != null ? new FileInputStream(path) : BusinessCalendar.class.getResourceAsStream(HOLIDAY_RESOURCE)) {
+            if (in == null) {
+                System.err.println("Holiday list " + HOLIDAY_RESOURCE + " not found, only weekends are days off");
+                return holidays;
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String date = line.split("\\s+", 2)[0];
+                try {
+                    holidays.add((int) LocalDate.parse(date).toEpochDay());
+                } catch (DateTimeParseException e) {
+                    System.err.println("Skipping holiday line \"" + line + "\": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Cannot read holiday list " + (path != null ? path : HOLIDAY_RESOURCE)
+                    + ", only weekends are days off: " + e.getMessage());
+        }
+        return holidays;
+    }
+
+    public boolean isHoliday(int epochDay) {
+        return holidays.contains(epochDay);
+    }
+
+    public boolean isWorkday(int epochDay) {
+        return getWorkdayOfMonth(epochDay) > 0;
+    }
+
+    // Position of a working day among the working days of its month, from 1; 0 for days off
+    public int getWorkdayOfMonth(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return table(date).ordinals[date.getDayOfMonth() - 1];
+    }
+
+    // Working week of the month a day belongs to, null for days off
+    public Week getWeek(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        MonthTable table = table(date);
+        int week = table.weekOfDay[date.getDayOfMonth() - 1];
+        return week < 0 ? null : table.weeks.get(week);
+    }
+
+    // Working weeks of a month in order, each from its first to its last working day
+    public List<Week> getWeeks(int year, int month) {
+        return Collections.unmodifiableList(table(year * 12 + month - 1).weeks);
+    }
+
+    // The given number of working days up to and including the given day, oldest first
+    public List<LocalDate> getLastWorkdays(LocalDate day, int count) {
+        List<LocalDate> workdays = new ArrayList<>(count);
+        int epochDay = (int) day.toEpochDay();
+        while (workdays.size() < count) {
+            if (isWorkday(epochDay)) {
+                workdays.add(LocalDate.ofEpochDay(epochDay));
+            }
+            epochDay--;
+        }
+        Collections.reverse(workdays);
+        return workdays;
+    }
+
+    private MonthTable table(int monthKey) {
+        return months.computeIfAbsent(monthKey, this::buildMonth);
+    }
+
+    private MonthTable table(LocalDate date) {
+        return table(date.getYear() * 12 + date.getMonthValue() - 1);
+    }
+
+    // Number the working days of a month and group them into Monday-Friday weeks; a week without working days
+    // is left out, so the week numbers only count weeks that have some
+    private MonthTable buildMonth(int monthKey) {
+        LocalDate first = LocalDate.of(monthKey / 12, monthKey % 12 + 1, 1);
+        int length = first.lengthOfMonth();
+        MonthTable table = new MonthTable(length);
+        int ordinal = 0;
+        LocalDate weekStart = null;
+        LocalDate weekEnd = null;
+        int weekFirstIndex = 0;
+        for (int i = 0; i <= length; i++) {
+            LocalDate date = i < length ? first.plusDays(i) : null;
+            boolean weekBreak = date == null || date.getDayOfWeek() == DayOfWeek.MONDAY;
+            if (weekBreak && weekStart != null) {
+                int number = table.weeks.size() + 1;
+                table.weeks.add(new Week(number, String.format("Week %d(%s-%s)", number,
+                        weekStart.format(WEEK_LABEL_FORMATTER), weekEnd.format(WEEK_LABEL_FORMATTER)), weekStart, weekEnd));
+                for (int j = weekFirstIndex; j < i; j++) {
+                    if (table.ordinals[j] > 0) {
+                        table.weekOfDay[j] = (byte) (number - 1);
+                    }
+                }
+                weekStart = null;
+            }
+            if (date == null) {
+                break;
+            }
+            if (weekBreak || i == 0) {
+                weekFirstIndex = i;
+            }
+            DayOfWeek dayOfWeek = date.getDayOfWeek();
+            if (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY && !isHoliday((int) date.toEpochDay())) {
+                table.ordinals[i] = (byte) ++ordinal;
+                if (weekStart == null) {
+                    weekStart = date;
+                }
+                weekEnd = date;
+            }
+        }
+        return table;
+    }
+
+    // Tables of one month, indexed by day of month - 1
+    private static class MonthTable {
+        private final byte[] ordinals;
+        private final byte[] weekOfDay;
+        private final List<Week> weeks = new ArrayList<>();
+
+        MonthTable(int length) {
+            ordinals = new byte[length];
+            weekOfDay = new byte[length];
+            Arrays.fill(weekOfDay, (byte) -1);
+        }
+    }
+
+    // A working week of a month: its number in the month, display label and first and last working day
+    public static class Week {
+        private final int number;
+        private final String label;
+        private final LocalDate start;
+        private final LocalDate end;
+
+        Week(int number, String label, LocalDate start, LocalDate end) {
+            this.number = number;
+            this.label = label;
+            this.start = start;
+            this.end = end;
+        }
+
+        public int getNumber() { return number; }
+        public String getLabel() { return label; }
+        public LocalDate getStart() { return start; }
+        public LocalDate getEnd() { return end; }
+    }
+}
@@ -0,0 +1,288 @@
+package com.utils;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Column-wise store: one primitive array per field and dictionary codes for repeated strings,
+// so a row costs a few dozen bytes instead of a TaskData object and its Strings
+public class ColumnarTaskStore implements TaskStore {
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private int size;
+
+    // Columns of CHUNK_SIZE rows each. A copy shares the chunks with this store until either of them writes
+    // to one, so publishing a version costs one reference per chunk and a later change copies only its chunk
+    private Chunk[] chunks;
+
+    // Chunks that a copy may be reading, copied before they are written to
+    private boolean[] shared;
+
+    private StringDictionary statusTexts;
+    private StringDictionary documentTypes;
+    private StringDictionary handlers;
+    private StringDictionary clientNames;
+
+    public ColumnarTaskStore() {
+        chunks = new Chunk[4];
+        shared = new boolean[4];
+        statusTexts = new StringDictionary();
+        documentTypes = new StringDictionary();
+        handlers = new StringDictionary();
+        clientNames = new StringDictionary();
+    }
+
+    @Override
+    public void add(ExcelDataReader.TaskData task) {
+        int index = size >> CHUNK_SHIFT;
+        if (index == chunks.length) {
+            chunks = Arrays.copyOf(chunks, index * 2);
+            shared = Arrays.copyOf(shared, index * 2);
+        }
+        if (chunks[index] == null) {
+            chunks[index] = new Chunk();
+        }
+        write(size++, task);
+    }
+
+    @Override
+    public void set(int row, ExcelDataReader.TaskData task) {
+        checkRow(row);
+        write(row, task);
+    }
+
+    private void write(int row, ExcelDataReader.TaskData task) {
+        int index = row >> CHUNK_SHIFT;
+        if (shared[index]) {
+            chunks[index] = chunks[index].copy();
+            shared[index] = false;
+        }
+        Chunk chunk = chunks[index];
+        int i = row & CHUNK_MASK;
+        chunk.epochDay[i] = task.getEpochDay();
+        chunk.tat[i] = task.getTat();
+        chunk.totalTimeAtBranch[i] = task.getTotalTimeAtBranch();
+        chunk.totalTimeForVerification[i] = task.getTotalTimeForVerification();
+        chunk.totalTimeForEntry[i] = task.getTotalTimeForEntry();
+        chunk.applicationReceivedAt[i] = task.getApplicationReceivedAt();
+        chunk.scannedAt[i] = task.getScannedAt();
+        chunk.verifiedAt[i] = task.getVerifiedAt();
+        chunk.lodgementStartedAt[i] = task.getLodgementStartedAt();
+        chunk.confirmedAt[i] = task.getConfirmedAt();
+        chunk.complianceVerifiedAt[i] = task.getComplianceVerifiedAt();
+        chunk.authorizedAt[i] = task.getAuthorizedAt();
+        chunk.status[i] = (byte) task.getStatus().ordinal();
+        chunk.style[i] = RowStyle.of(task);
+        chunk.statusText[i] = statusTexts.encode(task.getStatusText());
+        chunk.documentType[i] = documentTypes.encode(task.getDocumentType());
+        chunk.handler[i] = handlers.encode(task.getHandler());
+        chunk.clientName[i] = clientNames.encode(task.getClientName());
+        chunk.documentSerial[i] = toNumber(task.getDocumentSerial());
+        chunk.documentSerialText[i] = chunk.documentSerial[i] < 0 ? task.getDocumentSerial() : null;
+        chunk.referenceNumber[i] = toNumber(task.getReferenceNumber());
+        chunk.referenceNumberText[i] = chunk.referenceNumber[i] < 0 ? task.getReferenceNumber() : null;
+        chunk.amount[i] = task.getAmount();
+    }
+
+    @Override
+    public ExcelDataReader.TaskData get(int row) {
+        checkRow(row);
+        Chunk chunk = chunks[row >> CHUNK_SHIFT];
+        int i = row & CHUNK_MASK;
+        return new ExcelDataReader.TaskData(
+                chunk.documentSerial[i] < 0 ? chunk.documentSerialText[i] : Long.toString(chunk.documentSerial[i]),
+                chunk.referenceNumber[i] < 0 ? chunk.referenceNumberText[i] : Long.toString(chunk.referenceNumber[i]),
+                chunk.amount[i],
+                clientNames.decode(chunk.clientName[i]),
+                STATUSES[chunk.status[i]],
+                statusTexts.decode(chunk.statusText[i]),
+                chunk.tat[i],
+                handlers.decode(chunk.handler[i]),
+                chunk.epochDay[i],
+                documentTypes.decode(chunk.documentType[i]),
+                chunk.applicationReceivedAt[i],
+                chunk.scannedAt[i],
+                chunk.totalTimeAtBranch[i],
+                chunk.verifiedAt[i],
+                chunk.totalTimeForVerification[i],
+                chunk.lodgementStartedAt[i],
+                chunk.confirmedAt[i],
+                chunk.totalTimeForEntry[i],
+                chunk.complianceVerifiedAt[i],
+                chunk.authorizedAt[i]
+        );
+    }
+
+    @Override
+    public int getEpochDay(int row) {
+        checkRow(row);
+        return chunks[row >> CHUNK_SHIFT].epochDay[row & CHUNK_MASK];
+    }
+
+    @Override
+    public byte getRowStyle(int row) {
+        checkRow(row);
+        return chunks[row >> CHUNK_SHIFT].style[row & CHUNK_MASK];
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        chunks = new Chunk[4];
+        shared = new boolean[4];
+        statusTexts.clear();
+        documentTypes.clear();
+        handlers.clear();
+        clientNames.clear();
+    }
+
+    @Override
+    public TaskStore copy() {
+        int chunkCount = (size + CHUNK_MASK) >> CHUNK_SHIFT;
+        Arrays.fill(shared, 0, chunkCount, true);
+        ColumnarTaskStore copy = new ColumnarTaskStore();
+        copy.size = size;
+        copy.chunks = Arrays.copyOf(chunks, chunks.length);
+        copy.shared = shared.clone();
+        copy.statusTexts = statusTexts.copy();
+        copy.documentTypes = documentTypes.copy();
+        copy.handlers = handlers.copy();
+        copy.clientNames = clientNames.copy();
+        return copy;
+    }
+
+    @Override
+    public List<ExcelDataReader.TaskData> asList() {
+        return new RowListView(this);
+    }
+
+    @Override
+    public long estimateMemoryBytes() {
+        long chunkBytes = 9 * MemoryEstimates.arrayBytes(CHUNK_SIZE, 4)      // int columns and codes
+                + 9 * MemoryEstimates.arrayBytes(CHUNK_SIZE, 8)              // timestamp and number columns
+                + 2 * MemoryEstimates.arrayBytes(CHUNK_SIZE, 1)              // status and style columns
+                + 3 * MemoryEstimates.arrayBytes(CHUNK_SIZE, MemoryEstimates.REFERENCE);
+        long bytes = ((size + CHUNK_MASK) >> CHUNK_SHIFT) * chunkBytes;
+        // Strings shared between rows (e.g. by the Excel shared strings table) are counted once
+        Map<String, Boolean> seen = new IdentityHashMap<>();
+        for (int row = 0; row < size; row++) {
+            Chunk chunk = chunks[row >> CHUNK_SHIFT];
+            int i = row & CHUNK_MASK;
+            bytes += stringBytesOnce(chunk.documentSerialText[i], seen);
+            bytes += stringBytesOnce(chunk.referenceNumberText[i], seen);
+            bytes += stringBytesOnce(chunk.amount[i], seen);
+        }
+        return bytes + statusTexts.estimateMemoryBytes() + documentTypes.estimateMemoryBytes()
+                + handlers.estimateMemoryBytes() + clientNames.estimateMemoryBytes();
+    }
+
+    // Parse a canonical non-negative decimal number, -1 if the value would not format back to the same text
+    private static long toNumber(String value) {
+        if (value == null || value.isEmpty() || value.length() > 18
+                || (value.length() > 1 && value.charAt(0) == '0')) {
+            return -1;
+        }
+        long number = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+
+    private static long stringBytesOnce(String value, Map<String, Boolean> seen) {
+        if (value == null || seen.put(value, Boolean.TRUE) != null) {
+            return 0;
+        }
+        return MemoryEstimates.stringBytes(value);
+    }
+
+    @Override
+    public String getName() {
+        return "columnar";
+    }
+
+    // Columns of CHUNK_SIZE consecutive rows
+    private static class Chunk {
+        // Dates and durations
+        private int[] epochDay = new int[CHUNK_SIZE];
+        private int[] tat = new int[CHUNK_SIZE];
+        private int[] totalTimeAtBranch = new int[CHUNK_SIZE];
+        private int[] totalTimeForVerification = new int[CHUNK_SIZE];
+        private int[] totalTimeForEntry = new int[CHUNK_SIZE];
+
+        // Stage timestamps
+        private long[] applicationReceivedAt = new long[CHUNK_SIZE];
+        private long[] scannedAt = new long[CHUNK_SIZE];
+        private long[] verifiedAt = new long[CHUNK_SIZE];
+        private long[] lodgementStartedAt = new long[CHUNK_SIZE];
+        private long[] confirmedAt = new long[CHUNK_SIZE];
+        private long[] complianceVerifiedAt = new long[CHUNK_SIZE];
+        private long[] authorizedAt = new long[CHUNK_SIZE];
+
+        // Status ordinal, RowStyle and dictionary codes
+        private byte[] status = new byte[CHUNK_SIZE];
+        private byte[] style = new byte[CHUNK_SIZE];
+        private int[] statusText = new int[CHUNK_SIZE];
+        private int[] documentType = new int[CHUNK_SIZE];
+        private int[] handler = new int[CHUNK_SIZE];
+        private int[] clientName = new int[CHUNK_SIZE];
+
+        // Serial and reference numbers are usually plain digits and are kept as longs;
+        // the String column is only filled for values that do not round-trip through a long
+        private long[] documentSerial = new long[CHUNK_SIZE];
+        private String[] documentSerialText = new String[CHUNK_SIZE];
+        private long[] referenceNumber = new long[CHUNK_SIZE];
+        private String[] referenceNumberText = new String[CHUNK_SIZE];
+
+        // Amounts are unique per row and stay as Strings
+        private String[] amount = new String[CHUNK_SIZE];
+
+        Chunk copy() {
+            Chunk copy = new Chunk();
+            copy.epochDay = epochDay.clone();
+            copy.tat = tat.clone();
+            copy.totalTimeAtBranch = totalTimeAtBranch.clone();
+            copy.totalTimeForVerification = totalTimeForVerification.clone();
+            copy.totalTimeForEntry = totalTimeForEntry.clone();
+            copy.applicationReceivedAt = applicationReceivedAt.clone();
+            copy.scannedAt = scannedAt.clone();
+            copy.verifiedAt = verifiedAt.clone();
+            copy.lodgementStartedAt = lodgementStartedAt.clone();
+            copy.confirmedAt = confirmedAt.clone();
+            copy.complianceVerifiedAt = complianceVerifiedAt.clone();
+            copy.authorizedAt = authorizedAt.clone();
+            copy.status = status.clone();
+            copy.style = style.clone();
+            copy.statusText = statusText.clone();
+            copy.documentType = documentType.clone();
+            copy.handler = handler.clone();
+            copy.clientName = clientName.clone();
+            copy.documentSerial = documentSerial.clone();
+            copy.documentSerialText = documentSerialText.clone();
+            copy.referenceNumber = referenceNumber.clone();
+            copy.referenceNumberText = referenceNumberText.clone();
+            copy.amount = amount.clone();
+            return copy;
+        }
+    }
+}
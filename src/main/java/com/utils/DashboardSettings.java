@@ -0,0 +1,51 @@
+package com.utils;
+
+import java.io.File;
+
+// Settings shared by the dashboard and the snapshot server, from the same system properties:
+//   -Ddashboard.refresh.mode            "watch" (default) follows file change events, "poll" only the timer
+//   -Ddashboard.refresh.interval        timer interval in poll mode (seconds)
+//   -Ddashboard.refresh.safetyInterval  timer interval in watch mode (seconds), catches changes a network share does not report
+//   -Ddashboard.watch.debounce          quiet period before a changed workbook is read (milliseconds)
+//   -Ddashboard.cache                   whether parsed data is cached next to the workbook
+//   -Ddashboard.history                 whether tasks behind the shown window are kept on disk instead of in memory
+//   -Ddashboard.history.dir             directory of the history files, default "<workbook>.history"
+public final class DashboardSettings {
+    public static final int REFRESH_INTERVAL = 10;  // Default polling interval (seconds)
+    public static final int SAFETY_POLL_INTERVAL = 60;  // Default polling interval in watch mode (seconds)
+    public static final int WATCH_DEBOUNCE_MILLIS = 300;  // Default quiet period before a changed workbook is read (milliseconds)
+    public static final boolean USE_CACHE = Boolean.parseBoolean(System.getProperty("dashboard.cache", "true"));
+    public static final boolean USE_HISTORY = Boolean.getBoolean("dashboard.history");
+
+    private DashboardSettings() {
+    }
+
+    // Keep the tasks behind the window of the reader in the history files if the history is on
+    public static void applyHistory(ExcelDataReader dataReader, String excelFilePath) {
+        if (USE_HISTORY) {
+            dataReader.setHistory(new File(System.getProperty("dashboard.history.dir", excelFilePath + ".history")));
+        }
+    }
+
+    // Whether changes are followed as they happen rather than by the timer alone
+    public static boolean isWatchMode() {
+        return !"poll".equalsIgnoreCase(System.getProperty("dashboard.refresh.mode", "watch"));
+    }
+
+    // Start watching the workbook in watch mode; null in poll mode or if its directory cannot be watched
+    public static WorkbookWatcher startWatcher(String excelFilePath, Runnable onChange) {
+        if (!isWatchMode()) {
+            return null;
+        }
+        long debounce = Long.getLong("dashboard.watch.debounce", WATCH_DEBOUNCE_MILLIS);
+        WorkbookWatcher watcher = new WorkbookWatcher(excelFilePath, debounce, onChange);
+        return watcher.start() ? watcher : null;
+    }
+
+    // Timer interval in seconds, 0 for none: a slow safety net if events drive the refresh, the polling interval otherwise
+    public static int pollInterval(boolean eventDriven) {
+        return eventDriven
+                ? Integer.getInteger("dashboard.refresh.safetyInterval", SAFETY_POLL_INTERVAL)
+                : Integer.getInteger("dashboard.refresh.interval", REFRESH_INTERVAL);
+    }
+}
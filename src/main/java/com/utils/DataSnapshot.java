@@ -0,0 +1,72 @@
+package com.utils;
+
+import java.util.List;
+import java.util.Map;
+
+// Immutable copy of the reader state, safe to hand from the refresh thread to the Event Dispatch Thread
+public class DataSnapshot {
+    // Increases by one every time the underlying data changes
+    private final long version;
+
+    // Task statistics at the time of the snapshot
+    private final int newTasksCount;
+    private final int ongoingTasksCount;
+    private final int completedTasksCount;
+    private final int normalTATCount;
+    private final int abnormalTATCount;
+
+    // Private copy of the task store
+    private final TaskStore tasks;
+
+    // Changes from version - 1 to this version, null if the snapshot was not produced by a single read
+    private final TaskDelta delta;
+
+    // Tasks whose row had values that could not be parsed
+    private final List<RejectedRow> rejectedRows;
+
+    // The same rejected rows by row of the task store, shared with the reader and not to be modified
+    private final Map<Integer, RejectedRow> rejectedByRow;
+
+    // Search index over the task store, null if the reader does not build one
+    private final TaskSearchIndex searchIndex;
+
+    // Facet bitsets over the task store, null if the reader does not build them
+    private final FacetIndex facetIndex;
+
+    public DataSnapshot(long version, int newTasksCount, int ongoingTasksCount, int completedTasksCount,
+                        int normalTATCount, int abnormalTATCount, TaskStore tasks, TaskDelta delta,
+                        List<RejectedRow> rejectedRows, Map<Integer, RejectedRow> rejectedByRow, TaskSearchIndex searchIndex,
+                        FacetIndex facetIndex) {
+        this.version = version;
+        this.newTasksCount = newTasksCount;
+        this.ongoingTasksCount = ongoingTasksCount;
+        this.completedTasksCount = completedTasksCount;
+        this.normalTATCount = normalTATCount;
+        this.abnormalTATCount = abnormalTATCount;
+        this.tasks = tasks;
+        this.delta = delta;
+        this.rejectedRows = rejectedRows;
+        this.rejectedByRow = rejectedByRow;
+        this.searchIndex = searchIndex;
+        this.facetIndex = facetIndex;
+    }
+
+    public long getVersion() { return version; }
+    public int getNewTasksCount() { return newTasksCount; }
+    public int getOngoingTasksCount() { return ongoingTasksCount; }
+    public int getCompletedTasksCount() { return completedTasksCount; }
+    public int getNormalTATCount() { return normalTATCount; }
+    public int getAbnormalTATCount() { return abnormalTATCount; }
+    public List<ExcelDataReader.TaskData> getTasks() { return tasks.asList(); }
+    public TaskStore getTaskStore() { return tasks; }
+    public TaskDelta getDelta() { return delta; }
+    public List<RejectedRow> getRejectedRows() { return rejectedRows; }
+
+    // Rejected row of a row of the task store, null if all its values were parsed
+    public RejectedRow getRejectedRow(int row) { return rejectedByRow.get(row); }
+    public TaskSearchIndex getSearchIndex() { return searchIndex; }
+    public FacetIndex getFacetIndex() { return facetIndex; }
+
+    // RowStyle of a row of the task store
+    public byte getRowStyle(int row) { return tasks.getRowStyle(row); }
+}
@@ -0,0 +1,135 @@
+package com.utils;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+// Rows of a task store ordered by date: the distinct epoch days in ascending order and, per day, a slice of one
+// row array holding that day's rows in store order. A date range is two binary searches and one contiguous slice
+final class DateIndex {
+    private final TaskStore store;
+
+    // Distinct epoch days, ascending; rows without a date are under TaskFields.NO_DATE, which sorts first
+    private final int[] days;
+
+    // The rows of days[i] are rows[offsets[i]] .. rows[offsets[i + 1] - 1]
+    private final int[] offsets;
+    private final int[] rows;
+
+    private DateIndex(TaskStore store, int[] days, int[] offsets, int[] rows) {
+        this.store = store;
+        this.days = days;
+        this.offsets = offsets;
+        this.rows = rows;
+    }
+
+    // Index the current rows of a store; it has to be built again after rows are added, replaced or removed
+    static DateIndex build(TaskStore store) {
+        int size = store.size();
+        int[] rowDays = new int[size];
+        for (int row = 0; row < size; row++) {
+            rowDays[row] = store.getEpochDay(row);
+        }
+
+        int[] sorted = rowDays.clone();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        int[] days = Arrays.copyOf(sorted, distinct);
+
+        // Counting sort of the rows by their day's position; rowDays is reused for the positions
+        int[] offsets = new int[distinct + 1];
+        for (int row = 0; row < size; row++) {
+            rowDays[row] = Arrays.binarySearch(days, rowDays[row]);
+            offsets[rowDays[row] + 1]++;
+        }
+        for (int i = 0; i < distinct; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] next = Arrays.copyOf(offsets, distinct);
+        int[] rows = new int[size];
+        for (int row = 0; row < size; row++) {
+            rows[next[rowDays[row]]++] = row;
+        }
+        return new DateIndex(store, days, offsets, rows);
+    }
+
+    // Rows dated between two epoch days (inclusive), ordered by date and then by row
+    List<ExcelDataReader.TaskData> range(int startDay, int endDay) {
+        if (startDay > endDay) {
+            return new RowListView(store, rows, 0, 0);
+        }
+        int from = offsets[firstDayNotBefore(startDay)];
+        int to = offsets[firstDayAfter(endDay)];
+        return new RowListView(store, rows, from, to - from);
+    }
+
+    // Set the bits of the rows dated between two epoch days (inclusive) in target
+    void markRange(int startDay, int endDay, BitSet target) {
+        if (startDay > endDay) {
+            return;
+        }
+        int to = offsets[firstDayAfter(endDay)];
+        for (int i = offsets[firstDayNotBefore(startDay)]; i < to; i++) {
+            target.set(rows[i]);
+        }
+    }
+
+    TaskStore getTaskStore() {
+        return store;
+    }
+
+    // Number of distinct days, including TaskFields.NO_DATE if some rows have no date
+    int dayCount() {
+        return days.length;
+    }
+
+    int day(int index) {
+        return days[index];
+    }
+
+    // Copy the rows of the day at the given position into target, returns the position after them
+    int copyRows(int index, int[] target, int position) {
+        int count = offsets[index + 1] - offsets[index];
+        System.arraycopy(rows, offsets[index], target, position, count);
+        return position + count;
+    }
+
+    int rowCount() {
+        return rows.length;
+    }
+
+    // Position of the first day >= day
+    private int firstDayNotBefore(int day) {
+        int low = 0;
+        int high = days.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Position of the first day > day
+    private int firstDayAfter(int day) {
+        int low = 0;
+        int high = days.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days[mid] <= day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,267 @@
+package com.utils;
+
+import com.alibaba.excel.annotation.ExcelProperty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Reads the raw tab- or comma-separated export line by line into ExcelModel rows.
+// Columns are matched by header name using the same @ExcelProperty names as the XLSX path,
+// and the byte offset after the last line ending in a line break is kept so appended lines can be read on their own.
+class DelimitedTaskReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Bytes before the read position compared on the next read to tell an appended file from a rewritten one
+    private static final int TAIL_CHECK_BYTES = 256;
+
+    // Header name -> ExcelModel field, built once from the @ExcelProperty annotations
+    private static final Map<String, Field> MODEL_FIELDS = new HashMap<>();
+
+    static {
+        for (Field field : ExcelDataReader.ExcelModel.class.getDeclaredFields()) {
+            ExcelProperty property = field.getAnnotation(ExcelProperty.class);
+            if (property != null) {
+                field.setAccessible(true);
+                for (String name : property.value()) {
+                    MODEL_FIELDS.put(name, field);
+                }
+            }
+        }
+    }
+
+    private final String filePath;
+
+    // Header line of the last read, a different header means the file was replaced
+    private String headerLine;
+
+    // Model field per column, null for columns the dashboard does not use
+    private Field[] columns;
+
+    private char delimiter;
+
+    // Byte offset just after the last line break handed to the consumer
+    private long offset;
+
+    // The bytes just before the offset at the end of the last read, null if unknown
+    private byte[] tailBytes;
+
+    DelimitedTaskReader(String filePath) {
+        this.filePath = filePath;
+    }
+
+    String getHeaderLine() {
+        return headerLine;
+    }
+
+    long getOffset() {
+        return offset;
+    }
+
+    // Continue from a state saved by an earlier run; the file may have changed since, so the next
+    // readAppended asks for a full read
+    void restore(String headerLine, long offset) {
+        this.offset = offset;
+        this.tailBytes = null;
+        if (headerLine == null) {
+            this.headerLine = null;
+            this.columns = null;
+        } else {
+            setHeader(headerLine);
+        }
+    }
+
+    // Check whether a file is delimited text rather than an XLSX (zip) or XLS (OLE2) workbook
+    static boolean isDelimitedText(String filePath) {
+        byte[] magic = new byte[4];
+        int read;
+        try (InputStream in = new FileInputStream(filePath)) {
+            read = in.read(magic);
+        } catch (IOException e) {
+            return false;
+        }
+        if (read < 4) {
+            return read > 0;
+        }
+        boolean zip = magic[0] == 'P' && magic[1] == 'K' && magic[2] == 3 && magic[3] == 4;
+        boolean ole2 = (magic[0] & 0xFF) == 0xD0 && (magic[1] & 0xFF) == 0xCF
+                && (magic[2] & 0xFF) == 0x11 && (magic[3] & 0xFF) == 0xE0;
+        return !zip && !ole2;
+    }
+
+    // Read the whole file
+    void readAll(Consumer<ExcelDataReader.ExcelModel> consumer) throws IOException {
+        headerLine = null;
+        columns = null;
+        offset = 0;
+        tailBytes = null;
+        read(consumer);
+    }
+
+    // Read only the lines appended since the last read, returns false if the file was replaced
+    // or truncated and has to be read again from the start
+    boolean readAppended(Consumer<ExcelDataReader.ExcelModel> consumer) throws IOException {
+        if (headerLine == null || tailBytes == null) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            if (channel.size() < offset || !headerLine.equals(readHeaderLine(channel))
+                    || !Arrays.equals(tailBytes, readTail(channel, offset))) {
+                return false;
+            }
+        }
+        read(consumer);
+        return true;
+    }
+
+    private void read(Consumer<ExcelDataReader.ExcelModel> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            channel.position(offset);
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            ByteArrayOutputStream line = new ByteArrayOutputStream(1024);
+            long position = offset;
+
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                byte[] bytes = buffer.array();
+                int start = 0;
+                for (int i = 0; i < buffer.limit(); i++) {
+                    if (bytes[i] == '\n') {
+                        line.write(bytes, start, i - start);
+                        position += i - start + 1;
+                        handleLine(line, consumer);
+                        offset = position;
+                        start = i + 1;
+                    }
+                }
+                line.write(bytes, start, buffer.limit() - start);
+                position += buffer.limit() - start;
+                buffer.clear();
+            }
+
+            // A last line without a line break may still be being written, e.g. "...,Hand" for "...,Handler".
+            // If it has all its columns it is taken so an export that never ends with a line break shows its
+            // last row, but the offset stays before it: the next read takes the line again, and the reader
+            // replaces the row by its key with the value as it is then
+            if (line.size() > 0 && headerLine != null
+                    && split(decode(line), delimiter).size() >= columns.length) {
+                handleLine(line, consumer);
+            }
+            tailBytes = readTail(channel, offset);
+        }
+    }
+
+    // Up to TAIL_CHECK_BYTES bytes before the offset
+    private static byte[] readTail(FileChannel channel, long offset) throws IOException {
+        int length = (int) Math.min(TAIL_CHECK_BYTES, offset);
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        // Positional reads may return fewer bytes than asked for
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset - length + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.array();
+    }
+
+    // Decode one line and either take it as the header or convert it into a row
+    private void handleLine(ByteArrayOutputStream line, Consumer<ExcelDataReader.ExcelModel> consumer) {
+        String text = decode(line);
+        line.reset();
+        if (text.isEmpty()) {
+            return;
+        }
+        if (headerLine == null) {
+            setHeader(text);
+            return;
+        }
+
+        List<String> values = split(text, delimiter);
+        ExcelDataReader.ExcelModel model = new ExcelDataReader.ExcelModel();
+        for (int i = 0; i < columns.length && i < values.size(); i++) {
+            if (columns[i] != null && !values.get(i).isEmpty()) {
+                try {
+                    columns[i].set(model, values.get(i));
+                } catch (IllegalAccessException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        consumer.accept(model);
+    }
+
+    private void setHeader(String text) {
+        headerLine = text;
+        delimiter = text.indexOf('\t') >= 0 ? '\t' : ',';
+        List<String> names = split(text, delimiter);
+        columns = new Field[names.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = MODEL_FIELDS.get(names.get(i).trim());
+        }
+    }
+
+    // Read the first line of the file without moving past it
+    private static String readHeaderLine(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        channel.read(buffer, 0);
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        for (int i = 0; i < buffer.position() && buffer.get(i) != '\n'; i++) {
+            line.write(buffer.get(i));
+        }
+        return decode(line);
+    }
+
+    // UTF-8 line without the byte order mark and the carriage return of Windows line endings
+    private static String decode(ByteArrayOutputStream line) {
+        String text = new String(line.toByteArray(), StandardCharsets.UTF_8);
+        if (!text.isEmpty() && text.charAt(0) == '\uFEFF') {
+            text = text.substring(1);
+        }
+        if (!text.isEmpty() && text.charAt(text.length() - 1) == '\r') {
+            text = text.substring(0, text.length() - 1);
+        }
+        return text;
+    }
+
+    // Split a line on the delimiter; double-quoted values may contain the delimiter and "" for a quote
+    static List<String> split(String line, char delimiter) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"' && value.length() == 0) {
+                quoted = true;
+            } else if (c == delimiter) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
@@ -7,14 +7,29 @@ import com.alibaba.excel.read.listener.ReadListener;
 import lombok.Data;
 import lombok.Getter;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.DayOfWeek;
 
 public class ExcelDataReader {
     // File path
@@ -23,35 +38,154 @@ public class ExcelDataReader {
     // Statistics for the day, using Map to store the number of tasks in each state
     private Map<String, Integer> currentStats;
 
-    // Statistics by date, using Map to store statistics on different dates
-    private Map<String, Map<String, Integer>> dailyStats;
+    // Statistics by date, one set of counters per day kept in date order so ranges can be summed
+    private NavigableMap<Integer, TaskCounters> dailyStats;
 
     //Weekly statistics, using Map to store statistics for different weeks
     private Map<String, Map<String, Integer>> weeklyStats;
 
-    // Task list, storing all task data
-    private List<TaskData> taskList;
+    // Task store, storing all task data; row-wise by default, column-wise with -Ddashboard.store=columnar
+    private TaskStore taskStore;
 
     // current date
-    private String currentDate; // The current date in the format “d-MMM-yyy”
+    private int currentDay; // The current date as an epoch day
+
+    // Document type whose lodged tasks are measured against the target TAT
+    static final String EXPORT_COLLECTION = "Ecoll - Export Collection";
+
+    // Incremental ingestion state: size and modification time of the file at the last read
+    private long lastFileSize = -1;
+    private long lastModified = -1;
+
+    // Working days and weeks used for the weekly buckets
+    private final BusinessCalendar calendar = BusinessCalendar.getDefault();
+
+    // Data version, incremented on every read that changed the data
+    private long version;
+
+    // Changes of the latest version, shared with its snapshot
+    private TaskDelta lastDelta;
+
+    // Notified after every read that changed something
+    private final List<TaskDeltaListener> deltaListeners = new ArrayList<>();
+
+    // Row of each task by its key, so a task exported again with a new status replaces its earlier row;
+    // concurrent because ingest workers look up keys while the reading thread adds new ones
+    private final Map<String, Integer> rowsByKey = new ConcurrentHashMap<>();
+
+    // Fingerprint of the raw fields of each row; a row read again with the same fingerprint is skipped unparsed
+    private long[] fingerprints = new long[16];
+
+    // Rejected rows by row of the task store of the latest version
+    private Map<Integer, RejectedRow> publishedRejected;
+
+    // State of the read in progress: row count before it, rows seen (full reads only), rows updated,
+    // rows whose fingerprint changed and that are resolved once the whole file is read,
+    // and the statistics before the read
+    private int readStartSize;
+    private long[] readStartFingerprints;
+    private BitSet seenRows;
+    private BitSet updatedRows;
+    private Map<Integer, PendingRow> pendingUpdates;
+    private Map<String, Integer> statsBefore;
+    private Map<Integer, TaskCounters> daysBefore;
+
+    // Rows handed to ingest by the read in progress
+    private int readRows;
+
+    // Monthly files of the tasks dated behind the window kept in memory, null if the history is off
+    private TaskHistory history;
+
+    // First day of the in-memory window: the current month, and at least the last WINDOW_DAYS days
+    private int windowStart = TaskFields.NO_DATE;
+    private static final int WINDOW_DAYS = 14;
+
+    // Tasks of the read in progress that are dated behind the window, stored in the history when it ends
+    private Map<String, PendingRow> archivedReads;
+
+    // Keys of the archived tasks the read in progress found, and of archived tasks it found dated into the
+    // window again, which leave the history when it ends
+    private Set<String> archivedSeen;
+    private Set<String> leftHistory;
+
+    // Counters a snapshot server reported with the tasks being applied, null when the workbook is read. They
+    // replace the counts of the applied tasks, which lack the tasks the server keeps in its history
+    private Map<String, Integer> serverTotals;
+    private Map<Integer, TaskCounters> serverDays;
+
+    // Rows of the latest published task store ordered by date, for the range queries and the facet index;
+    // built on first use after a new version, null until then
+    private DateIndex dateIndex;
+
+    // Search and facet indexes of the latest published task store, built with the snapshot when enabled;
+    // null until then
+    private boolean searchIndexed;
+    private TaskSearchIndex searchIndex;
+    private boolean facetIndexed;
+    private FacetIndex facetIndex;
+
+    // Tasks with values that could not be parsed, by task key in the order they were found; only touched by the
+    // reading thread and copied into every snapshot
+    private final Map<String, RejectedRow> rejectedRows = new LinkedHashMap<>();
+
+    // Typed fields parsed from text, with the column they come from and their missing marker
+    private static final ParsedField[] PARSED_FIELDS = {
+            new ParsedField("Date", ExcelModel::getDate, TaskData::getEpochDay, TaskFields.NO_DATE),
+            new ParsedField("TAT", ExcelModel::getTat, TaskData::getTat, TaskFields.NO_DURATION),
+            new ParsedField("ApplicationReceivedAt", ExcelModel::getApplicationReceivedAt, TaskData::getApplicationReceivedAt, TaskFields.NO_TIME),
+            new ParsedField("ScannedAt", ExcelModel::getScannedAt, TaskData::getScannedAt, TaskFields.NO_TIME),
+            new ParsedField("TotalTimeAtBranch", ExcelModel::getTotalTimeAtBranch, TaskData::getTotalTimeAtBranch, TaskFields.NO_DURATION),
+            new ParsedField("VerifiedAt", ExcelModel::getVerifiedAt, TaskData::getVerifiedAt, TaskFields.NO_TIME),
+            new ParsedField("TotalTimeForVerification", ExcelModel::getTotalTimeForVerification, TaskData::getTotalTimeForVerification, TaskFields.NO_DURATION),
+            new ParsedField("LodgementStartedAt", ExcelModel::getLodgementStartedAt, TaskData::getLodgementStartedAt, TaskFields.NO_TIME),
+            new ParsedField("ConfirmedAt", ExcelModel::getConfirmedAt, TaskData::getConfirmedAt, TaskFields.NO_TIME),
+            new ParsedField("TotalTimeForEntry", ExcelModel::getTotalTimeForEntry, TaskData::getTotalTimeForEntry, TaskFields.NO_DURATION),
+            new ParsedField("ComplianceVerifiedAt", ExcelModel::getComplianceVerifiedAt, TaskData::getComplianceVerifiedAt, TaskFields.NO_TIME),
+            new ParsedField("AuthorizedAt", ExcelModel::getAuthorizedAt, TaskData::getAuthorizedAt, TaskFields.NO_TIME)
+    };
+
+    // Worker threads that fingerprint, convert and count the rows of a read while the reading thread keeps
+    // parsing; 0 does everything on the reading thread. Set with -Ddashboard.ingest.threads
+    private static final int INGEST_THREADS = Integer.getInteger("dashboard.ingest.threads",
+            Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    private static final int INGEST_BATCH_SIZE = 1024;
+
+    // Worker pool shared by all readers, created on first use
+    private static ExecutorService ingestWorkers;
+
+    // Receives the timings of every read, null if not measured
+    private RefreshMetrics metrics;
+
+    // Reader for the raw tab/comma separated export, used when the file is not a workbook
+    private final DelimitedTaskReader delimitedReader;
+
+    // Whether the last read found delimited text rather than a workbook
+    private boolean delimited;
+
+    // Checksum of the workbook the snapshot cache was built from, until the first refresh has compared it
+    private boolean cacheUnverified;
+    private long cacheChecksum;
 
     // Constructor, accepts a file path parameter and initializes the statistics
     public ExcelDataReader(String filePath) {
+        this(filePath, TaskStore.create(System.getProperty("dashboard.store", "list")));
+    }
+
+    // Constructor with an explicit storage engine
+    public ExcelDataReader(String filePath, TaskStore taskStore) {
         this.filePath = filePath;
+        this.taskStore = taskStore;
+        this.delimitedReader = new DelimitedTaskReader(filePath);
         this.currentStats = new HashMap<>(); // Initialize the day's statistics
-        this.dailyStats = new HashMap<>();
+        this.dailyStats = new TreeMap<>();
         this.weeklyStats = new HashMap<>();
-        this.taskList = new ArrayList<>();
-        this.currentDate = getCurrentWorkingDate();
+        this.currentDay = getCurrentWorkingDay();
         initializeStats();
     }
 
-    // Get the current working date in “d-MMM-yyy” format
-    private String getCurrentWorkingDate() {
-        // Use LocalDate to get the current date and format it using the specified date formatting mode (“d-MMM-yyy”)
-        return LocalDate.now().format(
-                DateTimeFormatter.ofPattern("d-MMM-yy")
-        );
+    // Get the current working date as an epoch day
+    private int getCurrentWorkingDay() {
+        return (int) LocalDate.now().toEpochDay();
     }
 
     // Initializes the day's statistics, setting the number of tasks in all states to 0 by default
@@ -64,14 +198,567 @@ public class ExcelDataReader {
         currentStats.put("OVER_TAT", 0);
     }
 
-    // Reading and processing Excel data
-    public void readExcelData() {
-        // Use EasyExcel library to read Excel file with specified path, ExcelModel class to represent the mapping model of each row of data, TaskDataListener as data listener
-        EasyExcel.read(filePath, ExcelModel.class, new TaskDataListener())
-                .sheet()
-                .doRead();
+    // Keep the tasks dated behind the window in monthly files in the given directory instead of in memory.
+    // Must be set before the first read; the statistics always include the archived tasks
+    public void setHistory(File directory) {
+        history = new TaskHistory(directory);
+        mergeCounters(history.getTotals(), history.getDailyCounters());
+        calculatePercentages();
+    }
+
+    // Build a search index over the tasks of every snapshot, for type-ahead search in the task table
+    public void setSearchIndexed(boolean searchIndexed) {
+        this.searchIndexed = searchIndexed;
+    }
+
+    // Build facet bitsets over the tasks of every snapshot, for filtering the cards, charts and table
+    public void setFacetIndexed(boolean facetIndexed) {
+        this.facetIndexed = facetIndexed;
+    }
+
+    // Register a listener for the changes of every read, called on the reading thread
+    public void addDeltaListener(TaskDeltaListener listener) {
+        deltaListeners.add(listener);
+    }
+
+    public void removeDeltaListener(TaskDeltaListener listener) {
+        deltaListeners.remove(listener);
+    }
+
+    // Report parse and aggregation time and rows of every read to the given metrics
+    public void setMetrics(RefreshMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Reading and processing Excel data: every row of the file is matched against the current tasks,
+    // tasks no longer in the file are removed. Returns false if nothing changed
+    public boolean readExcelData() {
+        return read(true, true, currentDay);
+    }
+
+    // Refresh the data, returns false if nothing changed since the last read
+    public boolean refresh() {
+        File file = new File(filePath);
+        long size = file.length();
+        long modified = file.lastModified();
+        int today = getCurrentWorkingDay();
+        boolean fileChanged = size != lastFileSize || modified != lastModified;
+
+        // Nothing to do if the file is unchanged and the working date has not rolled over
+        if (!fileChanged && today == currentDay) {
+            return false;
+        }
+
+        // Data loaded from the snapshot cache is still current if the workbook was only touched or copied
+        if (cacheUnverified && fileChanged) {
+            cacheUnverified = false;
+            try {
+                if (size == lastFileSize && SnapshotCache.checksum(file) == cacheChecksum) {
+                    lastModified = modified;
+                    fileChanged = false;
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        // Delimited text is read from the byte offset where the previous read stopped. Workbooks are zipped XML
+        // and cannot be read from an offset, so they are read in full, but unchanged rows are recognised by
+        // their fingerprint before they are parsed
+        boolean append = lastFileSize >= 0 && delimited && DelimitedTaskReader.isDelimitedText(filePath);
+        return read(fileChanged, !append, today);
+    }
+
+    // One read: match the rows of the file (if it is read at all) against the current tasks and publish the changes
+    private boolean read(boolean readFile, boolean fullRead, int today) {
+        long start = System.nanoTime();
+        File file = new File(filePath);
+        long size = file.length();
+        long modified = file.lastModified();
+        beginRead(readFile && fullRead);
+        rollOverDay(today);
+        if (!readFile) {
+            return finishRead(start);
+        }
+
+        // Raw rows go either straight to ingest or, in batches, through the worker pipeline
+        BatchPipeline<ExcelModel, ConvertedBatch> pipeline = null;
+        Consumer<ExcelModel> consumer = this::ingest;
+        if (INGEST_THREADS > 0) {
+            pipeline = new BatchPipeline<>(ingestWorkers(), INGEST_BATCH_SIZE, INGEST_THREADS * 4,
+                    this::convertBatch, this::mergeBatch);
+            consumer = pipeline::accept;
+        }
+
+        try {
+            if (!fullRead && !delimitedReader.readAppended(consumer)) {
+                // The header changed or the file shrank, so it was rewritten rather than appended to
+                seenRows = new BitSet(readStartSize);
+                fullRead = true;
+            }
+            if (fullRead) {
+                // The raw export is plain delimited text and is split directly, which is much cheaper than
+                // inflating and SAX-parsing a workbook; the format is picked from the file content, not its name
+                delimited = DelimitedTaskReader.isDelimitedText(filePath);
+                if (delimited) {
+                    delimitedReader.readAll(consumer);
+                } else {
+                    // Use EasyExcel library to read Excel file with specified path, ExcelModel class to represent the mapping model of each row of data, TaskDataListener as data listener
+                    EasyExcel.read(filePath, ExcelModel.class, new TaskDataListener(consumer))
+                            .sheet()
+                            .doRead();
+                }
+            }
+            if (pipeline != null) {
+                pipeline.finish();
+            }
+            lastFileSize = size;
+            lastModified = modified;
+        } catch (IOException | RuntimeException e) {
+            // Keep what was read, but remove nothing and read the file again on the next refresh
+            e.printStackTrace();
+            if (pipeline != null) {
+                pipeline.cancel();
+            }
+            seenRows = null;
+            lastFileSize = -1;
+        }
+        return finishRead(start);
+    }
+
+    // End the read and report its timings: parsing covers reading and converting the rows,
+    // aggregation the updates, removals, statistics and the published copy
+    private boolean finishRead(long start) {
+        long parsed = System.nanoTime();
+        boolean changed = endRead();
+        if (metrics != null) {
+            metrics.recordRead(parsed - start, System.nanoTime() - parsed, readRows, changed, version,
+                    lastDelta == null ? null : lastDelta.getTaskStore());
+        }
+        return changed;
+    }
+
+    // A new working date only moves the "NEW" statistic, which is the new-task count of the current day
+    private void rollOverDay(int today) {
+        if (today != currentDay) {
+            currentDay = today;
+            TaskCounters counters = dailyStats.get(today);
+            currentStats.put("NEW", counters == null ? 0 : counters.getNewTasks());
+        }
+    }
+
+    private void beginRead(boolean fullRead) {
+        readStartSize = taskStore.size();
+        readStartFingerprints = fingerprints;
+        readRows = 0;
+        seenRows = fullRead ? new BitSet(readStartSize) : null;
+        updatedRows = new BitSet();
+        pendingUpdates = new HashMap<>();
+        statsBefore = new HashMap<>(currentStats);
+        daysBefore = new HashMap<>();
+        archivedReads = new LinkedHashMap<>();
+        archivedSeen = new HashSet<>();
+        leftHistory = new HashSet<>();
+        if (history != null) {
+            LocalDate today = LocalDate.ofEpochDay(getCurrentWorkingDay());
+            windowStart = (int) Math.min(today.withDayOfMonth(1).toEpochDay(), today.minusDays(WINDOW_DAYS).toEpochDay());
+        }
+    }
+
+    // Apply the pending updates and removals, and publish the changes as a new version if there are any
+    private boolean endRead() {
+        // A task may appear more than once, the last occurrence wins; it is only an update if it differs
+        // from the stored version
+        for (Map.Entry<Integer, PendingRow> entry : pendingUpdates.entrySet()) {
+            int row = entry.getKey();
+            PendingRow pending = entry.getValue();
+            if (fingerprints[row] != pending.fingerprint) {
+                fingerprints[row] = pending.fingerprint;
+                TaskData task = pending.task != null ? pending.task : toTaskData(pending.data);
+                replaceTask(row, task);
+                quarantine(taskKey(task.getDocumentSerial(), task.getReferenceNumber(), pending.fingerprint),
+                        pending.task != null ? pending.rejected : checkRow(pending.data, task));
+            }
+        }
 
+        // Tasks that were not in a full read have been removed from the workbook
+        List<TaskData> removed = new ArrayList<>();
+        BitSet dropped = new BitSet();
+        if (seenRows != null) {
+            for (int row = seenRows.nextClearBit(0); row < readStartSize; row = seenRows.nextClearBit(row + 1)) {
+                TaskData task = taskStore.get(row);
+                removed.add(task);
+                processTaskStatus(task, -1);
+                dropped.set(row);
+            }
+        }
+        // Tasks dated behind the window leave memory but stay in the statistics
+        if (history != null) {
+            archiveBehindWindow(dropped, removed);
+        }
+        int firstInsertedRow = dropped.isEmpty() ? readStartSize : removeRows(dropped);
+        if (serverTotals != null) {
+            applyServerCounters();
+        }
         calculatePercentages();
+
+        Map<String, Integer> counterChanges = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : currentStats.entrySet()) {
+            int change = entry.getValue() - statsBefore.getOrDefault(entry.getKey(), 0);
+            if (change != 0 && !entry.getKey().endsWith("_PERCENTAGE")) {
+                counterChanges.put(entry.getKey(), change);
+            }
+        }
+        NavigableMap<Integer, TaskCounters> dayChanges = new TreeMap<>();
+        for (Map.Entry<Integer, TaskCounters> entry : daysBefore.entrySet()) {
+            TaskCounters change = new TaskCounters();
+            TaskCounters after = dailyStats.get(entry.getKey());
+            if (after != null) {
+                change.add(after);
+            }
+            change.subtract(entry.getValue());
+            if (!change.isZero()) {
+                dayChanges.put(entry.getKey(), change);
+            }
+        }
+
+        boolean rowsMoved = !removed.isEmpty();
+        int[] updated = updatedRows.stream().toArray();
+        seenRows = null;
+        readStartFingerprints = null;
+        updatedRows = null;
+        pendingUpdates = null;
+        statsBefore = null;
+        daysBefore = null;
+        archivedReads = null;
+        archivedSeen = null;
+        leftHistory = null;
+        serverTotals = null;
+        serverDays = null;
+
+        boolean rowsChanged = firstInsertedRow < taskStore.size() || updated.length > 0 || rowsMoved;
+        if (!rowsChanged && counterChanges.isEmpty() && dayChanges.isEmpty()) {
+            return false;
+        }
+
+        // The copy of the previous version can be shared if no row changed
+        TaskStore tasks = rowsChanged || lastDelta == null ? taskStore.copy() : lastDelta.getTaskStore();
+        if (rowsChanged || lastDelta == null) {
+            publishedRejected = rejectedByRow();
+        }
+        version++;
+        lastDelta = new TaskDelta(version, tasks, firstInsertedRow, updated, removed, rowsMoved,
+                counterChanges, dayChanges);
+        for (TaskDeltaListener listener : new ArrayList<>(deltaListeners)) {
+            listener.onDelta(lastDelta);
+        }
+        return true;
+    }
+
+    // Move the live tasks dated behind the window into the history, then store the tasks this read found for it.
+    // Tasks dated into the window again leave the history, and so do, after a full read, the archived tasks
+    // the workbook no longer has
+    private void archiveBehindWindow(BitSet dropped, List<TaskData> removed) {
+        for (int row = 0; row < taskStore.size(); row++) {
+            int day = taskStore.getEpochDay(row);
+            if (day != TaskFields.NO_DATE && day < windowStart && !dropped.get(row)) {
+                TaskData task = taskStore.get(row);
+                String key = taskKey(task.getDocumentSerial(), task.getReferenceNumber(), fingerprints[row]);
+                archive(key, fingerprints[row], task, true);
+                archivedSeen.add(key);
+                removed.add(task);
+                dropped.set(row);
+            }
+        }
+        for (Map.Entry<String, PendingRow> entry : archivedReads.entrySet()) {
+            archive(entry.getKey(), entry.getValue().fingerprint, entry.getValue().task, false);
+            archivedSeen.add(entry.getKey());
+        }
+        for (String key : leftHistory) {
+            TaskData previous = history.remove(key);
+            if (previous != null) {
+                processTaskStatus(previous, -1);
+            }
+        }
+        if (seenRows != null) {
+            for (TaskData task : history.removeUnseen(archivedSeen)) {
+                processTaskStatus(task, -1);
+            }
+        }
+        history.flush();
+    }
+
+    // Store a task in the history; counted tells whether it is already in the statistics as a live row.
+    // A version the history already had is taken out of the statistics, so every task is counted once
+    private void archive(String key, long fingerprint, TaskData task, boolean counted) {
+        TaskData previous = history.put(key, fingerprint, task);
+        if (previous != null && (counted || !previous.equals(task))) {
+            processTaskStatus(previous, -1);
+        }
+        if (!counted && (previous == null || !previous.equals(task))) {
+            processTaskStatus(task, 1);
+        }
+    }
+
+    // Whether a task belongs in the history rather than in memory
+    private boolean isBehindWindow(TaskData task) {
+        return history != null && task.getEpochDay() != TaskFields.NO_DATE && task.getEpochDay() < windowStart;
+    }
+
+    // Remove the dropped rows and renumber the rest, returns the new first inserted row
+    private int removeRows(BitSet dropped) {
+        TaskStore kept = TaskStore.create(taskStore.getName());
+        long[] keptFingerprints = new long[Math.max(16, taskStore.size())];
+        int[] newRows = new int[taskStore.size()];
+        int firstInsertedRow = 0;
+        for (int row = 0; row < taskStore.size(); row++) {
+            TaskData task = taskStore.get(row);
+            if (dropped.get(row)) {
+                newRows[row] = -1;
+                continue;
+            }
+            if (row < readStartSize) {
+                firstInsertedRow++;
+            }
+            newRows[row] = kept.size();
+            keptFingerprints[kept.size()] = fingerprints[row];
+            kept.add(task);
+        }
+
+        BitSet keptUpdates = new BitSet();
+        for (int row = updatedRows.nextSetBit(0); row >= 0; row = updatedRows.nextSetBit(row + 1)) {
+            if (newRows[row] >= 0) {
+                keptUpdates.set(newRows[row]);
+            }
+        }
+        updatedRows = keptUpdates;
+        rowsByKey.entrySet().removeIf(entry -> newRows[entry.getValue()] < 0);
+        rowsByKey.replaceAll((key, row) -> newRows[row]);
+        rejectedRows.keySet().retainAll(rowsByKey.keySet());
+        taskStore = kept;
+        fingerprints = keptFingerprints;
+        return firstInsertedRow;
+    }
+
+    // Apply tasks received from a snapshot server instead of reading the file. If complete, they are the whole
+    // data set and tasks not among them are removed; otherwise they are added or replace their earlier version.
+    // The server's overall and daily counters, if given, are taken over as they are; with complete tasks the days
+    // are all of them. Returns false if nothing changed
+    boolean applyTasks(Iterable<TaskData> tasks, boolean complete, Map<String, Integer> totals,
+                       Map<Integer, TaskCounters> days) {
+        long start = System.nanoTime();
+        beginRead(complete);
+        rollOverDay(getCurrentWorkingDay());
+        for (TaskData task : tasks) {
+            ingestTask(task);
+        }
+        serverTotals = totals;
+        serverDays = days;
+        return finishRead(start);
+    }
+
+    // Take over the counters of the snapshot server, after the applied tasks have been counted
+    private void applyServerCounters() {
+        for (String key : new String[]{"ONGOING", "COMPLETED", "WITHIN_TAT", "OVER_TAT"}) {
+            Integer value = serverTotals.get(key);
+            if (value != null) {
+                currentStats.put(key, value);
+            }
+        }
+        if (seenRows != null) {
+            // The server has no tasks on the days it does not list
+            for (Map.Entry<Integer, TaskCounters> entry : dailyStats.entrySet()) {
+                if (!serverDays.containsKey(entry.getKey())) {
+                    rememberDayBefore(entry.getKey(), entry.getValue());
+                }
+            }
+            dailyStats.keySet().retainAll(serverDays.keySet());
+        }
+        for (Map.Entry<Integer, TaskCounters> entry : serverDays.entrySet()) {
+            int day = entry.getKey();
+            rememberDayBefore(day, dailyStats.computeIfAbsent(day, d -> new TaskCounters()));
+            TaskCounters counters = new TaskCounters();
+            counters.add(entry.getValue());
+            if (counters.isEmpty()) {
+                dailyStats.remove(day);
+            } else {
+                dailyStats.put(day, counters);
+            }
+        }
+        TaskCounters today = dailyStats.get(currentDay);
+        currentStats.put("NEW", today == null ? 0 : today.getNewTasks());
+    }
+
+    // Overall counters by key ("NEW", "ONGOING", ...), without the percentages
+    public Map<String, Integer> getTotals() {
+        Map<String, Integer> totals = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : currentStats.entrySet()) {
+            if (!entry.getKey().endsWith("_PERCENTAGE")) {
+                totals.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return totals;
+    }
+
+    // Copy of the counters of every day with tasks, by epoch day
+    public NavigableMap<Integer, TaskCounters> getDailyCounters() {
+        NavigableMap<Integer, TaskCounters> days = new TreeMap<>();
+        for (Map.Entry<Integer, TaskCounters> entry : dailyStats.entrySet()) {
+            TaskCounters counters = new TaskCounters();
+            counters.add(entry.getValue());
+            days.put(entry.getKey(), counters);
+        }
+        return days;
+    }
+
+    // Daily counters of the archived tasks matching a facet filter, which the facet index of a snapshot does not
+    // cover; empty if the history is off. Reads the history, so it runs on the thread that reads the workbook
+    public NavigableMap<Integer, TaskCounters> getArchivedCounters(TaskFilter filter) {
+        return history == null ? Collections.emptyNavigableMap() : history.getFilteredDailyCounters(filter);
+    }
+
+    // Load the tasks and statistics of the snapshot cache written by an earlier run, without reading the workbook.
+    // Returns false if there is no usable cache; the workbook is compared with it on the next refresh()
+    public boolean loadCache() {
+        resetData();
+        SnapshotCache cache = SnapshotCache.read(SnapshotCache.cacheFileFor(filePath), taskStore);
+        if (cache == null) {
+            return false;
+        }
+
+        currentDay = getCurrentWorkingDay();
+        TaskCounters today = cache.dailyStats.get(currentDay);
+        currentStats.put("NEW", today == null ? 0 : today.getNewTasks());
+        currentStats.put("ONGOING", cache.ongoing);
+        currentStats.put("COMPLETED", cache.completed);
+        currentStats.put("WITHIN_TAT", cache.withinTat);
+        currentStats.put("OVER_TAT", cache.overTat);
+        dailyStats.putAll(cache.dailyStats);
+        if (history != null) {
+            // The cache holds the counters of the tasks in memory only
+            mergeCounters(history.getTotals(), history.getDailyCounters());
+        }
+        calculatePercentages();
+        fingerprints = Arrays.copyOf(cache.fingerprints, Math.max(16, cache.fingerprints.length));
+        for (int row = 0; row < taskStore.size(); row++) {
+            TaskData task = taskStore.get(row);
+            rowsByKey.put(taskKey(task.getDocumentSerial(), task.getReferenceNumber(), fingerprints[row]), row);
+        }
+
+        delimited = cache.delimited;
+        delimitedReader.restore(cache.delimitedHeader, cache.delimitedOffset);
+        lastFileSize = cache.workbookSize;
+        lastModified = cache.workbookModified;
+        cacheChecksum = cache.workbookChecksum;
+        cacheUnverified = true;
+        version++;
+        lastDelta = new TaskDelta(version, taskStore.copy(), 0, new int[0], new ArrayList<>(), false,
+                new HashMap<>(), new TreeMap<>());
+        publishedRejected = new HashMap<>();
+        if (history != null) {
+            // Move the tasks the window has passed since the cache was written
+            read(false, false, currentDay);
+        }
+        return true;
+    }
+
+    // Write the current tasks and statistics to the snapshot cache next to the workbook.
+    // Skipped if the workbook has changed since it was read, the next refresh will save again
+    public void saveCache() {
+        File file = new File(filePath);
+        if (lastFileSize < 0) {
+            return;
+        }
+        try {
+            long checksum = SnapshotCache.checksum(file);
+            if (file.length() != lastFileSize || file.lastModified() != lastModified) {
+                return;
+            }
+
+            SnapshotCache cache = new SnapshotCache();
+            cache.workbookSize = lastFileSize;
+            cache.workbookModified = lastModified;
+            cache.workbookChecksum = checksum;
+            cache.fingerprints = Arrays.copyOf(fingerprints, taskStore.size());
+            cache.delimited = delimited;
+            cache.delimitedHeader = delimited ? delimitedReader.getHeaderLine() : null;
+            cache.delimitedOffset = delimited ? delimitedReader.getOffset() : 0;
+            cache.ongoing = getOngoingTasksCount();
+            cache.completed = getCompletedTasksCount();
+            cache.withinTat = getNormalTATCount();
+            cache.overTat = getAbnormalTATCount();
+            cache.dailyStats = dailyStats;
+            if (history != null) {
+                // Only the counters of the tasks in memory, the history files carry their own
+                TaskCounters archived = history.getTotals();
+                cache.ongoing -= archived.getOngoing();
+                cache.completed -= archived.getCompleted();
+                cache.withinTat -= archived.getWithinTat();
+                cache.overTat -= archived.getOverTat();
+                cache.dailyStats = new TreeMap<>();
+                for (Map.Entry<Integer, TaskCounters> entry : dailyStats.entrySet()) {
+                    TaskCounters live = new TaskCounters();
+                    live.add(entry.getValue());
+                    TaskCounters archivedDay = history.getDailyCounters().get(entry.getKey());
+                    if (archivedDay != null) {
+                        live.subtract(archivedDay);
+                    }
+                    if (!live.isZero()) {
+                        cache.dailyStats.put(entry.getKey(), live);
+                    }
+                }
+            }
+            cache.write(SnapshotCache.cacheFileFor(filePath), taskStore);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Immutable snapshot of the current statistics and tasks for the UI thread, together with the changes
+    // from the previous version
+    public DataSnapshot createSnapshot() {
+        TaskStore tasks = publishedTasks();
+        Map<Integer, RejectedRow> rejected = lastDelta != null ? publishedRejected : rejectedByRow();
+        if (searchIndexed && (searchIndex == null || searchIndex.getTaskStore() != tasks)) {
+            searchIndex = TaskSearchIndex.build(tasks);
+        }
+        if (facetIndexed && (facetIndex == null || facetIndex.getTaskStore() != tasks)) {
+            facetIndex = FacetIndex.build(tasks, getDateIndex(tasks));
+        }
+        return new DataSnapshot(version, getNewTasksCount(), getOngoingTasksCount(), getCompletedTasksCount(),
+                getNormalTATCount(), getAbnormalTATCount(), tasks, lastDelta, new ArrayList<>(rejectedRows.values()),
+                rejected, searchIndexed ? searchIndex : null, facetIndexed ? facetIndex : null);
+    }
+
+    // Clear all tasks and statistics before loading the cache
+    private void resetData() {
+        currentStats.clear();
+        dailyStats.clear();
+        weeklyStats.clear();
+        taskStore.clear();
+        rowsByKey.clear();
+        rejectedRows.clear();
+        initializeStats();
+        cacheUnverified = false;
+    }
+
+    // Number of data rows ingested so far
+    public int getIngestedRowCount() {
+        return taskStore.size();
+    }
+
+    // Compare the heap used by the current store with the other storage engine for the same rows
+    public String getMemoryReport() {
+        TaskStore other = TaskStore.create("columnar".equals(taskStore.getName()) ? "list" : "columnar");
+        for (int row = 0; row < taskStore.size(); row++) {
+            other.add(taskStore.get(row));
+        }
+        long current = taskStore.estimateMemoryBytes();
+        long alternative = other.estimateMemoryBytes();
+        return String.format("%d rows: %s store ~%,d bytes (%d bytes/row), %s store ~%,d bytes (%d bytes/row)",
+                taskStore.size(),
+                taskStore.getName(), current, taskStore.size() == 0 ? 0 : current / taskStore.size(),
+                other.getName(), alternative, other.size() == 0 ? 0 : alternative / other.size());
     }
 
 
@@ -160,29 +847,33 @@ public class ExcelDataReader {
     public static class TaskData {
 
 
-        private String date;
+        // Date as an epoch day, TaskFields.NO_DATE if missing
+        private int epochDay;
 
+        // Interned document type, the same instance is shared by all rows of a type
         private String documentType;
 
-        private String applicationReceivedAt;
+        // Stage timestamps in epoch milliseconds, TaskFields.NO_TIME if missing
+        private long applicationReceivedAt;
 
-        private String scannedAt;
+        private long scannedAt;
 
-        private String totalTimeAtBranch;
+        // Stage durations in seconds, TaskFields.NO_DURATION if missing
+        private int totalTimeAtBranch;
 
-        private String verifiedAt;
+        private long verifiedAt;
 
-        private String totalTimeForVerification;
+        private int totalTimeForVerification;
 
-        private String lodgementStartedAt;
+        private long lodgementStartedAt;
 
-        private String confirmedAt;
+        private long confirmedAt;
 
-        private String totalTimeForEntry;
+        private int totalTimeForEntry;
 
-        private String complianceVerifiedAt;
+        private long complianceVerifiedAt;
 
-        private String authorizedAt;
+        private long authorizedAt;
 
         private String documentSerial;
 
@@ -192,28 +883,33 @@ public class ExcelDataReader {
 
         private String clientName;
 
-        private String status;
+        // Status code used by the statistics, and the interned original text used for display
+        private TaskStatus status;
 
-        private String tat;
+        private String statusText;
+
+        // TAT in seconds, TaskFields.NO_DURATION if missing
+        private int tat;
 
         private String handler;
 
         // Constructor: Used to create the TaskData object and initialize all fields
         public TaskData(String documentSerial, String referenceNumber, String amount,
-                        String clientName, String status, String tat, String handler,
-                        String date, String documentType, String applicationReceivedAt,
-                        String scannedAt, String totalTimeAtBranch, String verifiedAt,
-                        String totalTimeForVerification, String lodgementStartedAt,
-                        String confirmedAt, String totalTimeForEntry,
-                        String complianceVerifiedAt, String authorizedAt) {
+                        String clientName, TaskStatus status, String statusText, int tat, String handler,
+                        int epochDay, String documentType, long applicationReceivedAt,
+                        long scannedAt, int totalTimeAtBranch, long verifiedAt,
+                        int totalTimeForVerification, long lodgementStartedAt,
+                        long confirmedAt, int totalTimeForEntry,
+                        long complianceVerifiedAt, long authorizedAt) {
             this.documentSerial = documentSerial;
             this.referenceNumber = referenceNumber;
             this.amount = amount;
             this.clientName = clientName;
             this.status = status;
+            this.statusText = statusText;
             this.tat = tat;
             this.handler = handler;
-            this.date = date;
+            this.epochDay = epochDay;
             this.documentType = documentType;
             this.applicationReceivedAt = applicationReceivedAt;
             this.scannedAt = scannedAt;
@@ -226,38 +922,28 @@ public class ExcelDataReader {
             this.complianceVerifiedAt = complianceVerifiedAt;
             this.authorizedAt = authorizedAt;
         }
+
+        // Only lodged "Ecoll - Export Collection" tasks are measured against the target TAT
+        public boolean isTatTracked() {
+            return status == TaskStatus.LODGE && EXPORT_COLLECTION.equals(documentType);
+        }
+
+        public boolean isWithinTargetTat() {
+            return TaskFields.isWithinTargetTat(tat);
+        }
     }
 
 
-    private class TaskDataListener implements ReadListener<ExcelModel> {
+    private static class TaskDataListener implements ReadListener<ExcelModel> {
+        private final Consumer<ExcelModel> consumer;
+
+        TaskDataListener(Consumer<ExcelModel> consumer) {
+            this.consumer = consumer;
+        }
 
         @Override
         public void invoke(ExcelModel data, AnalysisContext context) {
-            // Processing task status and updating statistics based on Excel data
-            processTaskStatus(data);
-
-            // Convert the read Excel data into TaskData objects and add them to the task list
-            taskList.add(new TaskData(
-                    data.getDocumentSerial(),
-                    data.getReferenceNumber(),
-                    data.getAmount(),
-                    data.getClientName(),
-                    data.getStatus(),
-                    data.getTat(),
-                    data.getHandler(),
-                    data.getDate(),
-                    data.getDocumentType(),
-                    data.getApplicationReceivedAt(),
-                    data.getScannedAt(),
-                    data.getTotalTimeAtBranch(),
-                    data.getVerifiedAt(),
-                    data.getTotalTimeForVerification(),
-                    data.getLodgementStartedAt(),
-                    data.getConfirmedAt(),
-                    data.getTotalTimeForEntry(),
-                    data.getComplianceVerifiedAt(),
-                    data.getAuthorizedAt()
-            ));
+            consumer.accept(data);
         }
 
         // This method is called after all data parsing is complete
@@ -266,121 +952,470 @@ public class ExcelDataReader {
         }
     }
 
-    // 处理任务状态的函数
-    private void processTaskStatus(ExcelModel data) {
-        String date = data.getDate();
-        String status = data.getStatus().toUpperCase();
-        String documentType = data.getDocumentType();
+    // A changed row waiting for the end of the read, raw or already converted by an ingest worker
+    private static class PendingRow {
+        private final ExcelModel data;
+        private final TaskData task;
+        private final RejectedRow rejected;
+        private final long fingerprint;
+
+        PendingRow(ExcelModel data, TaskData task, RejectedRow rejected, long fingerprint) {
+            this.data = data;
+            this.task = task;
+            this.rejected = rejected;
+            this.fingerprint = fingerprint;
+        }
+    }
 
-        // Processing of the day's task statistics
-        if (date.equals(currentDate)) {
+    // A typed field of TaskData and the raw column it is parsed from
+    private static class ParsedField {
+        private final String column;
+        private final Function<ExcelModel, String> raw;
+        private final ToLongFunction<TaskData> parsed;
+        private final long missing;
+
+        ParsedField(String column, Function<ExcelModel, String> raw, ToLongFunction<TaskData> parsed, long missing) {
+            this.column = column;
+            this.raw = raw;
+            this.parsed = parsed;
+            this.missing = missing;
+        }
+    }
 
-            currentStats.merge("NEW", 1, Integer::sum); // Add 1 to stats if it's a new mission
+    // Rows of one pipeline batch as prepared by an ingest worker. Rows whose key was not known before the read
+    // are converted and counted into the batch's partial counters; known rows are only converted if they changed
+    private static class ConvertedBatch {
+        private final int size;
+        private final String[] keys;
+        private final long[] fingerprints;
+        private final boolean[] known;
+        private final boolean[] archived;
+        private final TaskData[] tasks;
+        private final RejectedRow[] rejected;
+        private final TaskCounters total = new TaskCounters();
+        private final Map<Integer, TaskCounters> days = new HashMap<>();
+
+        ConvertedBatch(int size) {
+            this.size = size;
+            this.keys = new String[size];
+            this.fingerprints = new long[size];
+            this.known = new boolean[size];
+            this.archived = new boolean[size];
+            this.tasks = new TaskData[size];
+            this.rejected = new RejectedRow[size];
         }
 
-        // Ongoing Tasks statistics
-        if ("PENDING".equals(status)) {
-            currentStats.merge("ONGOING", 1, Integer::sum);
+        void count(TaskData task) {
+            TaskStatus status = task.getStatus();
+            boolean tatTracked = task.isTatTracked();
+            boolean withinTat = tatTracked && task.isWithinTargetTat();
+            total.addTask(status == TaskStatus.PENDING, status == TaskStatus.LODGE, tatTracked, withinTat);
+            if (task.getEpochDay() != TaskFields.NO_DATE) {
+                days.computeIfAbsent(task.getEpochDay(), d -> new TaskCounters())
+                        .addTask(status == TaskStatus.PENDING, status == TaskStatus.LODGE, tatTracked, withinTat);
+            }
         }
+    }
 
-        // Completed Tasks 统计（当天）
-        if ("LODGE".equals(status)) { // If the task status is “LODGE”
-            currentStats.merge("COMPLETED", 1, Integer::sum); // Add 1 to the task completion statistic
+    private static synchronized ExecutorService ingestWorkers() {
+        if (ingestWorkers == null) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            ingestWorkers = Executors.newFixedThreadPool(INGEST_THREADS, r -> {
+                Thread thread = new Thread(r, "ingest-worker-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return ingestWorkers;
+    }
 
-            // TAT统计（当天）
-            if ("Ecoll - Export Collection".equals(documentType)) { // If the document type is “Ecoll - Export Collection”
-                // Determine if the task is within the TAT
-                if (isWithinTargetTAT(data.getTat())) {
-                    currentStats.merge("WITHIN_TAT", 1, Integer::sum); // Statistics plus 1 if within TAT
+    // Runs on an ingest worker: fingerprint and match the rows against the tasks known before the read, convert
+    // the new and changed ones and count the new ones. Only reads state that stays fixed during the read
+    private ConvertedBatch convertBatch(List<ExcelModel> rows) {
+        ConvertedBatch batch = new ConvertedBatch(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            ExcelModel data = rows.get(i);
+            long fingerprint = fingerprint(data);
+            String key = taskKey(data.getDocumentSerial(), data.getReferenceNumber(), fingerprint);
+            Integer row = rowsByKey.get(key);
+            boolean known = row != null && row < readStartSize;
+            batch.keys[i] = key;
+            batch.fingerprints[i] = fingerprint;
+            batch.known[i] = known;
+            if (!known && history != null && history.isArchived(key, fingerprint)) {
+                batch.archived[i] = true;
+            } else if (!known || readStartFingerprints[row] != fingerprint) {
+                batch.tasks[i] = toTaskData(data);
+                batch.rejected[i] = checkRow(data, batch.tasks[i]);
+                if (!known && !isBehindWindow(batch.tasks[i])) {
+                    batch.count(batch.tasks[i]);
+                }
+            }
+        }
+        return batch;
+    }
+
+    // Runs on the reading thread, batch after batch in file order: add the counters, then place the rows
+    // the same way ingest does
+    private void mergeBatch(ConvertedBatch batch) {
+        mergeCounters(batch.total, batch.days);
+        for (int i = 0; i < batch.size; i++) {
+            readRows++;
+            if (batch.archived[i]) {
+                archivedSeen.add(batch.keys[i]);
+                continue;
+            }
+            TaskData task = batch.tasks[i];
+            Integer row = rowsByKey.get(batch.keys[i]);
+            if (row == null) {
+                if (isBehindWindow(task)) {
+                    archivedReads.put(batch.keys[i], new PendingRow(null, task, null, batch.fingerprints[i]));
                 } else {
-                    currentStats.merge("OVER_TAT", 1, Integer::sum);
+                    addRow(batch.keys[i], batch.fingerprints[i], task, batch.rejected[i]);
                 }
+                continue;
+            }
+            if (!batch.known[i] && !isBehindWindow(task)) {
+                // A task first seen earlier in this read; the worker counted this occurrence as a new task
+                processTaskStatus(task, -1);
+            }
+            matchRow(row, batch.fingerprints[i],
+                    task == null ? null : new PendingRow(null, task, batch.rejected[i], batch.fingerprints[i]));
+        }
+    }
+
+    // Add counters of new tasks collected off the reading thread to the statistics
+    private void mergeCounters(TaskCounters total, Map<Integer, TaskCounters> days) {
+        currentStats.merge("ONGOING", total.getOngoing(), Integer::sum);
+        currentStats.merge("COMPLETED", total.getCompleted(), Integer::sum);
+        currentStats.merge("WITHIN_TAT", total.getWithinTat(), Integer::sum);
+        currentStats.merge("OVER_TAT", total.getOverTat(), Integer::sum);
+        for (Map.Entry<Integer, TaskCounters> entry : days.entrySet()) {
+            int day = entry.getKey();
+            if (day == currentDay) {
+                currentStats.merge("NEW", entry.getValue().getNewTasks(), Integer::sum);
             }
+            TaskCounters counters = dailyStats.computeIfAbsent(day, d -> new TaskCounters());
+            rememberDayBefore(day, counters);
+            counters.add(entry.getValue());
         }
+    }
 
-        // Processing history statistics (by date)
-        dailyStats.putIfAbsent(date, new HashMap<>()); // If the day's statistics do not exist, create a new HashMap
-        Map<String, Integer> dayStats = dailyStats.get(date); // Get the day's statistics
+    // Match one raw row, from either reader, against the known tasks: new tasks are inserted right away,
+    // changed ones are collected and applied at the end of the read, unchanged ones are not even parsed
+    private void ingest(ExcelModel data) {
+        readRows++;
+        long fingerprint = fingerprint(data);
+        String key = taskKey(data.getDocumentSerial(), data.getReferenceNumber(), fingerprint);
+        Integer row = rowsByKey.get(key);
+
+        if (row == null) {
+            // An unchanged archived task stays in the history as it is
+            if (history != null && history.isArchived(key, fingerprint)) {
+                archivedSeen.add(key);
+                return;
+            }
+            // Convert the read Excel data into a typed TaskData object, parsing every field once
+            TaskData task = toTaskData(data);
+            if (isBehindWindow(task)) {
+                archivedReads.put(key, new PendingRow(null, task, null, fingerprint));
+                return;
+            }
+            insertTask(key, fingerprint, task, checkRow(data, task));
+            return;
+        }
+        matchRow(row, fingerprint, new PendingRow(data, null, null, fingerprint));
+    }
 
+    // A row for an existing task: an unchanged row cancels an earlier pending change, a changed one becomes pending
+    private void matchRow(int row, long fingerprint, PendingRow pending) {
+        if (seenRows != null) {
+            seenRows.set(row);
+        }
+        if (fingerprints[row] == fingerprint) {
+            pendingUpdates.remove(row);
+        } else {
+            pendingUpdates.put(row, pending);
+        }
+    }
 
-        if ("PENDING".equals(status)) {
-            dayStats.merge("ONGOING", 1, Integer::sum);
+    // Match a task that was already parsed, e.g. by a snapshot server, against the known tasks
+    private void ingestTask(TaskData task) {
+        readRows++;
+        long fingerprint = fingerprint(task);
+        String key = taskKey(task.getDocumentSerial(), task.getReferenceNumber(), fingerprint);
+        Integer row = rowsByKey.get(key);
+        if (row == null) {
+            insertTask(key, fingerprint, task, null);
+            return;
         }
-        if ("LODGE".equals(status)) { // 如果任务状态是 "LODGE"（已完成）
-            dayStats.merge("COMPLETED", 1, Integer::sum);
-            if ("Ecoll - Export Collection".equals(documentType)) {
+        if (seenRows != null) {
+            seenRows.set(row);
+        }
+        if (fingerprints[row] != fingerprint) {
+            fingerprints[row] = fingerprint;
+            replaceTask(row, task);
+        }
+    }
 
-                if (isWithinTargetTAT(data.getTat())) {
-                    dayStats.merge("WITHIN_TAT", 1, Integer::sum);
-                } else {
-                    dayStats.merge("OVER_TAT", 1, Integer::sum);
-                }
-            }
+    // Append a task that is not known yet
+    private void insertTask(String key, long fingerprint, TaskData task, RejectedRow rejected) {
+        // Processing task status and updating statistics based on the typed fields
+        processTaskStatus(task, 1);
+        addRow(key, fingerprint, task, rejected);
+    }
+
+    // Append a row for a new task whose statistics are already counted
+    private void addRow(String key, long fingerprint, TaskData task, RejectedRow rejected) {
+        if (history != null && history.contains(key)) {
+            leftHistory.add(key);
+        }
+        quarantine(key, rejected);
+        int row = taskStore.size();
+        rowsByKey.put(key, row);
+        if (row == fingerprints.length) {
+            fingerprints = Arrays.copyOf(fingerprints, row + (row >> 1) + 1);
         }
+        fingerprints[row] = fingerprint;
+        if (seenRows != null) {
+            seenRows.set(row);
+        }
+        taskStore.add(task);
     }
 
-    // Methods for determining whether a task is new or not
-    private boolean isNewTask(ExcelModel data) {
-        return data.getDate() != null &&
-                data.getDate().trim().equalsIgnoreCase(currentDate); // If the date of the task matches the current date, it is considered a new task
+    // Replace the task of a row, e.g. moved from PENDING to LODGE: the old version is taken out of the statistics
+    private void replaceTask(int row, TaskData task) {
+        TaskData previous = taskStore.get(row);
+        if (previous.equals(task)) {
+            return;
+        }
+        processTaskStatus(previous, -1);
+        processTaskStatus(task, 1);
+        taskStore.set(row, task);
+        if (row < readStartSize) {
+            updatedRows.set(row);
+        }
     }
 
-    private void calculatePercentages() {
-        // Calculation of total completed missions (within target TAT + exceeding target TAT)
-        int totalLodged = currentStats.get("WITHIN_TAT") + currentStats.get("OVER_TAT");
+    // Key identifying a task across exports: the DocumentSerial, falling back to the ReferenceNumber.
+    // A serial can cover several references (all rows of data.xlsx share one), so both are combined when present.
+    // Rows with neither are identified by their content
+    static String taskKey(String documentSerial, String referenceNumber, long fingerprint) {
+        if (documentSerial == null) {
+            return referenceNumber == null ? "~" + Long.toHexString(fingerprint) : "#" + referenceNumber;
+        }
+        return referenceNumber == null ? documentSerial : documentSerial + "#" + referenceNumber;
+    }
 
-        if (totalLodged > 0) {
-            // Calculation of percentage of normal tasks
-            int normalPercentage = (currentStats.get("WITHIN_TAT") * 100) / totalLodged;
-            currentStats.put("NORMAL_PERCENTAGE", normalPercentage);
-            currentStats.put("ABNORMAL_PERCENTAGE", 100 - normalPercentage);
+    // 64-bit FNV-1a hash over the raw text of every field, null and empty values hash differently
+    static long fingerprint(ExcelModel data) {
+        long hash = 0xcbf29ce484222325L;
+        hash = hash(hash, data.getDate());
+        hash = hash(hash, data.getDocumentType());
+        hash = hash(hash, data.getApplicationReceivedAt());
+        hash = hash(hash, data.getScannedAt());
+        hash = hash(hash, data.getTotalTimeAtBranch());
+        hash = hash(hash, data.getVerifiedAt());
+        hash = hash(hash, data.getTotalTimeForVerification());
+        hash = hash(hash, data.getLodgementStartedAt());
+        hash = hash(hash, data.getConfirmedAt());
+        hash = hash(hash, data.getTotalTimeForEntry());
+        hash = hash(hash, data.getComplianceVerifiedAt());
+        hash = hash(hash, data.getAuthorizedAt());
+        hash = hash(hash, data.getDocumentSerial());
+        hash = hash(hash, data.getStatus());
+        hash = hash(hash, data.getReferenceNumber());
+        hash = hash(hash, data.getAmount());
+        hash = hash(hash, data.getClientName());
+        hash = hash(hash, data.getTat());
+        hash = hash(hash, data.getHandler());
+        return hash;
+    }
+
+    // Same hash over the typed fields, for tasks that arrive already parsed
+    static long fingerprint(TaskData task) {
+        long hash = 0xcbf29ce484222325L;
+        hash = hash(hash, task.getEpochDay());
+        hash = hash(hash, task.getDocumentType());
+        hash = hash(hash, task.getApplicationReceivedAt());
+        hash = hash(hash, task.getScannedAt());
+        hash = hash(hash, task.getTotalTimeAtBranch());
+        hash = hash(hash, task.getVerifiedAt());
+        hash = hash(hash, task.getTotalTimeForVerification());
+        hash = hash(hash, task.getLodgementStartedAt());
+        hash = hash(hash, task.getConfirmedAt());
+        hash = hash(hash, task.getTotalTimeForEntry());
+        hash = hash(hash, task.getComplianceVerifiedAt());
+        hash = hash(hash, task.getAuthorizedAt());
+        hash = hash(hash, task.getDocumentSerial());
+        hash = hash(hash, task.getStatusText());
+        hash = hash(hash, task.getReferenceNumber());
+        hash = hash(hash, task.getAmount());
+        hash = hash(hash, task.getClientName());
+        hash = hash(hash, task.getTat());
+        hash = hash(hash, task.getHandler());
+        return hash;
+    }
+
+    private static long hash(long hash, long value) {
+        for (int shift = 0; shift < 64; shift += 8) {
+            hash = (hash ^ ((value >>> shift) & 0xFF)) * 0x100000001b3L;
         }
+        return hash;
     }
 
+    private static long hash(long hash, String value) {
+        if (value == null) {
+            return (hash ^ 0xFF) * 0x100000001b3L;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return (hash ^ 0xFE) * 0x100000001b3L;
+    }
 
-    // Methods for checking that a task's TAT meets its objectives
-    private void checkTAT(ExcelModel data) {
-        try {
-            // 1. Checking document type and status
-            // If the status of the task is not “LODGE” or the document type is not “Ecoll - Export Collection”, it is returned directly without processing.
-            if (!"LODGE".equals(data.getStatus().toUpperCase()) ||
-                    !"Ecoll - Export Collection".equals(data.getDocumentType())) {
-                return;
+    // Convert a raw Excel row into a typed task record
+    private static TaskData toTaskData(ExcelModel data) {
+        return new TaskData(
+                data.getDocumentSerial(),
+                data.getReferenceNumber(),
+                data.getAmount(),
+                data.getClientName(),
+                TaskStatus.fromText(data.getStatus()),
+                intern(data.getStatus()),
+                TaskFields.parseDuration(data.getTat()),
+                data.getHandler(),
+                TaskFields.parseDate(data.getDate()),
+                intern(data.getDocumentType()),
+                TaskFields.parseTimestamp(data.getApplicationReceivedAt()),
+                TaskFields.parseTimestamp(data.getScannedAt()),
+                TaskFields.parseDuration(data.getTotalTimeAtBranch()),
+                TaskFields.parseTimestamp(data.getVerifiedAt()),
+                TaskFields.parseDuration(data.getTotalTimeForVerification()),
+                TaskFields.parseTimestamp(data.getLodgementStartedAt()),
+                TaskFields.parseTimestamp(data.getConfirmedAt()),
+                TaskFields.parseDuration(data.getTotalTimeForEntry()),
+                TaskFields.parseTimestamp(data.getComplianceVerifiedAt()),
+                TaskFields.parseTimestamp(data.getAuthorizedAt())
+        );
+    }
+
+    // The fields of a converted row that had a value but could not be parsed, null if there are none
+    private static RejectedRow checkRow(ExcelModel data, TaskData task) {
+        Map<String, String> values = null;
+        for (ParsedField field : PARSED_FIELDS) {
+            if (field.parsed.applyAsLong(task) == field.missing && !TaskFields.isBlank(field.raw.apply(data))) {
+                if (values == null) {
+                    values = new LinkedHashMap<>();
+                }
+                values.put(field.column, field.raw.apply(data));
             }
+        }
+        return values == null ? null : new RejectedRow(data.getDocumentSerial(), data.getReferenceNumber(), values);
+    }
 
-            // 2. Get the TAT time and check if it is empty
-            String tatString = data.getTat();
-            if (tatString == null || tatString.trim().isEmpty()) {
-                return;
+    // The rejected rows by the row of their task, for the task store being published
+    private Map<Integer, RejectedRow> rejectedByRow() {
+        Map<Integer, RejectedRow> byRow = new HashMap<>();
+        for (Map.Entry<String, RejectedRow> entry : rejectedRows.entrySet()) {
+            Integer row = rowsByKey.get(entry.getKey());
+            if (row != null) {
+                byRow.put(row, entry.getValue());
             }
+        }
+        return byRow;
+    }
+
+    // Record the check result of the stored version of a task
+    private void quarantine(String key, RejectedRow rejected) {
+        if (rejected != null) {
+            rejectedRows.put(key, rejected);
+        } else if (!rejectedRows.isEmpty()) {
+            rejectedRows.remove(key);
+        }
+    }
+
+    // Number of tasks whose row had values that could not be parsed
+    public int getRejectedRowCount() {
+        return rejectedRows.size();
+    }
+
+    // Low-cardinality columns share one String instance per distinct value
+    private static String intern(String value) {
+        return value == null ? null : value.intern();
+    }
 
-            // 3. Parsing TAT time string format “HH:mm:ss”
-            String[] parts = tatString.split(":");
-            if (parts.length >= 3) {  // Ensure that the TAT string contains hours, minutes, and seconds
-                int hours = Integer.parseInt(parts[0]); // Hours
-                int minutes = Integer.parseInt(parts[1]); // Minutes
-                int seconds = Integer.parseInt(parts[2]); // Seconds
+    // 处理任务状态的函数
+    // Count a task into the statistics with delta 1, or take it out again with delta -1
+    private void processTaskStatus(TaskData task, int delta) {
+        int day = task.getEpochDay();
+        TaskStatus status = task.getStatus();
+        boolean tatTracked = task.isTatTracked();
+        boolean withinTat = tatTracked && task.isWithinTargetTat();
+
+        // Processing of the day's task statistics
+        if (day == currentDay) {
+
+            currentStats.merge("NEW", delta, Integer::sum); // Count the task as a new mission
+        }
+
+        // Ongoing Tasks statistics
+        if (status == TaskStatus.PENDING) {
+            currentStats.merge("ONGOING", delta, Integer::sum);
+        }
 
-                // 4. Converting TAT to Total Seconds for Comparison
-                int totalSeconds = hours * 3600 + minutes * 60 + seconds; // Calculate total seconds
-                int targetSeconds = 4 * 3600; // Target TAT is 4 hours, i.e., 14,400 seconds.
+        // Completed Tasks 统计（当天）
+        if (status == TaskStatus.LODGE) { // If the task status is “LODGE”
+            currentStats.merge("COMPLETED", delta, Integer::sum); // Count the task as completed
 
-                // 5. Determine if the task meets the goal based on the total TAT seconds
-                if (totalSeconds <= targetSeconds) {
-                    // If TAT is less than or equal to 4 hours, statistically normal (Within Target TAT)
-                    currentStats.merge("NORMAL", 1, Integer::sum);
+            // TAT统计（当天）, only for “Ecoll - Export Collection”
+            if (tatTracked) {
+                // Determine if the task is within the TAT
+                if (withinTat) {
+                    currentStats.merge("WITHIN_TAT", delta, Integer::sum); // Count the task as within TAT
                 } else {
-                    // If TAT is greater than 4 hours, statistic is abnormal (Over Target TAT)
-                    currentStats.merge("ABNORMAL", 1, Integer::sum);
+                    currentStats.merge("OVER_TAT", delta, Integer::sum);
                 }
             }
-        } catch (Exception e) {
+        }
 
-            System.err.println("Error processing TAT for document: " + data.getDocumentSerial());
-            e.printStackTrace();
+        // Processing history statistics (by date), all five metrics are counted in this single pass
+        if (day != TaskFields.NO_DATE) {
+            TaskCounters counters = dailyStats.computeIfAbsent(day, d -> new TaskCounters());
+            rememberDayBefore(day, counters);
+            if (delta > 0) {
+                counters.addTask(status == TaskStatus.PENDING, status == TaskStatus.LODGE, tatTracked, withinTat);
+            } else {
+                counters.removeTask(status == TaskStatus.PENDING, status == TaskStatus.LODGE, tatTracked, withinTat);
+                if (counters.isEmpty()) {
+                    dailyStats.remove(day);
+                }
+            }
+        }
+    }
+
+    // Keep the counters of a day as they were before the read, the first time the read changes them
+    private void rememberDayBefore(int day, TaskCounters counters) {
+        if (daysBefore != null && !daysBefore.containsKey(day)) {
+            TaskCounters before = new TaskCounters();
+            before.add(counters);
+            daysBefore.put(day, before);
         }
     }
 
+    private void calculatePercentages() {
+        // Calculation of total completed missions (within target TAT + exceeding target TAT)
+        int totalLodged = currentStats.get("WITHIN_TAT") + currentStats.get("OVER_TAT");
+
+        if (totalLodged > 0) {
+            // Calculation of percentage of normal tasks
+            int normalPercentage = (currentStats.get("WITHIN_TAT") * 100) / totalLodged;
+            currentStats.put("NORMAL_PERCENTAGE", normalPercentage);
+            currentStats.put("ABNORMAL_PERCENTAGE", 100 - normalPercentage);
+        }
+    }
+
+
 // Getter method, which returns statistics for each type of task
 
 
@@ -410,12 +1445,28 @@ public class ExcelDataReader {
 
 
     public List<TaskData> getTaskList() {
-        return taskList; // 返回任务列表
+        return taskStore.asList(); // 返回任务列表（只读视图）
     }
 
     //  Get statistics for a specified date
     public Map<String, Integer> getDailyStats(String date) {
-        return dailyStats.getOrDefault(date, new HashMap<>()); // Returns the statistics for the specified date, or an empty HashMap if none exists.
+        TaskCounters counters = dailyStats.get(TaskFields.parseDate(date));
+        return counters == null ? new HashMap<>() : counters.toMap(); // Returns the statistics for the specified date, or an empty HashMap if none exists.
+    }
+
+    // Get the counters of a single day from the daily index
+    public TaskCounters getDayCounters(LocalDate day) {
+        TaskCounters counters = dailyStats.get((int) day.toEpochDay());
+        return counters == null ? new TaskCounters() : counters;
+    }
+
+    // Sum the daily counters between two dates (inclusive), proportional to the number of days with data
+    public TaskCounters getRangeCounters(LocalDate startDate, LocalDate endDate) {
+        TaskCounters total = new TaskCounters();
+        for (TaskCounters counters : dailyStats.subMap((int) startDate.toEpochDay(), true, (int) endDate.toEpochDay(), true).values()) {
+            total.add(counters);
+        }
+        return total;
     }
 
     // Get statistics for a given week
@@ -424,239 +1475,130 @@ public class ExcelDataReader {
     }
 
 
-    private boolean isWithinTargetTAT(String tatString) {
-        try {
-
-            if (tatString == null || tatString.trim().isEmpty()) {
-                return false;
-            }
-
-
-            String[] parts = tatString.split(":");
-            if (parts.length >= 3) {
-                int hours = Integer.parseInt(parts[0]);
-                int minutes = Integer.parseInt(parts[1]);
-                int seconds = Integer.parseInt(parts[2]);
-
+    // Get all tasks for the specified date
+    public List<TaskData> getTasksByDate(String date) {
+        int day = TaskFields.parseDate(date);
+        return selectRowsByDay(day, day); // Returns a view of the tasks matching the specified date
+    }
 
-                int totalSeconds = hours * 3600 + minutes * 60 + seconds;
-                return totalSeconds <= 4 * 3600; // 4 小时 = 14400 秒
+    // Get all tasks for a given week, checking each distinct date once instead of every row
+    public List<TaskData> getTasksByWeek(String week) {
+        DateIndex index = getDateIndex(publishedTasks());
+        int[] rows = new int[index.rowCount()];
+        int count = 0;
+        for (int i = 0; i < index.dayCount(); i++) {
+            if (week.equals(getWeekFromDate(index.day(i)))) {
+                count = index.copyRows(i, rows, count);
             }
-        } catch (Exception e) {
+        }
+        return new RowListView(index.getTaskStore(), rows, count);
+    }
 
-            e.printStackTrace();
+    // Rows whose date lies between two epoch days (inclusive), ordered by date: a slice of the date index,
+    // preceded by the archived tasks if the range reaches behind the window
+    private List<TaskData> selectRowsByDay(int startDay, int endDay) {
+        List<TaskData> live = getDateIndex(publishedTasks()).range(startDay, endDay);
+        if (history == null || startDay == TaskFields.NO_DATE || startDay >= windowStart) {
+            return live;
         }
-        return false;
+        List<TaskData> tasks = history.getTasks(startDay, Math.min(endDay, windowStart - 1));
+        tasks.sort(Comparator.comparingInt(TaskData::getEpochDay));
+        tasks.addAll(live);
+        return tasks;
     }
 
-    // Get all tasks for the specified date
-    public List<TaskData> getTasksByDate(String date) {
-        return taskList.stream()
-                .filter(task -> date.equals(task.getDate())) // Filter out tasks matching the specified date
-                .collect(Collectors.toList()); // Returns a list of eligible tasks
+    // Task store of the latest version, shared with its snapshot; later reads do not change it, so the views
+    // returned by the queries stay consistent with the version they were taken from
+    private TaskStore publishedTasks() {
+        return lastDelta != null ? lastDelta.getTaskStore() : taskStore.copy();
     }
 
-    // Get all tasks for a given week
-    public List<TaskData> getTasksByWeek(String week) {
-        return taskList.stream()
-                .filter(task -> week.equals(getWeekFromDate(task.getDate())))
-                .collect(Collectors.toList());
+    private DateIndex getDateIndex(TaskStore tasks) {
+        if (dateIndex == null || dateIndex.getTaskStore() != tasks) {
+            dateIndex = DateIndex.build(tasks);
+        }
+        return dateIndex;
     }
 
 
     // Get the week to which the date belongs
-    private String getWeekFromDate(String dateStr) {
-        try {
-            // Define a date formatter to convert a date string in “d-MMM-yy” format to a LocalDate object.
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("d-MMM-yy");
-            LocalDate date = LocalDate.parse(dateStr, formatter);
-
-            // Get the first day of the month in which the date falls
-            LocalDate firstDayOfMonth = date.withDayOfMonth(1);
+    private String getWeekFromDate(int epochDay) {
+        if (epochDay == TaskFields.NO_DATE) {
+            return "Week 1"; // If the date is missing, the first week is returned by default
+        }
 
-            // Calculate what week of the month the date is (7 days per week, assuming January starts on day 1)
-            int weekNumber = (date.getDayOfMonth() - 1) / 7 + 1;
+        // Calculate what week of the month the date is (7 days per week, assuming January starts on day 1)
+        int weekNumber = (LocalDate.ofEpochDay(epochDay).getDayOfMonth() - 1) / 7 + 1;
 
-            // Returns a string of the form “Week x”, where x is the week of the current date.
-            return "Week " + weekNumber;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return "Week 1"; // If parsing fails, the first week is returned by default
-        }
+        // Returns a string of the form “Week x”, where x is the week of the current date.
+        return "Week " + weekNumber;
     }
 
-    // Get the display label for the week based on the number of weeks, including start and end dates
+    // Get the display label for the week based on the number of weeks, including its first and last working day
     public String getWeekDisplayLabel(int weekNumber) {
-        try {
-            // Get the current date and calculate the first day of the current month
-            LocalDate now = LocalDate.now();
-            LocalDate firstDayOfMonth = now.withDayOfMonth(1);
-
-            // Find the first business day (skip Saturday and Sunday)
-            while (firstDayOfMonth.getDayOfWeek() == DayOfWeek.SATURDAY ||
-                    firstDayOfMonth.getDayOfWeek() == DayOfWeek.SUNDAY) {
-                firstDayOfMonth = firstDayOfMonth.plusDays(1);
-            }
-
-            // Calculate the start date of the week (from the first day, skipping the weekend) and calculate the end date (Friday)
-            LocalDate weekStart = firstDayOfMonth.plusDays((weekNumber - 1) * 7);
-            LocalDate weekEnd = weekStart.plusDays(4);
-
-
-            DateTimeFormatter displayFormatter = DateTimeFormatter.ofPattern("MM.dd");
-
-
-            return String.format("Week %d(%s-%s)",
-                    weekNumber,
-                    weekStart.format(displayFormatter),
-                    weekEnd.format(displayFormatter)
-            );
-        } catch (Exception e) {
-            e.printStackTrace();
-            return "Week " + weekNumber;
-        }
+        LocalDate now = LocalDate.now();
+        List<BusinessCalendar.Week> weeks = calendar.getWeeks(now.getYear(), now.getMonthValue());
+        return weekNumber >= 1 && weekNumber <= weeks.size() ? weeks.get(weekNumber - 1).getLabel() : "Week " + weekNumber;
     }
 
     // Get all weekly labels for the current month
     public List<String> getMonthlyWeekLabels() {
         List<String> weekLabels = new ArrayList<>();
-        try {
-            // Get the current date, determine the first and last day of the current month
-            LocalDate now = LocalDate.now();
-            LocalDate firstDayOfMonth = now.withDayOfMonth(1);
-            LocalDate lastDayOfMonth = now.withDayOfMonth(now.lengthOfMonth());
-
-
-            LocalDate currentDate = firstDayOfMonth;
-            int weekNumber = 1;
-
-
-            while (currentDate.getMonth() == now.getMonth()) {
-
-                if (currentDate.getDayOfWeek() != DayOfWeek.SATURDAY &&
-                        currentDate.getDayOfWeek() != DayOfWeek.SUNDAY) {
-
-
-                    LocalDate weekEnd = currentDate;
-                    while (weekEnd.isBefore(lastDayOfMonth) &&
-                            weekEnd.getDayOfWeek() != DayOfWeek.FRIDAY) {
-                        weekEnd = weekEnd.plusDays(1);
-
-                        if (weekEnd.getDayOfWeek() == DayOfWeek.SATURDAY) {
-                            break;
-                        }
-                    }
-
-
-                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM.dd");
-                    weekLabels.add(String.format("Week %d(%s-%s)",
-                            weekNumber++,
-                            currentDate.format(formatter),
-                            weekEnd.format(formatter)
-                    ));
-
-
-                    currentDate = weekEnd.plusDays(1);
-
-                    while (currentDate.getDayOfWeek() == DayOfWeek.SATURDAY ||
-                            currentDate.getDayOfWeek() == DayOfWeek.SUNDAY) {
-                        currentDate = currentDate.plusDays(1);
-                    }
-                } else {
-                    // 如果当前日期是周末，则跳到下一个工作日
-                    currentDate = currentDate.plusDays(1);
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+        for (BusinessCalendar.Week week : getMonthlyWeekRanges()) {
+            weekLabels.add(week.getLabel());
         }
         return weekLabels;
     }
 
+    // The working weeks of the current month, Monday to Friday without holidays, from the calendar's month table
+    private List<BusinessCalendar.Week> getMonthlyWeekRanges() {
+        LocalDate now = LocalDate.now();
+        return calendar.getWeeks(now.getYear(), now.getMonthValue());
+    }
 
-    public List<TaskData> getTasksByDateRange(LocalDate startDate, LocalDate endDate) {
-
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("d-MMM-yy");
-
-
-        return taskList.stream()
-                .filter(task -> {
-                    try {
-
-                        LocalDate taskDate = LocalDate.parse(task.getDate(), formatter);
 
-                        return !taskDate.isBefore(startDate) && !taskDate.isAfter(endDate);
-                    } catch (Exception e) {
-                        return false;
-                    }
-                })
-                .collect(Collectors.toList());
+    public List<TaskData> getTasksByDateRange(LocalDate startDate, LocalDate endDate) {
+        return selectRowsByDay((int) startDate.toEpochDay(), (int) endDate.toEpochDay());
     }
 
 
     public List<WeekData> getMonthlyWeekData() {
         List<WeekData> weekDataList = new ArrayList<>();
-        try {
-
-            LocalDate now = LocalDate.now();
-
-
-            LocalDate firstDayOfMonth = now.withDayOfMonth(1);
-            LocalDate lastDayOfMonth = now.withDayOfMonth(now.lengthOfMonth());
-
-
-            LocalDate currentDate = firstDayOfMonth;
-            int weekNumber = 1;
-
-
-            while (currentDate.getMonth() == now.getMonth()) {
-
-                if (currentDate.getDayOfWeek() != DayOfWeek.SATURDAY &&
-                        currentDate.getDayOfWeek() != DayOfWeek.SUNDAY) {
-
-
-                    LocalDate weekEnd = currentDate;
-                    while (weekEnd.isBefore(lastDayOfMonth) &&
-                            weekEnd.getDayOfWeek() != DayOfWeek.FRIDAY) {
-                        weekEnd = weekEnd.plusDays(1);
-
-
-                        if (weekEnd.getDayOfWeek() == DayOfWeek.SATURDAY) {
-                            break;
-                        }
-                    }
-
-
-                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM.dd");
-                    String weekLabel = String.format("Week %d(%s-%s)",
-                            weekNumber++,
-                            currentDate.format(formatter),
-                            weekEnd.format(formatter)
-                    );
-
-
-                    List<TaskData> weekTasks = getTasksByDateRange(currentDate, weekEnd);
-
+        for (BusinessCalendar.Week week : getMonthlyWeekRanges()) {
+            weekDataList.add(new WeekData(week.getLabel(), getTasksByDateRange(week.getStart(), week.getEnd())));
+        }
+        return weekDataList;
+    }
 
-                    weekDataList.add(new WeekData(weekLabel, weekTasks));
+    // Weekly counters for the current month, summed from the daily index instead of scanning the task list
+    public List<WeekStats> getMonthlyWeekStats() {
+        List<WeekStats> weekStatsList = new ArrayList<>();
+        for (BusinessCalendar.Week week : getMonthlyWeekRanges()) {
+            weekStatsList.add(new WeekStats(week.getLabel(), week.getStart(), week.getEnd(),
+                    getRangeCounters(week.getStart(), week.getEnd())));
+        }
+        return weekStatsList;
+    }
 
 
-                    currentDate = weekEnd.plusDays(1);
+    public static class WeekStats {
+        private final String weekLabel;
+        private final LocalDate start;
+        private final LocalDate end;
+        private final TaskCounters counters;
 
-                    while (currentDate.getDayOfWeek() == DayOfWeek.SATURDAY ||
-                            currentDate.getDayOfWeek() == DayOfWeek.SUNDAY) {
-                        currentDate = currentDate.plusDays(1);
-                    }
-                } else {
 
-                    currentDate = currentDate.plusDays(1);
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+        public WeekStats(String weekLabel, LocalDate start, LocalDate end, TaskCounters counters) {
+            this.weekLabel = weekLabel;
+            this.start = start;
+            this.end = end;
+            this.counters = counters;
         }
 
-        return weekDataList;
+        public String getWeekLabel() { return weekLabel; }
+        public LocalDate getStart() { return start; }
+        public LocalDate getEnd() { return end; }
+        public TaskCounters getCounters() { return counters; }
     }
 
 
@@ -0,0 +1,150 @@
+package com.utils;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+
+// One bitset of rows per status, document type and handler value of a task store, plus the rows behind the
+// dashboard metrics. A filter is the OR of the chosen values within each facet and the AND across facets,
+// and the metrics of any selection are population counts of its AND with the metric bitsets.
+// The store must not change after the index is built; the reader builds one per published version
+public final class FacetIndex {
+    private final TaskStore store;
+    private final int size;
+    private final DateIndex dates;
+
+    // Rows by value, keys without case
+    private final TreeMap<String, BitSet> byStatus = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final TreeMap<String, BitSet> byDocumentType = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final TreeMap<String, BitSet> byHandler = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    // Rows counted as ongoing and completed, and the completed tasks whose TAT is tracked / within target
+    private final BitSet pending = new BitSet();
+    private final BitSet lodged = new BitSet();
+    private final BitSet tatTracked = new BitSet();
+    private final BitSet withinTat = new BitSet();
+
+    private FacetIndex(TaskStore store, DateIndex dates) {
+        this.store = store;
+        this.size = store.size();
+        this.dates = dates;
+    }
+
+    static FacetIndex build(TaskStore store) {
+        return build(store, DateIndex.build(store));
+    }
+
+    // Index a store whose date index is already built
+    static FacetIndex build(TaskStore store, DateIndex dates) {
+        FacetIndex index = new FacetIndex(store, dates);
+        for (int row = 0; row < index.size; row++) {
+            ExcelDataReader.TaskData task = store.get(row);
+            mark(index.byStatus, task.getStatusText(), row);
+            mark(index.byDocumentType, task.getDocumentType(), row);
+            mark(index.byHandler, task.getHandler(), row);
+
+            TaskStatus status = task.getStatus();
+            if (status == TaskStatus.PENDING) {
+                index.pending.set(row);
+            } else if (status == TaskStatus.LODGE) {
+                index.lodged.set(row);
+                if (task.isTatTracked()) {
+                    index.tatTracked.set(row);
+                    if (task.isWithinTargetTat()) {
+                        index.withinTat.set(row);
+                    }
+                }
+            }
+        }
+        return index;
+    }
+
+    private static void mark(Map<String, BitSet> facet, String value, int row) {
+        if (!TaskFields.isBlank(value)) {
+            facet.computeIfAbsent(value.trim(), v -> new BitSet()).set(row);
+        }
+    }
+
+    TaskStore getTaskStore() {
+        return store;
+    }
+
+    // Values present in each facet, sorted without case
+    public NavigableSet<String> getStatuses() { return byStatus.navigableKeySet(); }
+    public NavigableSet<String> getDocumentTypes() { return byDocumentType.navigableKeySet(); }
+    public NavigableSet<String> getHandlers() { return byHandler.navigableKeySet(); }
+
+    // Rows matching a filter
+    public BitSet select(TaskFilter filter) {
+        BitSet rows = new BitSet(size);
+        if (filter.hasDateWindow()) {
+            dates.markRange(filter.getStartDay() == TaskFields.NO_DATE ? Integer.MIN_VALUE + 1 : filter.getStartDay(),
+                    filter.getEndDay() == TaskFields.NO_DATE ? Integer.MAX_VALUE : filter.getEndDay(), rows);
+        } else {
+            rows.set(0, size);
+        }
+        restrict(rows, byStatus, filter.getStatuses());
+        restrict(rows, byDocumentType, filter.getDocumentTypes());
+        restrict(rows, byHandler, filter.getHandlers());
+        return rows;
+    }
+
+    // AND the rows with the OR of the chosen values' rows; no chosen value keeps every row
+    private static void restrict(BitSet rows, Map<String, BitSet> facet, Set<String> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        BitSet any = new BitSet();
+        for (String value : values) {
+            BitSet valueRows = facet.get(value);
+            if (valueRows != null) {
+                any.or(valueRows);
+            }
+        }
+        rows.and(any);
+    }
+
+    // Metrics of the selected rows
+    public TaskCounters count(BitSet rows) {
+        int tracked = andCount(rows, tatTracked);
+        int within = andCount(rows, withinTat);
+        return new TaskCounters(rows.cardinality(), andCount(rows, pending), andCount(rows, lodged), within, tracked - within);
+    }
+
+    // Metrics of the selected rows dated between two days (inclusive)
+    public TaskCounters count(BitSet rows, LocalDate startDate, LocalDate endDate) {
+        BitSet window = new BitSet(size);
+        dates.markRange((int) startDate.toEpochDay(), (int) endDate.toEpochDay(), window);
+        window.and(rows);
+        return count(window);
+    }
+
+    // Metrics of the selected rows as the reader's statistics count them: new tasks of the given day,
+    // the others over all rows
+    public TaskCounters countStatistics(BitSet rows, LocalDate today) {
+        TaskCounters all = count(rows);
+        return new TaskCounters(count(rows, today, today).getNewTasks(), all.getOngoing(), all.getCompleted(),
+                all.getWithinTat(), all.getOverTat());
+    }
+
+    // The same with the daily counters of archived tasks added; they are dated before today, so none is new
+    public TaskCounters countStatistics(BitSet rows, LocalDate today, Map<Integer, TaskCounters> archived) {
+        TaskCounters selected = countStatistics(rows, today);
+        TaskCounters old = new TaskCounters();
+        for (TaskCounters day : archived.values()) {
+            old.add(day);
+        }
+        return new TaskCounters(selected.getNewTasks(), selected.getOngoing() + old.getOngoing(),
+                selected.getCompleted() + old.getCompleted(), selected.getWithinTat() + old.getWithinTat(),
+                selected.getOverTat() + old.getOverTat());
+    }
+
+    private static int andCount(BitSet rows, BitSet metric) {
+        BitSet both = (BitSet) rows.clone();
+        both.and(metric);
+        return both.cardinality();
+    }
+}
@@ -0,0 +1,107 @@
+package com.utils;
+
+import java.util.Arrays;
+
+// Durations of the most recent runs of one refresh step, kept in a ring buffer so min, max and
+// percentiles describe the recent behaviour rather than the whole uptime
+public class LatencyHistory {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final long[] samples;
+    private int next;
+    private int size;
+
+    // Runs recorded since the start or the last reset, including the ones that dropped out of the buffer
+    private long count;
+
+    public LatencyHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LatencyHistory(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+        count++;
+    }
+
+    public synchronized void reset() {
+        next = 0;
+        size = 0;
+        count = 0;
+    }
+
+    // Statistics of the samples in the buffer, in milliseconds
+    public Summary summarize() {
+        long[] sorted;
+        long total;
+        synchronized (this) {
+            sorted = Arrays.copyOf(samples, size);
+            total = count;
+        }
+        Arrays.sort(sorted);
+        if (sorted.length == 0) {
+            return new Summary(total, 0, 0, 0, 0, 0, 0, 0);
+        }
+        long sum = 0;
+        for (long sample : sorted) {
+            sum += sample;
+        }
+        return new Summary(total, sorted.length, millis(sorted[0]), millis(sorted[sorted.length - 1]),
+                millis(sum / sorted.length), millis(percentile(sorted, 50)), millis(percentile(sorted, 95)),
+                millis(percentile(sorted, 99)));
+    }
+
+    // Nearest-rank percentile of sorted samples
+    private static long percentile(long[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    // Read-only statistics, exposed as composite data by the MXBean
+    public static class Summary {
+        private final long count;
+        private final int samples;
+        private final double minMillis;
+        private final double maxMillis;
+        private final double meanMillis;
+        private final double p50Millis;
+        private final double p95Millis;
+        private final double p99Millis;
+
+        public Summary(long count, int samples, double minMillis, double maxMillis, double meanMillis,
+                       double p50Millis, double p95Millis, double p99Millis) {
+            this.count = count;
+            this.samples = samples;
+            this.minMillis = minMillis;
+            this.maxMillis = maxMillis;
+            this.meanMillis = meanMillis;
+            this.p50Millis = p50Millis;
+            this.p95Millis = p95Millis;
+            this.p99Millis = p99Millis;
+        }
+
+        public long getCount() { return count; }
+        public int getSamples() { return samples; }
+        public double getMinMillis() { return minMillis; }
+        public double getMaxMillis() { return maxMillis; }
+        public double getMeanMillis() { return meanMillis; }
+        public double getP50Millis() { return p50Millis; }
+        public double getP95Millis() { return p95Millis; }
+        public double getP99Millis() { return p99Millis; }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d min=%.1f p50=%.1f p95=%.1f p99=%.1f max=%.1f ms",
+                    count, minMillis, p50Millis, p95Millis, p99Millis, maxMillis);
+        }
+    }
+}
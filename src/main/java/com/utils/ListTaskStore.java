@@ -0,0 +1,159 @@
+package com.utils;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Row-wise store: one TaskData object per row, as the dashboard has always kept them. Rows are kept in chunks
+// that a copy shares with this store until either of them writes to the chunk, so publishing a version costs
+// one reference per chunk and a later change copies only the chunk it touches
+public class ListTaskStore implements TaskStore {
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private Chunk[] chunks;
+
+    // Chunks that a copy may be reading, copied before they are written to
+    private boolean[] shared;
+
+    private int size;
+
+    public ListTaskStore() {
+        clear();
+    }
+
+    @Override
+    public void add(ExcelDataReader.TaskData task) {
+        int index = size >> CHUNK_SHIFT;
+        if (index == chunks.length) {
+            chunks = Arrays.copyOf(chunks, index * 2);
+            shared = Arrays.copyOf(shared, index * 2);
+        }
+        if (chunks[index] == null) {
+            chunks[index] = new Chunk();
+        }
+        write(size++, task);
+    }
+
+    @Override
+    public void set(int row, ExcelDataReader.TaskData task) {
+        checkRow(row);
+        write(row, task);
+    }
+
+    private void write(int row, ExcelDataReader.TaskData task) {
+        int index = row >> CHUNK_SHIFT;
+        if (shared[index]) {
+            chunks[index] = chunks[index].copy();
+            shared[index] = false;
+        }
+        chunks[index].tasks[row & CHUNK_MASK] = task;
+        chunks[index].styles[row & CHUNK_MASK] = RowStyle.of(task);
+    }
+
+    @Override
+    public ExcelDataReader.TaskData get(int row) {
+        checkRow(row);
+        return chunks[row >> CHUNK_SHIFT].tasks[row & CHUNK_MASK];
+    }
+
+    @Override
+    public int getEpochDay(int row) {
+        return get(row).getEpochDay();
+    }
+
+    @Override
+    public byte getRowStyle(int row) {
+        checkRow(row);
+        return chunks[row >> CHUNK_SHIFT].styles[row & CHUNK_MASK];
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        chunks = new Chunk[4];
+        shared = new boolean[4];
+        size = 0;
+    }
+
+    @Override
+    public TaskStore copy() {
+        int chunkCount = (size + CHUNK_MASK) >> CHUNK_SHIFT;
+        Arrays.fill(shared, 0, chunkCount, true);
+        ListTaskStore copy = new ListTaskStore();
+        copy.chunks = Arrays.copyOf(chunks, chunks.length);
+        copy.shared = shared.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    @Override
+    public List<ExcelDataReader.TaskData> asList() {
+        return new RowListView(this);
+    }
+
+    @Override
+    public long estimateMemoryBytes() {
+        // TaskData: 5 int, 7 long and 8 reference fields
+        long recordBytes = MemoryEstimates.align(MemoryEstimates.OBJECT_HEADER + 5 * 4 + 7 * 8 + 8 * MemoryEstimates.REFERENCE);
+        long chunkBytes = MemoryEstimates.arrayBytes(CHUNK_SIZE, MemoryEstimates.REFERENCE) + MemoryEstimates.arrayBytes(CHUNK_SIZE, 1);
+        long bytes = ((size + CHUNK_MASK) >> CHUNK_SHIFT) * chunkBytes + size * recordBytes;
+
+        // Shared (interned) strings are counted once
+        Map<String, Boolean> seen = new IdentityHashMap<>();
+        for (int row = 0; row < size; row++) {
+            ExcelDataReader.TaskData task = get(row);
+            bytes += stringBytesOnce(task.getDocumentSerial(), seen);
+            bytes += stringBytesOnce(task.getReferenceNumber(), seen);
+            bytes += stringBytesOnce(task.getAmount(), seen);
+            bytes += stringBytesOnce(task.getClientName(), seen);
+            bytes += stringBytesOnce(task.getHandler(), seen);
+            bytes += stringBytesOnce(task.getDocumentType(), seen);
+            bytes += stringBytesOnce(task.getStatusText(), seen);
+        }
+        return bytes;
+    }
+
+    private static long stringBytesOnce(String value, Map<String, Boolean> seen) {
+        if (value == null || seen.put(value, Boolean.TRUE) != null) {
+            return 0;
+        }
+        return MemoryEstimates.stringBytes(value);
+    }
+
+    @Override
+    public String getName() {
+        return "list";
+    }
+
+    // Tasks of CHUNK_SIZE consecutive rows and their RowStyle
+    private static class Chunk {
+        private final ExcelDataReader.TaskData[] tasks;
+        private final byte[] styles;
+
+        Chunk() {
+            this(new ExcelDataReader.TaskData[CHUNK_SIZE], new byte[CHUNK_SIZE]);
+        }
+
+        private Chunk(ExcelDataReader.TaskData[] tasks, byte[] styles) {
+            this.tasks = tasks;
+            this.styles = styles;
+        }
+
+        Chunk copy() {
+            return new Chunk(tasks.clone(), styles.clone());
+        }
+    }
+}
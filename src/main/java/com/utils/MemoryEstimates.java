@@ -0,0 +1,33 @@
+package com.utils;
+
+// Rough heap sizes for a 64-bit JVM with compressed references and compact strings
+final class MemoryEstimates {
+    static final int OBJECT_HEADER = 12;
+    static final int ARRAY_HEADER = 16;
+    static final int REFERENCE = 4;
+
+    private MemoryEstimates() {
+    }
+
+    // Objects are aligned to 8 bytes
+    static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    // A String object plus its Latin-1 or UTF-16 byte array
+    static long stringBytes(String value) {
+        if (value == null) {
+            return 0;
+        }
+        boolean latin1 = true;
+        for (int i = 0; i < value.length() && latin1; i++) {
+            latin1 = value.charAt(i) < 256;
+        }
+        long chars = latin1 ? value.length() : value.length() * 2L;
+        return align(OBJECT_HEADER + 4 + 4 + 1 + REFERENCE) + align(ARRAY_HEADER + chars);
+    }
+
+    static long arrayBytes(int length, int elementSize) {
+        return align(ARRAY_HEADER + (long) length * elementSize);
+    }
+}
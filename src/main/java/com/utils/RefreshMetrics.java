@@ -0,0 +1,237 @@
+package com.utils;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Timings and counters of the refresh cycle, exported over JMX (jconsole, VisualVM) and optionally logged
+// once per refresh with -Ddashboard.metrics.log=true
+public class RefreshMetrics implements RefreshMetricsMXBean {
+    private static final boolean LOG = Boolean.getBoolean("dashboard.metrics.log");
+
+    // Upper bounds of the EDT queue latency histogram in milliseconds, the last bucket takes everything above
+    private static final long[] EDT_BUCKET_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    private final LatencyHistory parseTime = new LatencyHistory();
+    private final LatencyHistory aggregationTime = new LatencyHistory();
+    private final LatencyHistory datasetBuildTime = new LatencyHistory();
+    private final LatencyHistory edtUpdateTime = new LatencyHistory();
+    private final LatencyHistory edtQueueLatency = new LatencyHistory();
+
+    private final AtomicLongArray edtHistogram = new AtomicLongArray(EDT_BUCKET_MILLIS.length + 1);
+    private final AtomicLong edtStallCount = new AtomicLong();
+
+    private final AtomicLong refreshCount = new AtomicLong();
+    private final AtomicLong skippedRefreshCount = new AtomicLong();
+    private final AtomicLong coalescedRefreshCount = new AtomicLong();
+    private final AtomicLong replacedViewCount = new AtomicLong();
+    private final AtomicLong totalRowsIngested = new AtomicLong();
+
+    // Values of the latest refresh, -1 for steps it did not run
+    private volatile long dataVersion;
+    private volatile boolean lastChanged;
+    private volatile long lastRowsIngested;
+    private volatile long lastParseNanos = -1;
+    private volatile long lastAggregationNanos = -1;
+    private volatile long lastDatasetNanos = -1;
+    private volatile long lastEdtNanos = -1;
+
+    // Latest published task store, an independent copy that can be measured from any thread
+    private volatile TaskStore tasks;
+
+    // Estimate of the store above, redone only when the version changes; guarded by this
+    private long estimatedVersion = -1;
+    private long estimatedBytes;
+
+    private ObjectName objectName;
+
+    // Register with the platform MBean server under the file name of the workbook
+    public void register(String workbookPath) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("com.dashboard:type=RefreshMetrics,name="
+                    + ObjectName.quote(new File(workbookPath).getName()));
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+                objectName = name;
+            }
+        } catch (JMException e) {
+            System.err.println("Refresh metrics are not available over JMX: " + e.getMessage());
+        }
+    }
+
+    public void unregister() {
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                e.printStackTrace();
+            }
+            objectName = null;
+        }
+    }
+
+    // Called by ExcelDataReader at the end of every read
+    void recordRead(long parseNanos, long aggregationNanos, int rows, boolean changed, long version, TaskStore tasks) {
+        parseTime.record(parseNanos);
+        aggregationTime.record(aggregationNanos);
+        refreshCount.incrementAndGet();
+        if (!changed) {
+            skippedRefreshCount.incrementAndGet();
+        }
+        totalRowsIngested.addAndGet(rows);
+        lastRowsIngested = rows;
+        lastParseNanos = parseNanos;
+        lastAggregationNanos = aggregationNanos;
+        lastDatasetNanos = -1;
+        lastEdtNanos = -1;
+        lastChanged = changed;
+        dataVersion = version;
+        if (tasks != null) {
+            this.tasks = tasks;
+        }
+    }
+
+    public void recordDatasetBuild(long nanos) {
+        datasetBuildTime.record(nanos);
+        lastDatasetNanos = nanos;
+    }
+
+    public void recordEdtUpdate(long nanos) {
+        edtUpdateTime.record(nanos);
+        lastEdtNanos = nanos;
+    }
+
+    public void recordEdtQueueLatency(long nanos) {
+        edtQueueLatency.record(nanos);
+        int bucket = 0;
+        while (bucket < EDT_BUCKET_MILLIS.length && nanos > EDT_BUCKET_MILLIS[bucket] * 1_000_000) {
+            bucket++;
+        }
+        edtHistogram.incrementAndGet(bucket);
+    }
+
+    public void recordEdtStall() {
+        edtStallCount.incrementAndGet();
+    }
+
+    public void recordCoalescedRefresh() {
+        coalescedRefreshCount.incrementAndGet();
+    }
+
+    public void recordReplacedView() {
+        replacedViewCount.incrementAndGet();
+    }
+
+    // Print the latest refresh as one line if logging is enabled
+    public void logLastRefresh() {
+        if (LOG) {
+            System.out.println(String.format("Refresh v%d %s: parse %s (%d rows), aggregation %s, datasets %s, EDT %s, store %,d rows",
+                    dataVersion, lastChanged ? "changed" : "unchanged", format(lastParseNanos), lastRowsIngested,
+                    format(lastAggregationNanos), format(lastDatasetNanos), format(lastEdtNanos), getTaskCount()));
+        }
+    }
+
+    private static String format(long nanos) {
+        return nanos < 0 ? "-" : String.format("%.1f ms", nanos / 1_000_000.0);
+    }
+
+    @Override
+    public long getRefreshCount() { return refreshCount.get(); }
+
+    @Override
+    public long getSkippedRefreshCount() { return skippedRefreshCount.get(); }
+
+    @Override
+    public long getCoalescedRefreshCount() { return coalescedRefreshCount.get(); }
+
+    @Override
+    public long getReplacedViewCount() { return replacedViewCount.get(); }
+
+    @Override
+    public long getDataVersion() { return dataVersion; }
+
+    @Override
+    public long getLastRowsIngested() { return lastRowsIngested; }
+
+    @Override
+    public long getTotalRowsIngested() { return totalRowsIngested.get(); }
+
+    @Override
+    public int getTaskCount() {
+        TaskStore current = tasks;
+        return current == null ? 0 : current.size();
+    }
+
+    @Override
+    public synchronized long getTaskStoreBytes() {
+        TaskStore current = tasks;
+        if (current == null) {
+            return 0;
+        }
+        if (estimatedVersion != dataVersion) {
+            estimatedBytes = current.estimateMemoryBytes();
+            estimatedVersion = dataVersion;
+        }
+        return estimatedBytes;
+    }
+
+    @Override
+    public LatencyHistory.Summary getParseTime() { return parseTime.summarize(); }
+
+    @Override
+    public LatencyHistory.Summary getAggregationTime() { return aggregationTime.summarize(); }
+
+    @Override
+    public LatencyHistory.Summary getDatasetBuildTime() { return datasetBuildTime.summarize(); }
+
+    @Override
+    public LatencyHistory.Summary getEdtUpdateTime() { return edtUpdateTime.summarize(); }
+
+    @Override
+    public LatencyHistory.Summary getEdtQueueLatency() { return edtQueueLatency.summarize(); }
+
+    @Override
+    public long[] getEdtQueueLatencyHistogram() {
+        long[] counts = new long[edtHistogram.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = edtHistogram.get(i);
+        }
+        return counts;
+    }
+
+    @Override
+    public String[] getEdtQueueLatencyBuckets() {
+        String[] labels = new String[EDT_BUCKET_MILLIS.length + 1];
+        for (int i = 0; i < EDT_BUCKET_MILLIS.length; i++) {
+            labels[i] = "<=" + EDT_BUCKET_MILLIS[i] + "ms";
+        }
+        labels[EDT_BUCKET_MILLIS.length] = ">" + EDT_BUCKET_MILLIS[EDT_BUCKET_MILLIS.length - 1] + "ms";
+        return labels;
+    }
+
+    @Override
+    public long getEdtStallCount() { return edtStallCount.get(); }
+
+    @Override
+    public void reset() {
+        parseTime.reset();
+        aggregationTime.reset();
+        datasetBuildTime.reset();
+        edtUpdateTime.reset();
+        edtQueueLatency.reset();
+        for (int i = 0; i < edtHistogram.length(); i++) {
+            edtHistogram.set(i, 0);
+        }
+        edtStallCount.set(0);
+        refreshCount.set(0);
+        skippedRefreshCount.set(0);
+        coalescedRefreshCount.set(0);
+        replacedViewCount.set(0);
+        totalRowsIngested.set(0);
+    }
+}
@@ -0,0 +1,36 @@
+package com.utils;
+
+// Management interface of RefreshMetrics, registered as "com.dashboard:type=RefreshMetrics,name=<workbook>"
+public interface RefreshMetricsMXBean {
+    // Refreshes that read the workbook, and the ones among them that found nothing to change
+    long getRefreshCount();
+    long getSkippedRefreshCount();
+
+    // Refresh requests merged into one that was already queued, and views replaced before the EDT applied them
+    long getCoalescedRefreshCount();
+    long getReplacedViewCount();
+
+    long getDataVersion();
+    long getLastRowsIngested();
+    long getTotalRowsIngested();
+    int getTaskCount();
+
+    // Approximate heap used by the task store, estimated when read
+    long getTaskStoreBytes();
+
+    // Reading and converting rows, updating statistics and publishing the version, building the chart
+    // datasets, and applying a view on the Event Dispatch Thread
+    LatencyHistory.Summary getParseTime();
+    LatencyHistory.Summary getAggregationTime();
+    LatencyHistory.Summary getDatasetBuildTime();
+    LatencyHistory.Summary getEdtUpdateTime();
+
+    // Time watchdog probes waited in the Event Dispatch Thread queue: recent percentiles, and a histogram since the
+    // start with one count per bucket of getEdtQueueLatencyBuckets(); stalls are waits past the watchdog threshold
+    LatencyHistory.Summary getEdtQueueLatency();
+    long[] getEdtQueueLatencyHistogram();
+    String[] getEdtQueueLatencyBuckets();
+    long getEdtStallCount();
+
+    void reset();
+}
@@ -0,0 +1,40 @@
+package com.utils;
+
+import java.util.Collections;
+import java.util.Map;
+
+// A row with a value that could not be parsed. The task is kept with the field missing, as it always was,
+// and listed in the quarantine view so the export can be fixed
+public class RejectedRow {
+    private final String documentSerial;
+    private final String referenceNumber;
+
+    // Column header of the first unparseable field and its raw text
+    private final String column;
+    private final String value;
+
+    // Number of unparseable fields in the row
+    private final int fieldCount;
+
+    // Raw text of every unparseable field by column header, in column order
+    private final Map<String, String> values;
+
+    public RejectedRow(String documentSerial, String referenceNumber, Map<String, String> values) {
+        Map.Entry<String, String> first = values.entrySet().iterator().next();
+        this.documentSerial = documentSerial;
+        this.referenceNumber = referenceNumber;
+        this.column = first.getKey();
+        this.value = first.getValue();
+        this.fieldCount = values.size();
+        this.values = Collections.unmodifiableMap(values);
+    }
+
+    public String getDocumentSerial() { return documentSerial; }
+    public String getReferenceNumber() { return referenceNumber; }
+    public String getColumn() { return column; }
+    public String getValue() { return value; }
+    public int getFieldCount() { return fieldCount; }
+
+    // Raw text of a column that could not be parsed, null if the column was parsed
+    public String getValue(String column) { return values.get(column); }
+}
@@ -0,0 +1,43 @@
+package com.utils;
+
+import java.util.AbstractList;
+
+// Read-only list over selected rows of a store, tasks are fetched from the store on access
+public class RowListView extends AbstractList<ExcelDataReader.TaskData> {
+    private final TaskStore store;
+
+    // Row numbers in the store, null means all rows in order; the view covers rows[offset] .. rows[offset + size - 1]
+    private final int[] rows;
+    private final int offset;
+    private final int size;
+
+    public RowListView(TaskStore store, int[] rows, int size) {
+        this(store, rows, 0, size);
+    }
+
+    // View over a slice of a shared row array
+    public RowListView(TaskStore store, int[] rows, int offset, int size) {
+        this.store = store;
+        this.rows = rows;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    // View over every row of the store
+    public RowListView(TaskStore store) {
+        this(store, null, store.size());
+    }
+
+    @Override
+    public ExcelDataReader.TaskData get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return store.get(rows == null ? index : rows[offset + index]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,16 @@
+package com.utils;
+
+// Display style of a task row, worked out once when the row is ingested so the table renderer only looks it up
+public final class RowStyle {
+    public static final byte PLAIN = 0;
+
+    // Lodged "Ecoll - Export Collection" task over the target TAT
+    public static final byte OVER_TAT = 1;
+
+    private RowStyle() {
+    }
+
+    static byte of(ExcelDataReader.TaskData task) {
+        return task.isTatTracked() && !task.isWithinTargetTat() ? OVER_TAT : PLAIN;
+    }
+}
@@ -0,0 +1,242 @@
+package com.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+// Binary copy of the parsed tasks and aggregates, stored next to the workbook as "<workbook>.snapshot".
+// It is loaded through a memory-mapped channel at startup so the dashboard can render without parsing,
+// and records the size, modification time and checksum of the workbook it was built from.
+final class SnapshotCache {
+    private static final int MAGIC = 0x44534843;  // "DSHC"
+
+    // Incremented whenever the layout below or the meaning of a stored field changes
+    private static final int FORMAT_VERSION = 3;
+
+    private static final int NO_STRING = -1;
+
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    // Workbook the data was read from
+    long workbookSize;
+    long workbookModified;
+    long workbookChecksum;
+
+    // Incremental ingestion state of the reader: fingerprint of every row and the delimited read position
+    long[] fingerprints;
+    boolean delimited;
+    String delimitedHeader;
+    long delimitedOffset;
+
+    // Whole-data counters without "NEW", which depends on the current day and is taken from the daily counters
+    int ongoing;
+    int completed;
+    int withinTat;
+    int overTat;
+
+    NavigableMap<Integer, TaskCounters> dailyStats = new TreeMap<>();
+
+    static File cacheFileFor(String workbookPath) {
+        return new File(workbookPath + ".snapshot");
+    }
+
+    // CRC32 of the whole workbook, read through a memory mapping
+    static long checksum(File workbook) throws IOException {
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(workbook.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += Integer.MAX_VALUE) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(Integer.MAX_VALUE, size - position)));
+            }
+        }
+        return crc.getValue();
+    }
+
+    // Write the cache with the tasks of the store; a temporary file is renamed into place so a reader
+    // never sees a half-written cache
+    void write(File file, TaskStore tasks) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(workbookSize);
+            out.writeLong(workbookModified);
+            out.writeLong(workbookChecksum);
+            out.writeBoolean(delimited);
+            out.writeLong(delimitedOffset);
+
+            out.writeInt(ongoing);
+            out.writeInt(completed);
+            out.writeInt(withinTat);
+            out.writeInt(overTat);
+            out.writeInt(dailyStats.size());
+            for (Map.Entry<Integer, TaskCounters> entry : dailyStats.entrySet()) {
+                TaskCounters counters = entry.getValue();
+                out.writeInt(entry.getKey());
+                out.writeInt(counters.getNewTasks());
+                out.writeInt(counters.getOngoing());
+                out.writeInt(counters.getCompleted());
+                out.writeInt(counters.getWithinTat());
+                out.writeInt(counters.getOverTat());
+            }
+
+            // Strings are written once to a table and rows refer to them by index
+            Map<String, Integer> codes = new HashMap<>();
+            List<String> strings = new ArrayList<>();
+            int[] rowCodes = new int[tasks.size() * 7];
+            int header = code(delimitedHeader, codes, strings);
+            for (int row = 0; row < tasks.size(); row++) {
+                ExcelDataReader.TaskData task = tasks.get(row);
+                int base = row * 7;
+                rowCodes[base] = code(task.getDocumentSerial(), codes, strings);
+                rowCodes[base + 1] = code(task.getReferenceNumber(), codes, strings);
+                rowCodes[base + 2] = code(task.getAmount(), codes, strings);
+                rowCodes[base + 3] = code(task.getClientName(), codes, strings);
+                rowCodes[base + 4] = code(task.getStatusText(), codes, strings);
+                rowCodes[base + 5] = code(task.getHandler(), codes, strings);
+                rowCodes[base + 6] = code(task.getDocumentType(), codes, strings);
+            }
+            out.writeInt(strings.size());
+            for (String value : strings) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.writeInt(header);
+
+            out.writeInt(tasks.size());
+            for (int row = 0; row < tasks.size(); row++) {
+                ExcelDataReader.TaskData task = tasks.get(row);
+                for (int i = row * 7; i < row * 7 + 7; i++) {
+                    out.writeInt(rowCodes[i]);
+                }
+                out.writeLong(fingerprints[row]);
+                out.writeByte(task.getStatus().ordinal());
+                out.writeInt(task.getEpochDay());
+                out.writeInt(task.getTat());
+                out.writeInt(task.getTotalTimeAtBranch());
+                out.writeInt(task.getTotalTimeForVerification());
+                out.writeInt(task.getTotalTimeForEntry());
+                out.writeLong(task.getApplicationReceivedAt());
+                out.writeLong(task.getScannedAt());
+                out.writeLong(task.getVerifiedAt());
+                out.writeLong(task.getLodgementStartedAt());
+                out.writeLong(task.getConfirmedAt());
+                out.writeLong(task.getComplianceVerifiedAt());
+                out.writeLong(task.getAuthorizedAt());
+            }
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static int code(String value, Map<String, Integer> codes, List<String> strings) {
+        if (value == null) {
+            return NO_STRING;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = strings.size();
+            codes.put(value, code);
+            strings.add(value);
+        }
+        return code;
+    }
+
+    // Read a cache file, adding its tasks to the store; returns null if the file is missing,
+    // was written by another format version or is damaged, the store is left empty in that case.
+    // Without a store only the header and the counters are read
+    static SnapshotCache read(File file, TaskStore tasks) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.remaining() < 8 || in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION) {
+                return null;
+            }
+            SnapshotCache cache = new SnapshotCache();
+            cache.workbookSize = in.getLong();
+            cache.workbookModified = in.getLong();
+            cache.workbookChecksum = in.getLong();
+            cache.delimited = in.get() != 0;
+            cache.delimitedOffset = in.getLong();
+
+            cache.ongoing = in.getInt();
+            cache.completed = in.getInt();
+            cache.withinTat = in.getInt();
+            cache.overTat = in.getInt();
+            int days = in.getInt();
+            for (int i = 0; i < days; i++) {
+                int day = in.getInt();
+                cache.dailyStats.put(day, new TaskCounters(in.getInt(), in.getInt(), in.getInt(), in.getInt(), in.getInt()));
+            }
+            if (tasks == null) {
+                return cache;
+            }
+
+            String[] strings = new String[in.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[in.getInt()];
+                in.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            cache.delimitedHeader = string(strings, in.getInt());
+
+            int rows = in.getInt();
+            cache.fingerprints = new long[rows];
+            for (int row = 0; row < rows; row++) {
+                String documentSerial = string(strings, in.getInt());
+                String referenceNumber = string(strings, in.getInt());
+                String amount = string(strings, in.getInt());
+                String clientName = string(strings, in.getInt());
+                String statusText = string(strings, in.getInt());
+                String handler = string(strings, in.getInt());
+                String documentType = string(strings, in.getInt());
+                cache.fingerprints[row] = in.getLong();
+                TaskStatus status = STATUSES[in.get()];
+                int epochDay = in.getInt();
+                int tat = in.getInt();
+                int totalTimeAtBranch = in.getInt();
+                int totalTimeForVerification = in.getInt();
+                int totalTimeForEntry = in.getInt();
+                // Arguments are evaluated left to right, so the timestamps are read in the order they were written
+                tasks.add(new ExcelDataReader.TaskData(documentSerial, referenceNumber, amount, clientName,
+                        status, statusText, tat, handler, epochDay, documentType,
+                        in.getLong(), in.getLong(), totalTimeAtBranch, in.getLong(), totalTimeForVerification,
+                        in.getLong(), in.getLong(), totalTimeForEntry, in.getLong(), in.getLong()));
+            }
+            return cache;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring unreadable snapshot cache " + file + ": " + e);
+            if (tasks != null) {
+                tasks.clear();
+            }
+            return null;
+        }
+    }
+
+    private static String string(String[] strings, int code) {
+        return code == NO_STRING ? null : strings[code];
+    }
+}
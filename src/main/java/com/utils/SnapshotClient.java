@@ -0,0 +1,186 @@
+package com.utils;
+
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+// Client of SnapshotServer: keeps a local ExcelDataReader in step with the server instead of reading the workbook,
+// so the queries and chart datasets of the dashboard work unchanged
+public class SnapshotClient implements Closeable {
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final int READ_TIMEOUT_MILLIS = 60_000;
+    private static final int LONG_POLL_SECONDS = 30;  // How long the server holds a /version request
+    private static final int RETRY_MILLIS = 5000;  // Pause after a failed long-poll, doubled while it keeps failing
+    private static final int MAX_RETRY_MILLIS = 60_000;
+
+    private final String baseUrl;
+    private final ExcelDataReader dataReader;
+
+    // ETag of the version applied to the reader, null before the first snapshot; only touched by the refresh thread
+    private String appliedTag;
+
+    // Latest ETag seen by the long-poll
+    private volatile String knownTag;
+
+    private Thread longPollThread;
+
+    public SnapshotClient(String baseUrl, ExcelDataReader dataReader) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.dataReader = dataReader;
+    }
+
+    // Bring the reader up to the server's version: the deltas since the applied version if the server still has
+    // them, the whole snapshot otherwise. Returns false if nothing changed; runs on the thread that owns the reader
+    public boolean refresh() {
+        try {
+            if (appliedTag != null) {
+                Response response = get("/delta?since=" + URLEncoder.encode(appliedTag, "UTF-8"), appliedTag);
+                if (response.status == 304) {
+                    // Only the working date can have rolled over
+                    return dataReader.applyTasks(Collections.emptyList(), false, null, null);
+                }
+                if (response.status == 200) {
+                    List<ExcelDataReader.TaskData> tasks = new ArrayList<>();
+                    Map<String, Integer> totals = null;
+                    Map<Integer, TaskCounters> days = new HashMap<>();
+                    for (Object value : JSONUtil.parseObj(response.body).getJSONArray("deltas")) {
+                        JSONObject delta = (JSONObject) value;
+                        addTasks(delta.getJSONArray("tasks"), tasks);
+                        // The counters are those after each delta, the last ones win
+                        totals = TaskJson.totalsFromJson(delta.getJSONObject("counters"));
+                        days.putAll(TaskJson.countersFromJson(delta.getJSONObject("days")));
+                    }
+                    appliedTag = response.tag;
+                    knownTag = response.tag;
+                    return dataReader.applyTasks(tasks, false, totals, totals == null ? null : days);
+                }
+                // 410: the server no longer has the deltas or was restarted, read everything again
+            }
+
+            Response response = get("/snapshot", null);
+            if (response.status != 200) {
+                System.err.println("Snapshot server " + baseUrl + " answered " + response.status);
+                return false;
+            }
+            JSONObject snapshot = JSONUtil.parseObj(response.body);
+            List<ExcelDataReader.TaskData> tasks = new ArrayList<>();
+            addTasks(snapshot.getJSONArray("tasks"), tasks);
+            appliedTag = response.tag;
+            knownTag = response.tag;
+            return dataReader.applyTasks(tasks, true, TaskJson.totalsFromJson(snapshot.getJSONObject("counters")),
+                    TaskJson.countersFromJson(snapshot.getJSONObject("days")));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Cannot refresh from snapshot server " + baseUrl + ": " + e);
+            return false;
+        }
+    }
+
+    private static void addTasks(JSONArray values, List<ExcelDataReader.TaskData> tasks) {
+        for (int i = 0; i < values.size(); i++) {
+            tasks.add(TaskJson.fromJson(values.getJSONArray(i)));
+        }
+    }
+
+    // Hold a request open on the server and call onChange whenever it reports a new version. Any answer other than
+    // 200 or 304 returns at once, so the next request waits like after a connection failure, longer each time
+    public void startLongPoll(Runnable onChange) {
+        longPollThread = new Thread(() -> {
+            int retryMillis = RETRY_MILLIS;
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Response response = get("/version?wait=" + LONG_POLL_SECONDS, knownTag);
+                    if (response.status == 200 || response.status == 304) {
+                        retryMillis = RETRY_MILLIS;
+                        if (response.status == 200 && response.tag != null && !response.tag.equals(knownTag)) {
+                            knownTag = response.tag;
+                            onChange.run();
+                        }
+                        continue;
+                    }
+                    System.err.println("Snapshot server " + baseUrl + " answered " + response.status);
+                } catch (IOException e) {
+                    System.err.println("Snapshot server " + baseUrl + " not reachable: " + e.getMessage());
+                }
+                try {
+                    Thread.sleep(retryMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                retryMillis = Math.min(retryMillis * 2, MAX_RETRY_MILLIS);
+            }
+        }, "snapshot-long-poll");
+        longPollThread.setDaemon(true);
+        longPollThread.start();
+    }
+
+    private Response get(String path, String tag) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        try {
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+            connection.setReadTimeout(READ_TIMEOUT_MILLIS + LONG_POLL_SECONDS * 1000);
+            connection.setRequestProperty("Accept-Encoding", "gzip");
+            if (tag != null) {
+                connection.setRequestProperty("If-None-Match", "\"" + tag + "\"");
+            }
+
+            int status = connection.getResponseCode();
+            String etag = connection.getHeaderField("ETag");
+            String body = null;
+            if (status == 200) {
+                InputStream in = connection.getInputStream();
+                if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
+                    in = new GZIPInputStream(in);
+                }
+                body = read(in);
+            }
+            return new Response(status, etag == null ? null : etag.replace("\"", ""), body);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (InputStream input = in) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[64 * 1024];
+            for (int n = input.read(buffer); n != -1; n = input.read(buffer)) {
+                bytes.write(buffer, 0, n);
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (longPollThread != null) {
+            longPollThread.interrupt();
+        }
+    }
+
+    private static class Response {
+        private final int status;
+        private final String tag;
+        private final String body;
+
+        Response(int status, String tag, String body) {
+            this.status = status;
+            this.tag = tag;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package com.utils;
+
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+// Headless mode of the ingestion layer: one process reads the workbook and serves its versions over HTTP/JSON,
+// so several dashboards share one parse instead of each reading the file.
+//   GET /snapshot            all tasks and statistics of the current version
+//   GET /delta?since=<tag>   the changes from the version with that ETag to the current one, 410 if they are not kept
+//   GET /version?wait=<s>    the current version; with If-None-Match the request is held until a new version or timeout
+// Every response carries the ETag "<instance>-<version>", a request whose If-None-Match matches gets 304 Not Modified.
+// Snapshots and deltas carry the overall counters and the counters of the days (all days, or the days that changed),
+// which include the tasks the server keeps in its history and never sends
+public class SnapshotServer implements Closeable {
+    private static final int DEFAULT_PORT = 8765;
+    private static final int DELTA_HISTORY = 64;  // Deltas kept for clients that are a few versions behind
+    private static final int MAX_WAIT_SECONDS = 120;  // Upper bound of a long-poll request
+    private static final int GZIP_MIN_BYTES = 1024;  // Smaller bodies are sent uncompressed
+
+    private final String excelFilePath;
+    private final ExcelDataReader dataReader;  // Only touched by the refresh thread after start
+    private final String instance = Long.toHexString(System.currentTimeMillis());  // Tells a restarted server apart
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(daemon("snapshot-refresh"));
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(daemon("snapshot-poll"));
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private final RefreshMetrics metrics = new RefreshMetrics();
+    private HttpServer httpServer;
+    private WorkbookWatcher workbookWatcher;
+
+    // Published state, guarded by this: the latest snapshot, its JSON once a client asked for it,
+    // and the JSON of the latest deltas, null for deltas a client cannot apply on its own
+    private DataSnapshot snapshot;
+    private Map<Integer, TaskCounters> snapshotDays;
+    private byte[] snapshotBody;
+    private byte[] snapshotGzip;
+    private final Deque<DeltaEntry> deltas = new ArrayDeque<>();
+
+    public SnapshotServer(String excelFilePath) {
+        this.excelFilePath = excelFilePath;
+        this.dataReader = new ExcelDataReader(excelFilePath);
+    }
+
+    // Read the workbook (or its snapshot cache), then serve it and follow its changes
+    public void start(String host, int port) throws IOException {
+        dataReader.setMetrics(metrics);
+        metrics.register(excelFilePath);
+        DashboardSettings.applyHistory(dataReader, excelFilePath);
+        boolean cached = DashboardSettings.USE_CACHE && dataReader.loadCache();
+        if (!cached) {
+            dataReader.readExcelData();
+        }
+        synchronized (this) {
+            snapshot = dataReader.createSnapshot();
+            snapshotDays = dataReader.getDailyCounters();
+        }
+        dataReader.addDeltaListener(this::publish);
+
+        httpServer = HttpServer.create(new InetSocketAddress(host, port), 0);
+        httpServer.createContext("/snapshot", exchange -> handle(exchange, this::handleSnapshot));
+        httpServer.createContext("/delta", exchange -> handle(exchange, this::handleDelta));
+        httpServer.createContext("/version", exchange -> handle(exchange, this::handleVersion));
+        // Long-poll requests hold a thread each, one per connected dashboard
+        httpServer.setExecutor(Executors.newCachedThreadPool(daemon("snapshot-http")));
+        httpServer.start();
+
+        startAutoRefresh();
+        if (cached) {
+            requestRefresh();  // Re-validate the cached data against the workbook
+        } else if (DashboardSettings.USE_CACHE) {
+            refreshExecutor.execute(dataReader::saveCache);
+        }
+    }
+
+    // Same refresh modes and properties as the dashboard
+    private void startAutoRefresh() {
+        workbookWatcher = DashboardSettings.startWatcher(excelFilePath, this::requestRefresh);
+        int pollInterval = DashboardSettings.pollInterval(workbookWatcher != null);
+        if (pollInterval > 0) {
+            scheduler.scheduleAtFixedRate(this::requestRefresh, pollInterval, pollInterval, TimeUnit.SECONDS);
+        }
+    }
+
+    private void requestRefresh() {
+        if (refreshQueued.compareAndSet(false, true)) {
+            refreshExecutor.execute(this::runRefresh);
+        } else {
+            metrics.recordCoalescedRefresh();
+        }
+    }
+
+    private void runRefresh() {
+        refreshQueued.set(false);
+        try {
+            boolean changed = dataReader.refresh();
+            metrics.logLastRefresh();
+            if (changed && DashboardSettings.USE_CACHE) {
+                dataReader.saveCache();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Delta listener, runs on the refresh thread: publish the new version and wake up waiting long-polls
+    private void publish(TaskDelta delta) {
+        DataSnapshot next = dataReader.createSnapshot();
+        Map<Integer, TaskCounters> days = dataReader.getDailyCounters();
+        String deltaJson = delta.isRowsMoved() ? null : deltaToJson(delta, dataReader.getTotals(), days).toString();
+        synchronized (this) {
+            snapshot = next;
+            snapshotDays = days;
+            snapshotBody = null;
+            snapshotGzip = null;
+            deltas.addLast(new DeltaEntry(delta.getVersion(), deltaJson));
+            if (deltas.size() > DELTA_HISTORY) {
+                deltas.removeFirst();
+            }
+            notifyAll();
+        }
+    }
+
+    // GET /snapshot
+    private void handleSnapshot(HttpExchange exchange) throws IOException {
+        DataSnapshot current;
+        Map<Integer, TaskCounters> days;
+        byte[] body;
+        byte[] gzip;
+        synchronized (this) {
+            current = snapshot;
+            days = snapshotDays;
+            body = snapshotBody;
+            gzip = snapshotGzip;
+        }
+        String tag = tag(current.getVersion());
+        if (matches(exchange, tag)) {
+            send(exchange, 304, tag, null, null);
+            return;
+        }
+
+        // Built outside the lock, a large data set takes a while; kept unless a newer version arrived meanwhile
+        if (body == null) {
+            body = snapshotToJson(current, days).toString().getBytes(StandardCharsets.UTF_8);
+            gzip = gzip(body);
+            synchronized (this) {
+                if (snapshot == current) {
+                    snapshotBody = body;
+                    snapshotGzip = gzip;
+                }
+            }
+        }
+        send(exchange, 200, tag, body, gzip);
+    }
+
+    // GET /delta?since=<tag>
+    private void handleDelta(HttpExchange exchange) throws IOException {
+        String since = parameter(exchange.getRequestURI(), "since");
+        long sinceVersion = -1;
+        if (since != null && since.startsWith(instance + "-")) {
+            try {
+                sinceVersion = Long.parseLong(since.substring(instance.length() + 1));
+            } catch (NumberFormatException e) {
+                sinceVersion = -1;
+            }
+        }
+
+        String tag;
+        StringBuilder changes = new StringBuilder();
+        synchronized (this) {
+            long version = snapshot.getVersion();
+            tag = tag(version);
+            if (matches(exchange, tag)) {
+                send(exchange, 304, tag, null, null);
+                return;
+            }
+            // The deltas must reach back to the client's version and all of them have to be applicable
+            boolean available = sinceVersion >= 0 && sinceVersion <= version
+                    && (sinceVersion == version || (!deltas.isEmpty() && deltas.getFirst().version <= sinceVersion + 1));
+            for (DeltaEntry entry : deltas) {
+                if (available && entry.version > sinceVersion) {
+                    if (entry.json == null) {
+                        available = false;
+                    } else {
+                        changes.append(changes.length() == 0 ? "" : ",").append(entry.json);
+                    }
+                }
+            }
+            if (!available) {
+                send(exchange, 410, tag, "{\"error\":\"deltas not available, read /snapshot\"}".getBytes(StandardCharsets.UTF_8), null);
+                return;
+            }
+        }
+        String body = "{\"version\":" + tag.substring(instance.length() + 1) + ",\"deltas\":[" + changes + "]}";
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        send(exchange, 200, tag, bytes, gzip(bytes));
+    }
+
+    // GET /version?wait=<seconds>
+    private void handleVersion(HttpExchange exchange) throws IOException {
+        String wait = parameter(exchange.getRequestURI(), "wait");
+        long waitMillis = 0;
+        if (wait != null) {
+            try {
+                waitMillis = Math.min(Long.parseLong(wait), MAX_WAIT_SECONDS) * 1000;
+            } catch (NumberFormatException e) {
+                waitMillis = 0;
+            }
+        }
+
+        String tag;
+        synchronized (this) {
+            long deadline = System.currentTimeMillis() + waitMillis;
+            tag = tag(snapshot.getVersion());
+            try {
+                for (long remaining = waitMillis; matches(exchange, tag) && remaining > 0;
+                     remaining = deadline - System.currentTimeMillis()) {
+                    wait(remaining);
+                    tag = tag(snapshot.getVersion());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (matches(exchange, tag)) {
+            send(exchange, 304, tag, null, null);
+        } else {
+            byte[] body = ("{\"version\":" + tag.substring(instance.length() + 1) + "}").getBytes(StandardCharsets.UTF_8);
+            send(exchange, 200, tag, body, null);
+        }
+    }
+
+    private static JSONObject snapshotToJson(DataSnapshot snapshot, Map<Integer, TaskCounters> days) {
+        JSONObject json = new JSONObject(TaskJson.CONFIG);
+        json.set("version", snapshot.getVersion());
+        JSONObject counters = new JSONObject(TaskJson.CONFIG);
+        counters.set("NEW", snapshot.getNewTasksCount());
+        counters.set("ONGOING", snapshot.getOngoingTasksCount());
+        counters.set("COMPLETED", snapshot.getCompletedTasksCount());
+        counters.set("WITHIN_TAT", snapshot.getNormalTATCount());
+        counters.set("OVER_TAT", snapshot.getAbnormalTATCount());
+        json.set("counters", counters);
+        json.set("days", TaskJson.countersToJson(days));
+        json.set("fields", new JSONArray(TaskJson.FIELDS, TaskJson.CONFIG));
+        JSONArray tasks = new JSONArray(snapshot.getTaskStore().size(), TaskJson.CONFIG);
+        for (ExcelDataReader.TaskData task : snapshot.getTasks()) {
+            tasks.add(TaskJson.toJson(task));
+        }
+        json.set("tasks", tasks);
+        return json;
+    }
+
+    // Inserted and updated tasks in their new version, the counters after it and those of the days it changed;
+    // a delta with removed tasks is never sent
+    private static JSONObject deltaToJson(TaskDelta delta, Map<String, Integer> totals, Map<Integer, TaskCounters> days) {
+        JSONObject json = new JSONObject(TaskJson.CONFIG);
+        json.set("version", delta.getVersion());
+        json.set("counters", totals);
+        Map<Integer, TaskCounters> changedDays = new TreeMap<>();
+        for (Integer day : delta.getDayChanges().keySet()) {
+            changedDays.put(day, days.getOrDefault(day, new TaskCounters()));
+        }
+        json.set("days", TaskJson.countersToJson(changedDays));
+        JSONArray tasks = new JSONArray(TaskJson.CONFIG);
+        for (ExcelDataReader.TaskData task : delta.getUpdated()) {
+            tasks.add(TaskJson.toJson(task));
+        }
+        for (ExcelDataReader.TaskData task : delta.getInserted()) {
+            tasks.add(TaskJson.toJson(task));
+        }
+        json.set("tasks", tasks);
+        return json;
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    private static void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            handler.handle(exchange);
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            throw e;
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String tag(long version) {
+        return instance + "-" + version;
+    }
+
+    // Whether the If-None-Match header names the given tag, quoted or weak as browsers send it
+    private static boolean matches(HttpExchange exchange, String tag) {
+        String header = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (header == null) {
+            return false;
+        }
+        for (String value : header.split(",")) {
+            String candidate = value.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.replace("\"", "").equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void send(HttpExchange exchange, int status, String tag, byte[] body, byte[] gzip) throws IOException {
+        exchange.getResponseHeaders().set("ETag", "\"" + tag + "\"");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (gzip != null && accept != null && accept.contains("gzip")) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            body = gzip;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        if (body.length < GZIP_MIN_BYTES) {
+            return null;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String parameter(URI uri, String name) {
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0 && pair.substring(0, equals).equals(name)) {
+                try {
+                    return URLDecoder.decode(pair.substring(equals + 1), "UTF-8");
+                } catch (UnsupportedEncodingException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void close() {
+        if (workbookWatcher != null) {
+            workbookWatcher.close();
+        }
+        if (httpServer != null) {
+            httpServer.stop(0);
+        }
+        scheduler.shutdownNow();
+        refreshExecutor.shutdownNow();
+        metrics.unregister();
+    }
+
+    private static class DeltaEntry {
+        private final long version;
+        private final String json;
+
+        DeltaEntry(long version, String json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+
+    // Run the server: java -cp ... com.utils.SnapshotServer [workbook], port and address from
+    // -Ddashboard.server.port and -Ddashboard.server.host
+    public static void main(String[] args) throws IOException {
+        String path = args.length > 0 ? args[0] : System.getProperty("user.dir") + "/data.xlsx";
+        String host = System.getProperty("dashboard.server.host", "127.0.0.1");
+        int port = Integer.getInteger("dashboard.server.port", DEFAULT_PORT);
+        SnapshotServer server = new SnapshotServer(path);
+        server.start(host, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.println("Serving " + path + " on http://" + host + ":" + port + "/snapshot");
+    }
+}
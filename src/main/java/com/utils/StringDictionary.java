@@ -0,0 +1,112 @@
+package com.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Maps repeated strings to small int codes, -1 stands for null
+public class StringDictionary {
+    private static final int CHUNK_SHIFT = 8;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // Built on first use in a copy, which usually only decodes
+    private Map<String, Integer> codes;
+
+    // Values by code in chunks of CHUNK_SIZE, shared with copies until either side adds to a chunk
+    private String[][] values;
+    private boolean[] shared;
+    private int size;
+
+    public StringDictionary() {
+        clear();
+    }
+
+    // Code of the value, adding it to the dictionary if it is new
+    public int encode(String value) {
+        if (value == null) {
+            return -1;
+        }
+        Integer code = codes().get(value);
+        if (code == null) {
+            code = size;
+            codes.put(value, code);
+            append(value);
+        }
+        return code;
+    }
+
+    private void append(String value) {
+        int index = size >> CHUNK_SHIFT;
+        if (index == values.length) {
+            values = Arrays.copyOf(values, index * 2);
+            shared = Arrays.copyOf(shared, index * 2);
+        }
+        if (values[index] == null) {
+            values[index] = new String[CHUNK_SIZE];
+        } else if (shared[index]) {
+            values[index] = values[index].clone();
+            shared[index] = false;
+        }
+        values[index][size & CHUNK_MASK] = value;
+        size++;
+    }
+
+    public String decode(int code) {
+        if (code < 0) {
+            return null;
+        }
+        if (code >= size) {
+            throw new IndexOutOfBoundsException("Code: " + code + ", Size: " + size);
+        }
+        return values[code >> CHUNK_SHIFT][code & CHUNK_MASK];
+    }
+
+    // Code of the value, or -1 if it has never been encoded
+    public int lookup(String value) {
+        Integer code = value == null ? null : codes().get(value);
+        return code == null ? -1 : code;
+    }
+
+    private Map<String, Integer> codes() {
+        if (codes == null) {
+            codes = new HashMap<>(size * 2);
+            for (int code = 0; code < size; code++) {
+                codes.put(decode(code), code);
+            }
+        }
+        return codes;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        codes = new HashMap<>();
+        values = new String[4][];
+        shared = new boolean[4];
+        size = 0;
+    }
+
+    // Copy that shares the values with this dictionary, later codes on either side do not affect the other
+    public StringDictionary copy() {
+        int chunkCount = (size + CHUNK_MASK) >> CHUNK_SHIFT;
+        Arrays.fill(shared, 0, chunkCount, true);
+        StringDictionary copy = new StringDictionary();
+        copy.codes = null;
+        copy.values = Arrays.copyOf(values, values.length);
+        copy.shared = shared.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    // Strings, value chunks and hash map entries
+    long estimateMemoryBytes() {
+        long bytes = ((size + CHUNK_MASK) >> CHUNK_SHIFT) * MemoryEstimates.arrayBytes(CHUNK_SIZE, MemoryEstimates.REFERENCE);
+        for (int code = 0; code < size; code++) {
+            bytes += MemoryEstimates.stringBytes(decode(code)) + 32 + 16;  // HashMap node and boxed code
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,102 @@
+package com.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// The five dashboard metrics for one bucket of tasks (a day, a week or the whole data set)
+public class TaskCounters {
+    // Number of tasks in the bucket, shown as "New Tasks" for a single day
+    private int newTasks;
+
+    // Tasks with status PENDING
+    private int ongoing;
+
+    // Tasks with status LODGE
+    private int completed;
+
+    // Lodged "Ecoll - Export Collection" tasks within / over the target TAT
+    private int withinTat;
+    private int overTat;
+
+    public TaskCounters() {
+    }
+
+    // Counters restored from stored values
+    TaskCounters(int newTasks, int ongoing, int completed, int withinTat, int overTat) {
+        this.newTasks = newTasks;
+        this.ongoing = ongoing;
+        this.completed = completed;
+        this.withinTat = withinTat;
+        this.overTat = overTat;
+    }
+
+    // Count one task into the bucket
+    public void addTask(boolean pending, boolean lodged, boolean tatTracked, boolean withinTargetTat) {
+        count(pending, lodged, tatTracked, withinTargetTat, 1);
+    }
+
+    // Take a task counted earlier out of the bucket again, used when a task is replaced by a newer version
+    public void removeTask(boolean pending, boolean lodged, boolean tatTracked, boolean withinTargetTat) {
+        count(pending, lodged, tatTracked, withinTargetTat, -1);
+    }
+
+    private void count(boolean pending, boolean lodged, boolean tatTracked, boolean withinTargetTat, int delta) {
+        newTasks += delta;
+        if (pending) {
+            ongoing += delta;
+        }
+        if (lodged) {
+            completed += delta;
+            if (tatTracked) {
+                if (withinTargetTat) {
+                    withinTat += delta;
+                } else {
+                    overTat += delta;
+                }
+            }
+        }
+    }
+
+    // Add the counts of another bucket to this one
+    public void add(TaskCounters other) {
+        newTasks += other.newTasks;
+        ongoing += other.ongoing;
+        completed += other.completed;
+        withinTat += other.withinTat;
+        overTat += other.overTat;
+    }
+
+    // Subtract the counts of another bucket from this one, e.g. to get the change between two versions
+    public void subtract(TaskCounters other) {
+        newTasks -= other.newTasks;
+        ongoing -= other.ongoing;
+        completed -= other.completed;
+        withinTat -= other.withinTat;
+        overTat -= other.overTat;
+    }
+
+    public int getNewTasks() { return newTasks; }
+    public int getOngoing() { return ongoing; }
+    public int getCompleted() { return completed; }
+    public int getWithinTat() { return withinTat; }
+    public int getOverTat() { return overTat; }
+
+    // Whether no task is counted in the bucket
+    public boolean isEmpty() { return newTasks == 0; }
+
+    // Whether all five counts are zero, used for changes that may be negative
+    public boolean isZero() {
+        return newTasks == 0 && ongoing == 0 && completed == 0 && withinTat == 0 && overTat == 0;
+    }
+
+    // Same keys as the statistics maps used elsewhere in ExcelDataReader
+    public Map<String, Integer> toMap() {
+        Map<String, Integer> map = new HashMap<>();
+        map.put("NEW", newTasks);
+        map.put("ONGOING", ongoing);
+        map.put("COMPLETED", completed);
+        map.put("WITHIN_TAT", withinTat);
+        map.put("OVER_TAT", overTat);
+        return map;
+    }
+}
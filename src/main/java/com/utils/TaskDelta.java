@@ -0,0 +1,80 @@
+package com.utils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+// What one read of the workbook changed: inserted, updated and removed tasks and the counters that moved
+public class TaskDelta {
+    // Data version produced by the change
+    private final long version;
+
+    // Tasks after the change, an independent copy shared with the snapshot of the same version
+    private final TaskStore tasks;
+
+    // Rows from this index to the end were inserted
+    private final int firstInsertedRow;
+
+    // Rows whose task was replaced by a new version, in ascending order
+    private final int[] updatedRows;
+
+    // Last known versions of the tasks that are no longer in the workbook
+    private final List<ExcelDataReader.TaskData> removed;
+
+    // Rows were removed, so row numbers after the first removed row differ from the previous version
+    private final boolean rowsMoved;
+
+    // Change of the overall statistics by key ("NEW", "ONGOING", ...), only keys that moved
+    private final Map<String, Integer> counterChanges;
+
+    // Change of the per-day counters by epoch day, only days that moved
+    private final NavigableMap<Integer, TaskCounters> dayChanges;
+
+    public TaskDelta(long version, TaskStore tasks, int firstInsertedRow, int[] updatedRows,
+                     List<ExcelDataReader.TaskData> removed, boolean rowsMoved,
+                     Map<String, Integer> counterChanges, NavigableMap<Integer, TaskCounters> dayChanges) {
+        this.version = version;
+        this.tasks = tasks;
+        this.firstInsertedRow = firstInsertedRow;
+        this.updatedRows = updatedRows;
+        this.removed = Collections.unmodifiableList(removed);
+        this.rowsMoved = rowsMoved;
+        this.counterChanges = Collections.unmodifiableMap(counterChanges);
+        this.dayChanges = Collections.unmodifiableNavigableMap(dayChanges);
+    }
+
+    public long getVersion() { return version; }
+    public TaskStore getTaskStore() { return tasks; }
+    public int getFirstInsertedRow() { return firstInsertedRow; }
+    public int[] getUpdatedRows() { return updatedRows.clone(); }
+    public boolean isRowsMoved() { return rowsMoved; }
+    public Map<String, Integer> getCounterChanges() { return counterChanges; }
+    public NavigableMap<Integer, TaskCounters> getDayChanges() { return dayChanges; }
+
+    public List<ExcelDataReader.TaskData> getInserted() {
+        return tasks.asList().subList(firstInsertedRow, tasks.size());
+    }
+
+    public List<ExcelDataReader.TaskData> getUpdated() {
+        return new RowListView(tasks, updatedRows, updatedRows.length);
+    }
+
+    public List<ExcelDataReader.TaskData> getRemoved() { return removed; }
+
+    // Whether tasks were inserted, updated or removed
+    public boolean hasRowChanges() {
+        return firstInsertedRow < tasks.size() || updatedRows.length > 0 || !removed.isEmpty();
+    }
+
+    public boolean isEmpty() {
+        return !hasRowChanges() && counterChanges.isEmpty() && dayChanges.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "TaskDelta{version=" + version + ", inserted=" + (tasks.size() - firstInsertedRow)
+                + ", updated=" + updatedRows.length + ", removed=" + removed.size()
+                + ", counters=" + counterChanges + ", days=" + dayChanges.size() + "}";
+    }
+}
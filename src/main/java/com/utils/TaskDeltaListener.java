@@ -0,0 +1,6 @@
+package com.utils;
+
+// Receives the changes of every read that changed something, on the thread that ran the read
+public interface TaskDeltaListener {
+    void onDelta(TaskDelta delta);
+}
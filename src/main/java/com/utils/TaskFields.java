@@ -0,0 +1,233 @@
+package com.utils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+// Parsing and formatting of the typed task fields; values are parsed once at ingest and formatted only for display
+public final class TaskFields {
+    // Marker for a missing or unparseable date
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    // Marker for a missing or unparseable duration
+    public static final int NO_DURATION = -1;
+
+    // Marker for a missing or unparseable timestamp
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    // Target TAT is 4 hours, i.e., 14,400 seconds
+    public static final int TARGET_TAT_SECONDS = 4 * 3600;
+
+    // “d-MMM-yy” dates of the Date column, always with English month names
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("d-MMM-yy", Locale.ENGLISH);
+
+    // Stage timestamps such as “Nov 04 2024 11:08:00 AM”
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("MMM dd yyyy hh:mm:ss a", Locale.ENGLISH);
+
+    // Month names of the Date column and the stage timestamps, in calendar order; dates written by Excel
+    // in a Chinese locale use the Chinese names
+    private static final String[] ENGLISH_MONTHS = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+    private static final String[] CHINESE_MONTHS = {"一月", "二月", "三月", "四月", "五月", "六月", "七月", "八月", "九月", "十月", "十一月", "十二月"};
+
+    private TaskFields() {
+    }
+
+    // Parse a “d-MMM-yy” date into an epoch day, Chinese month names are accepted as well.
+    // Scans the text in place: no substrings, no exceptions, so dirty exports cost no more than clean ones
+    public static int parseDate(String value) {
+        if (value == null) {
+            return NO_DATE;
+        }
+        int start = skipSpace(value, 0);
+        int end = trimEnd(value, start);
+        int firstDash = value.indexOf('-', start);
+        int secondDash = firstDash < 0 ? -1 : value.indexOf('-', firstDash + 1);
+        if (secondDash < 0) {
+            return NO_DATE;
+        }
+        int day = parseDigits(value, start, firstDash, 1, 2);
+        int month = parseMonth(value, firstDash + 1, secondDash);
+        int year = parseDigits(value, secondDash + 1, end, 2, 2);
+        if (day < 1 || day > 31 || month < 0 || year < 0) {
+            return NO_DATE;
+        }
+        return toEpochDay(2000 + year, month + 1, day);
+    }
+
+    // Format an epoch day as “d-MMM-yy” with English month names
+    public static String formatDate(int epochDay) {
+        return epochDay == NO_DATE ? "" : LocalDate.ofEpochDay(epochDay).format(DATE_FORMATTER);
+    }
+
+    // Parse an “HH:mm:ss” duration (hours may have any number of digits) into seconds; anything after
+    // a third colon is ignored. Scans the text in place like parseDate
+    public static int parseDuration(String value) {
+        if (value == null) {
+            return NO_DURATION;
+        }
+        int start = skipSpace(value, 0);
+        int end = trimEnd(value, start);
+        int firstColon = value.indexOf(':', start);
+        int secondColon = firstColon < 0 ? -1 : value.indexOf(':', firstColon + 1);
+        if (secondColon < 0 || secondColon >= end) {
+            return NO_DURATION;
+        }
+        int thirdColon = value.indexOf(':', secondColon + 1);
+        int hours = parseDigits(value, start, firstColon, 1, 9);
+        int minutes = parseDigits(value, firstColon + 1, secondColon, 1, 9);
+        int seconds = parseDigits(value, secondColon + 1, thirdColon < 0 || thirdColon > end ? end : thirdColon, 1, 9);
+        if (hours < 0 || minutes < 0 || seconds < 0) {
+            return NO_DURATION;
+        }
+        long total = hours * 3600L + minutes * 60L + seconds;
+        return total > Integer.MAX_VALUE ? NO_DURATION : (int) total;
+    }
+
+    // Format seconds the way the export writes durations, e.g. “00030:25:53”
+    public static String formatDuration(int totalSeconds) {
+        if (totalSeconds == NO_DURATION) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(11);
+        appendPadded(sb, totalSeconds / 3600, 5);
+        sb.append(':');
+        appendPadded(sb, totalSeconds / 60 % 60, 2);
+        sb.append(':');
+        appendPadded(sb, totalSeconds % 60, 2);
+        return sb.toString();
+    }
+
+    // Parse a stage timestamp such as “Nov 04 2024 11:08:00 AM” into epoch milliseconds; the export has no zone,
+    // so the wall-clock time is stored as UTC. Scans the text in place like parseDate
+    public static long parseTimestamp(String value) {
+        if (value == null) {
+            return NO_TIME;
+        }
+        int start = skipSpace(value, 0);
+        int end = trimEnd(value, start);
+        // Fixed layout: MMM(3) dd(2) yyyy(4) hh(2):mm(2):ss(2) a(2), separated by single spaces
+        if (end - start != 23 || value.charAt(start + 3) != ' ' || value.charAt(start + 6) != ' '
+                || value.charAt(start + 11) != ' ' || value.charAt(start + 14) != ':'
+                || value.charAt(start + 17) != ':' || value.charAt(start + 20) != ' ') {
+            return NO_TIME;
+        }
+        int month = parseMonth(value, start, start + 3);
+        int day = parseDigits(value, start + 4, start + 6, 2, 2);
+        int year = parseDigits(value, start + 7, start + 11, 4, 4);
+        int hour = parseDigits(value, start + 12, start + 14, 2, 2);
+        int minute = parseDigits(value, start + 15, start + 17, 2, 2);
+        int second = parseDigits(value, start + 18, start + 20, 2, 2);
+        boolean pm;
+        if (value.startsWith("AM", start + 21)) {
+            pm = false;
+        } else if (value.startsWith("PM", start + 21)) {
+            pm = true;
+        } else {
+            return NO_TIME;
+        }
+        if (month < 0 || day < 1 || day > 31 || year < 0 || hour < 0 || hour > 12
+                || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return NO_TIME;
+        }
+        int hourOfDay = hour % 12 + (pm ? 12 : 0);
+        long seconds = toEpochDay(year, month + 1, day) * 86400L + hourOfDay * 3600 + minute * 60 + second;
+        return seconds * 1000L;
+    }
+
+    // Format epoch milliseconds back into the export's timestamp format
+    public static String formatTimestamp(long epochMillis) {
+        if (epochMillis == NO_TIME) {
+            return "";
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L), 0, ZoneOffset.UTC).format(TIME_FORMATTER);
+    }
+
+    // Whether a raw cell holds no value, so a missing marker after parsing is not a parse failure
+    public static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        return skipSpace(value, 0) == value.length();
+    }
+
+    // Whether a TAT in seconds meets the 4 hour target; a missing TAT counts as over target
+    public static boolean isWithinTargetTat(int tatSeconds) {
+        return tatSeconds != NO_DURATION && tatSeconds <= TARGET_TAT_SECONDS;
+    }
+
+    // Index 0-11 of the month name between start and end: an English abbreviation in any case, or a Chinese
+    // month name; -1 if it is neither
+    private static int parseMonth(String value, int start, int end) {
+        int length = end - start;
+        for (int month = 0; month < 12; month++) {
+            if (length == 3 && value.regionMatches(true, start, ENGLISH_MONTHS[month], 0, 3)) {
+                return month;
+            }
+            if (length == CHINESE_MONTHS[month].length() && value.startsWith(CHINESE_MONTHS[month], start)) {
+                return month;
+            }
+        }
+        return -1;
+    }
+
+    // Value of the ASCII digits between start and end, -1 if there are fewer than minDigits or more than
+    // maxDigits of them or anything else is in between
+    private static int parseDigits(String value, int start, int end, int minDigits, int maxDigits) {
+        int length = end - start;
+        if (length < minDigits || length > maxDigits) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    // Epoch day of a date, with a day past the end of the month moved back to its last day the way
+    // DateTimeFormatter resolves it; proleptic Gregorian calendar as in java.time
+    private static int toEpochDay(int year, int month, int day) {
+        int lastDay = month == 2 ? (isLeapYear(year) ? 29 : 28) : (month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31);
+        int dayOfMonth = Math.min(day, lastDay);
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + dayOfMonth - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int skipSpace(String value, int index) {
+        while (index < value.length() && value.charAt(index) <= ' ') {
+            index++;
+        }
+        return index;
+    }
+
+    // End of the value without trailing white space
+    private static int trimEnd(String value, int start) {
+        int end = value.length();
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static void appendPadded(StringBuilder sb, int value, int width) {
+        String digits = Integer.toString(value);
+        for (int i = digits.length(); i < width; i++) {
+            sb.append('0');
+        }
+        sb.append(digits);
+    }
+}
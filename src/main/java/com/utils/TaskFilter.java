@@ -0,0 +1,99 @@
+package com.utils;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Facet selection applied to the cards, charts and table: a task matches if its status, document type and
+// handler are each one of the chosen values, or any value where none is chosen, and it is dated in the window.
+// Values are compared without case, like the rest of the dashboard
+public class TaskFilter {
+    public static final TaskFilter NONE = new TaskFilter(null, null, null, TaskFields.NO_DATE, TaskFields.NO_DATE);
+
+    private final Set<String> statuses;
+    private final Set<String> documentTypes;
+    private final Set<String> handlers;
+
+    // Date window as epoch days (inclusive), TaskFields.NO_DATE for an open end
+    private final int startDay;
+    private final int endDay;
+
+    // Of the values folded the way String.CASE_INSENSITIVE_ORDER compares them, so equal filters hash alike
+    private final int hash;
+
+    public TaskFilter(Set<String> statuses, Set<String> documentTypes, Set<String> handlers, int startDay, int endDay) {
+        this.statuses = copy(statuses);
+        this.documentTypes = copy(documentTypes);
+        this.handlers = copy(handlers);
+        this.startDay = startDay;
+        this.endDay = endDay;
+        this.hash = ((hash(this.statuses) * 31 + hash(this.documentTypes)) * 31 + hash(this.handlers)) * 31
+                + startDay * 17 + endDay;
+    }
+
+    private static Set<String> copy(Set<String> values) {
+        Set<String> copy = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        if (values != null) {
+            copy.addAll(values);
+        }
+        return Collections.unmodifiableSet(copy);
+    }
+
+    private static int hash(Set<String> values) {
+        int hash = 0;
+        for (String value : values) {
+            int valueHash = 0;
+            for (int i = 0; i < value.length(); i++) {
+                valueHash = valueHash * 31 + Character.toLowerCase(Character.toUpperCase(value.charAt(i)));
+            }
+            hash += valueHash;
+        }
+        return hash;
+    }
+
+    public Set<String> getStatuses() { return statuses; }
+    public Set<String> getDocumentTypes() { return documentTypes; }
+    public Set<String> getHandlers() { return handlers; }
+    public int getStartDay() { return startDay; }
+    public int getEndDay() { return endDay; }
+
+    public boolean hasDateWindow() {
+        return startDay != TaskFields.NO_DATE || endDay != TaskFields.NO_DATE;
+    }
+
+    // Whether every task matches
+    public boolean isEmpty() {
+        return statuses.isEmpty() && documentTypes.isEmpty() && handlers.isEmpty() && !hasDateWindow();
+    }
+
+    // Whether one task matches, the same way FacetIndex.select picks rows: values are trimmed and a blank value
+    // matches no chosen one
+    public boolean matches(ExcelDataReader.TaskData task) {
+        int day = task.getEpochDay();
+        if (hasDateWindow() && (day == TaskFields.NO_DATE || startDay != TaskFields.NO_DATE && day < startDay
+                || endDay != TaskFields.NO_DATE && day > endDay)) {
+            return false;
+        }
+        return matches(statuses, task.getStatusText()) && matches(documentTypes, task.getDocumentType())
+                && matches(handlers, task.getHandler());
+    }
+
+    private static boolean matches(Set<String> values, String value) {
+        return values.isEmpty() || !TaskFields.isBlank(value) && values.contains(value.trim());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof TaskFilter)) {
+            return false;
+        }
+        TaskFilter other = (TaskFilter) o;
+        return statuses.equals(other.statuses) && documentTypes.equals(other.documentTypes)
+                && handlers.equals(other.handlers) && startDay == other.startDay && endDay == other.endDay;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
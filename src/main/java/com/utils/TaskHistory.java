@@ -0,0 +1,378 @@
+package com.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+// Tasks dated before the window the dashboard shows, kept on disk for audit as one file per month
+// ("tasks-2024-10.bin", in the snapshot cache format). The counters of the whole history and the day and
+// fingerprint of every archived task stay in memory; a month's tasks are loaded when a read or a query
+// touches it, and at most a few months are kept loaded
+final class TaskHistory {
+    private static final int LOADED_MONTHS = 3;  // Loaded partitions, the least recently used one is written back and dropped
+
+    private final File directory;
+
+    // Counters of every archived task, by day and in total (the total's "new" count is the number of tasks)
+    private final NavigableMap<Integer, TaskCounters> dailyCounters = new TreeMap<>();
+    private final TaskCounters totals = new TaskCounters();
+
+    // Months that have a partition, as year * 12 + month - 1
+    private final NavigableSet<Integer> months = new TreeSet<>();
+
+    // Loaded partitions in access order
+    private final LinkedHashMap<Integer, Partition> loaded = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Every archived task by key: a read recognises an unchanged archived row without parsing it, and a task
+    // re-dated into another month is moved out of the partition of its old month
+    private final Map<String, Archived> archivedByKey = new HashMap<>();
+
+    // Changes of the archived tasks, for the filtered counters cached below
+    private int modCount;
+
+    // Daily counters of the archived tasks matching filteredBy, as of filteredAt; null until first asked for
+    private TaskFilter filteredBy;
+    private int filteredAt;
+    private NavigableMap<Integer, TaskCounters> filteredCounters;
+
+    // Open the history in a directory, reading the counters and keys of its partitions
+    TaskHistory(File directory) {
+        this.directory = directory;
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            int month = monthOf(file.getName());
+            if (month < 0) {
+                continue;
+            }
+            TaskStore tasks = new ListTaskStore();
+            SnapshotCache cache = SnapshotCache.read(file, tasks);
+            if (cache == null) {
+                continue;
+            }
+            months.add(month);
+            for (Map.Entry<Integer, TaskCounters> entry : cache.dailyStats.entrySet()) {
+                dailyCounters.computeIfAbsent(entry.getKey(), d -> new TaskCounters()).add(entry.getValue());
+                totals.add(entry.getValue());
+            }
+            for (int row = 0; row < tasks.size(); row++) {
+                ExcelDataReader.TaskData task = tasks.get(row);
+                archivedByKey.put(ExcelDataReader.taskKey(task.getDocumentSerial(), task.getReferenceNumber(),
+                        cache.fingerprints[row]), new Archived(task.getEpochDay(), cache.fingerprints[row]));
+            }
+        }
+    }
+
+    NavigableMap<Integer, TaskCounters> getDailyCounters() {
+        return dailyCounters;
+    }
+
+    TaskCounters getTotals() {
+        return totals;
+    }
+
+    // Whether the task is archived with the same raw fields
+    boolean isArchived(String key, long fingerprint) {
+        Archived archived = archivedByKey.get(key);
+        return archived != null && archived.fingerprint == fingerprint;
+    }
+
+    boolean contains(String key) {
+        return archivedByKey.containsKey(key);
+    }
+
+    // Store a task in the partition of its month; returns the version it replaced, which may be identical,
+    // or null if the task was not archived yet. A version in another month is taken out of that month
+    ExcelDataReader.TaskData put(String key, long fingerprint, ExcelDataReader.TaskData task) {
+        Archived archived = archivedByKey.get(key);
+        if (archived != null && monthOf(archived.day) != monthOf(task.getEpochDay())) {
+            ExcelDataReader.TaskData previous = remove(key);
+            put(key, fingerprint, task);
+            return previous;
+        }
+        Partition partition = partition(monthOf(task.getEpochDay()));
+        Integer row = partition.rowsByKey.get(key);
+        archivedByKey.put(key, new Archived(task.getEpochDay(), fingerprint));
+        if (row == null) {
+            partition.add(key, fingerprint, task);
+            count(task, true);
+            modCount++;
+            return null;
+        }
+        ExcelDataReader.TaskData previous = partition.tasks.get(row);
+        if (partition.fingerprints[row] != fingerprint) {
+            partition.tasks.set(row, task);
+            partition.fingerprints[row] = fingerprint;
+            partition.dirty = true;
+            count(previous, false);
+            count(task, true);
+            modCount++;
+        }
+        return previous;
+    }
+
+    // Take a task out of the history, e.g. when it is dated into the window again; returns it, or null
+    // if it was not archived
+    ExcelDataReader.TaskData remove(String key) {
+        Archived archived = archivedByKey.remove(key);
+        if (archived == null) {
+            return null;
+        }
+        Partition partition = partition(monthOf(archived.day));
+        Integer row = partition.rowsByKey.get(key);
+        if (row == null) {
+            return null;
+        }
+        ExcelDataReader.TaskData task = partition.tasks.get(row);
+        BitSet rows = new BitSet();
+        rows.set(row);
+        partition.remove(rows);
+        count(task, false);
+        modCount++;
+        return task;
+    }
+
+    // After a full read: take out the archived tasks the read did not see, on the days it saw other archived
+    // tasks of. Days the workbook no longer has at all, e.g. after it was rotated, are kept. Returns the
+    // removed tasks
+    List<ExcelDataReader.TaskData> removeUnseen(Set<String> seenKeys) {
+        Set<Integer> seenDays = new HashSet<>();
+        for (String key : seenKeys) {
+            Archived archived = archivedByKey.get(key);
+            if (archived != null) {
+                seenDays.add(archived.day);
+            }
+        }
+        List<String> unseen = new ArrayList<>();
+        for (Map.Entry<String, Archived> entry : archivedByKey.entrySet()) {
+            if (seenDays.contains(entry.getValue().day) && !seenKeys.contains(entry.getKey())) {
+                unseen.add(entry.getKey());
+            }
+        }
+        List<ExcelDataReader.TaskData> removed = new ArrayList<>();
+        for (String key : unseen) {
+            ExcelDataReader.TaskData task = remove(key);
+            if (task != null) {
+                removed.add(task);
+            }
+        }
+        return removed;
+    }
+
+    // Daily counters of the archived tasks matching a filter. Every month is read once per filter and
+    // change of the history, later calls with the same filter are answered from the result
+    NavigableMap<Integer, TaskCounters> getFilteredDailyCounters(TaskFilter filter) {
+        if (filteredCounters != null && filteredAt == modCount && filter.equals(filteredBy)) {
+            return filteredCounters;
+        }
+        NavigableMap<Integer, TaskCounters> counters = new TreeMap<>();
+        for (int month : new ArrayList<>(months)) {
+            TaskStore tasks = partition(month).tasks;
+            for (int row = 0; row < tasks.size(); row++) {
+                ExcelDataReader.TaskData task = tasks.get(row);
+                if (filter.matches(task)) {
+                    TaskStatus status = task.getStatus();
+                    boolean tatTracked = task.isTatTracked();
+                    counters.computeIfAbsent(task.getEpochDay(), d -> new TaskCounters()).addTask(status == TaskStatus.PENDING,
+                            status == TaskStatus.LODGE, tatTracked, tatTracked && task.isWithinTargetTat());
+                }
+            }
+        }
+        filteredBy = filter;
+        filteredAt = modCount;
+        filteredCounters = Collections.unmodifiableNavigableMap(counters);
+        return filteredCounters;
+    }
+
+    // Archived tasks dated between two epoch days (inclusive), loading the months they fall in
+    List<ExcelDataReader.TaskData> getTasks(int startDay, int endDay) {
+        List<ExcelDataReader.TaskData> tasks = new ArrayList<>();
+        if (startDay > endDay) {
+            return tasks;
+        }
+        for (int month : new ArrayList<>(months.subSet(monthOf(startDay), true, monthOf(endDay), true))) {
+            Partition partition = partition(month);
+            for (int row = 0; row < partition.tasks.size(); row++) {
+                int day = partition.tasks.getEpochDay(row);
+                if (day >= startDay && day <= endDay) {
+                    tasks.add(partition.tasks.get(row));
+                }
+            }
+        }
+        return tasks;
+    }
+
+    // Write the changed partitions back
+    void flush() {
+        for (Map.Entry<Integer, Partition> entry : loaded.entrySet()) {
+            write(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private Partition partition(int month) {
+        Partition partition = loaded.get(month);
+        if (partition != null) {
+            return partition;
+        }
+        partition = new Partition();
+        if (months.contains(month)) {
+            File file = fileFor(month);
+            SnapshotCache cache = SnapshotCache.read(file, partition.tasks);
+            if (cache != null) {
+                partition.fingerprints = Arrays.copyOf(cache.fingerprints, Math.max(16, cache.fingerprints.length));
+                for (int row = 0; row < partition.tasks.size(); row++) {
+                    ExcelDataReader.TaskData task = partition.tasks.get(row);
+                    partition.rowsByKey.put(ExcelDataReader.taskKey(task.getDocumentSerial(), task.getReferenceNumber(),
+                            partition.fingerprints[row]), row);
+                }
+            } else {
+                // Keep the damaged file for inspection instead of overwriting it with the tasks archived from now on
+                File damaged = new File(file.getPath() + ".damaged");
+                System.err.println("History partition " + file + " cannot be read, it is renamed to " + damaged.getName());
+                file.renameTo(damaged);
+            }
+        }
+        months.add(month);
+        loaded.put(month, partition);
+
+        Iterator<Map.Entry<Integer, Partition>> eldest = loaded.entrySet().iterator();
+        while (loaded.size() > LOADED_MONTHS) {
+            Map.Entry<Integer, Partition> entry = eldest.next();
+            write(entry.getKey(), entry.getValue());
+            eldest.remove();
+        }
+        return partition;
+    }
+
+    private void write(int month, Partition partition) {
+        if (!partition.dirty) {
+            return;
+        }
+        SnapshotCache cache = new SnapshotCache();
+        cache.fingerprints = Arrays.copyOf(partition.fingerprints, partition.tasks.size());
+        for (int row = 0; row < partition.tasks.size(); row++) {
+            ExcelDataReader.TaskData task = partition.tasks.get(row);
+            TaskStatus status = task.getStatus();
+            cache.dailyStats.computeIfAbsent(task.getEpochDay(), d -> new TaskCounters())
+                    .addTask(status == TaskStatus.PENDING, status == TaskStatus.LODGE, task.isTatTracked(), task.isWithinTargetTat());
+        }
+        for (TaskCounters counters : cache.dailyStats.values()) {
+            cache.ongoing += counters.getOngoing();
+            cache.completed += counters.getCompleted();
+            cache.withinTat += counters.getWithinTat();
+            cache.overTat += counters.getOverTat();
+        }
+        try {
+            directory.mkdirs();
+            cache.write(fileFor(month), partition.tasks);
+            partition.dirty = false;
+        } catch (IOException e) {
+            // Stays dirty and is written again with the next flush
+            e.printStackTrace();
+        }
+    }
+
+    private void count(ExcelDataReader.TaskData task, boolean add) {
+        TaskStatus status = task.getStatus();
+        boolean pending = status == TaskStatus.PENDING;
+        boolean lodged = status == TaskStatus.LODGE;
+        boolean tatTracked = task.isTatTracked();
+        boolean withinTat = tatTracked && task.isWithinTargetTat();
+        TaskCounters day = dailyCounters.computeIfAbsent(task.getEpochDay(), d -> new TaskCounters());
+        if (add) {
+            day.addTask(pending, lodged, tatTracked, withinTat);
+            totals.addTask(pending, lodged, tatTracked, withinTat);
+        } else {
+            day.removeTask(pending, lodged, tatTracked, withinTat);
+            totals.removeTask(pending, lodged, tatTracked, withinTat);
+            if (day.isEmpty()) {
+                dailyCounters.remove(task.getEpochDay());
+            }
+        }
+    }
+
+    private File fileFor(int month) {
+        return new File(directory, String.format("tasks-%04d-%02d.bin", month / 12, month % 12 + 1));
+    }
+
+    private static int monthOf(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    // Month of a partition file name, -1 if it is not one
+    private static int monthOf(String fileName) {
+        if (!fileName.matches("tasks-\\d{4}-\\d{2}\\.bin")) {
+            return -1;
+        }
+        int year = Integer.parseInt(fileName.substring(6, 10));
+        int month = Integer.parseInt(fileName.substring(11, 13));
+        return month >= 1 && month <= 12 ? year * 12 + month - 1 : -1;
+    }
+
+    // Day and fingerprint of an archived task
+    private static class Archived {
+        private final int day;
+        private final long fingerprint;
+
+        Archived(int day, long fingerprint) {
+            this.day = day;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    // The tasks of one month
+    private static class Partition {
+        private TaskStore tasks = new ListTaskStore();
+        private final Map<String, Integer> rowsByKey = new HashMap<>();
+        private long[] fingerprints = new long[16];
+        private boolean dirty;
+
+        void add(String key, long fingerprint, ExcelDataReader.TaskData task) {
+            int row = tasks.size();
+            if (row == fingerprints.length) {
+                fingerprints = Arrays.copyOf(fingerprints, row * 2);
+            }
+            fingerprints[row] = fingerprint;
+            rowsByKey.put(key, row);
+            tasks.add(task);
+            dirty = true;
+        }
+
+        // Drop rows and renumber the rest
+        void remove(BitSet rows) {
+            int[] newRows = new int[tasks.size()];
+            TaskStore kept = new ListTaskStore();
+            for (int row = 0; row < tasks.size(); row++) {
+                if (rows.get(row)) {
+                    newRows[row] = -1;
+                    continue;
+                }
+                newRows[row] = kept.size();
+                fingerprints[kept.size()] = fingerprints[row];
+                kept.add(tasks.get(row));
+            }
+            rowsByKey.entrySet().removeIf(entry -> newRows[entry.getValue()] < 0);
+            rowsByKey.replaceAll((key, row) -> newRows[row]);
+            tasks = kept;
+            dirty = true;
+        }
+    }
+}
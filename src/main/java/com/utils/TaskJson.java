@@ -0,0 +1,115 @@
+package com.utils;
+
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONConfig;
+import cn.hutool.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// JSON form of a task exchanged by SnapshotServer and SnapshotClient: one array per task with the values
+// in FIELDS order, dates, times and durations in their numeric form
+final class TaskJson {
+    // Null values have to be kept, the fields are identified by their position
+    static final JSONConfig CONFIG = JSONConfig.create().setIgnoreNullValue(false);
+
+    static final String[] FIELDS = {
+            "documentSerial", "referenceNumber", "amount", "clientName", "statusText", "handler",
+            "documentType", "epochDay", "tat", "applicationReceivedAt", "scannedAt", "totalTimeAtBranch",
+            "verifiedAt", "totalTimeForVerification", "lodgementStartedAt", "confirmedAt", "totalTimeForEntry",
+            "complianceVerifiedAt", "authorizedAt"
+    };
+
+    private TaskJson() {
+    }
+
+    static JSONArray toJson(ExcelDataReader.TaskData task) {
+        JSONArray values = new JSONArray(FIELDS.length, CONFIG);
+        values.add(task.getDocumentSerial());
+        values.add(task.getReferenceNumber());
+        values.add(task.getAmount());
+        values.add(task.getClientName());
+        values.add(task.getStatusText());
+        values.add(task.getHandler());
+        values.add(task.getDocumentType());
+        values.add(task.getEpochDay());
+        values.add(task.getTat());
+        values.add(task.getApplicationReceivedAt());
+        values.add(task.getScannedAt());
+        values.add(task.getTotalTimeAtBranch());
+        values.add(task.getVerifiedAt());
+        values.add(task.getTotalTimeForVerification());
+        values.add(task.getLodgementStartedAt());
+        values.add(task.getConfirmedAt());
+        values.add(task.getTotalTimeForEntry());
+        values.add(task.getComplianceVerifiedAt());
+        values.add(task.getAuthorizedAt());
+        return values;
+    }
+
+    static ExcelDataReader.TaskData fromJson(JSONArray values) {
+        String statusText = intern(values.getStr(4));
+        return new ExcelDataReader.TaskData(
+                values.getStr(0),
+                values.getStr(1),
+                values.getStr(2),
+                values.getStr(3),
+                TaskStatus.fromText(statusText),
+                statusText,
+                values.getInt(8),
+                values.getStr(5),
+                values.getInt(7),
+                intern(values.getStr(6)),
+                values.getLong(9),
+                values.getLong(10),
+                values.getInt(11),
+                values.getLong(12),
+                values.getInt(13),
+                values.getLong(14),
+                values.getLong(15),
+                values.getInt(16),
+                values.getLong(17),
+                values.getLong(18));
+    }
+
+    // Daily counters by epoch day, each as [new, ongoing, completed, withinTat, overTat]
+    static JSONObject countersToJson(Map<Integer, TaskCounters> days) {
+        JSONObject json = new JSONObject(CONFIG);
+        for (Map.Entry<Integer, TaskCounters> entry : days.entrySet()) {
+            TaskCounters counters = entry.getValue();
+            JSONArray values = new JSONArray(5, CONFIG);
+            values.add(counters.getNewTasks());
+            values.add(counters.getOngoing());
+            values.add(counters.getCompleted());
+            values.add(counters.getWithinTat());
+            values.add(counters.getOverTat());
+            json.set(String.valueOf(entry.getKey()), values);
+        }
+        return json;
+    }
+
+    static Map<Integer, TaskCounters> countersFromJson(JSONObject json) {
+        Map<Integer, TaskCounters> days = new TreeMap<>();
+        for (String day : json.keySet()) {
+            JSONArray values = json.getJSONArray(day);
+            days.put(Integer.valueOf(day), new TaskCounters(values.getInt(0), values.getInt(1), values.getInt(2),
+                    values.getInt(3), values.getInt(4)));
+        }
+        return days;
+    }
+
+    // Overall counters by key ("NEW", "ONGOING", ...)
+    static Map<String, Integer> totalsFromJson(JSONObject json) {
+        Map<String, Integer> totals = new HashMap<>();
+        for (String key : json.keySet()) {
+            totals.put(key, json.getInt(key));
+        }
+        return totals;
+    }
+
+    // Low-cardinality columns share one String instance per distinct value, as when reading the workbook
+    private static String intern(String value) {
+        return value == null ? null : value.intern();
+    }
+}
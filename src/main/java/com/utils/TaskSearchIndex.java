@@ -0,0 +1,227 @@
+package com.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Search index over the rows of one task store: the document serials and reference numbers as whole values,
+// and the words of the client names and handlers. Each is a sorted term array whose rows sit in one row array
+// in term order, so an exact term is one binary search and a prefix is two searches and a contiguous slice.
+// The store must not change after the index is built; the reader builds one per published version
+public final class TaskSearchIndex {
+    private final TaskStore store;
+    private final Postings serials;
+    private final Postings references;
+    private final Postings clients;
+    private final Postings handlers;
+
+    private TaskSearchIndex(TaskStore store, Postings serials, Postings references, Postings clients, Postings handlers) {
+        this.store = store;
+        this.serials = serials;
+        this.references = references;
+        this.clients = clients;
+        this.handlers = handlers;
+    }
+
+    static TaskSearchIndex build(TaskStore store) {
+        PostingsBuilder serials = new PostingsBuilder();
+        PostingsBuilder references = new PostingsBuilder();
+        PostingsBuilder clients = new PostingsBuilder();
+        PostingsBuilder handlers = new PostingsBuilder();
+        List<String> words = new ArrayList<>();
+        for (int row = 0; row < store.size(); row++) {
+            ExcelDataReader.TaskData task = store.get(row);
+            serials.add(normalize(task.getDocumentSerial()), row);
+            references.add(normalize(task.getReferenceNumber()), row);
+            tokenize(task.getClientName(), words);
+            for (String word : words) {
+                clients.add(word, row);
+            }
+            tokenize(task.getHandler(), words);
+            for (String word : words) {
+                handlers.add(word, row);
+            }
+        }
+        return new TaskSearchIndex(store, serials.build(), references.build(), clients.build(), handlers.build());
+    }
+
+    TaskStore getTaskStore() {
+        return store;
+    }
+
+    // Rows matching every whitespace separated term of a query, ascending; null if the query is blank.
+    // A term matches a row whose document serial or reference number is the term, or whose client name or
+    // handler has all the words of the term. The last term matches by prefix while it is still being typed,
+    // i.e. unless the query ends with a space
+    public int[] search(String query) {
+        String[] terms = query.toLowerCase(Locale.ROOT).trim().split("\\s+");
+        if (terms[0].isEmpty()) {
+            return null;
+        }
+        boolean typing = !Character.isWhitespace(query.charAt(query.length() - 1));
+        List<String> words = new ArrayList<>();
+        BitSet result = null;
+        for (int i = 0; i < terms.length; i++) {
+            boolean prefix = typing && i == terms.length - 1;
+            BitSet matches = new BitSet(store.size());
+            serials.lookup(terms[i], prefix, matches);
+            references.lookup(terms[i], prefix, matches);
+
+            tokenize(terms[i], words);
+            BitSet wordMatches = null;
+            for (int w = 0; w < words.size(); w++) {
+                boolean wordPrefix = prefix && w == words.size() - 1;
+                BitSet rows = new BitSet(store.size());
+                clients.lookup(words.get(w), wordPrefix, rows);
+                handlers.lookup(words.get(w), wordPrefix, rows);
+                if (wordMatches == null) {
+                    wordMatches = rows;
+                } else {
+                    wordMatches.and(rows);
+                }
+            }
+            if (wordMatches != null) {
+                matches.or(wordMatches);
+            }
+
+            if (result == null) {
+                result = matches;
+            } else {
+                result.and(matches);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result.stream().toArray();
+    }
+
+    // Whole values are matched without surrounding spaces and case
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Lower case runs of letters and digits, e.g. "Chan Tai-man" gives "chan", "tai", "man"
+    private static void tokenize(String text, List<String> words) {
+        words.clear();
+        if (text == null) {
+            return;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean inWord = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                String word = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!words.contains(word)) {
+                    words.add(word);
+                }
+                start = -1;
+            }
+        }
+    }
+
+    // Terms in ascending order; the rows of terms[i] are rows[offsets[i]] .. rows[offsets[i + 1] - 1], ascending
+    private static class Postings {
+        private final String[] terms;
+        private final int[] offsets;
+        private final int[] rows;
+
+        Postings(String[] terms, int[] offsets, int[] rows) {
+            this.terms = terms;
+            this.offsets = offsets;
+            this.rows = rows;
+        }
+
+        // Add the rows of a term, or of all terms starting with it, to target
+        void lookup(String term, boolean prefix, BitSet target) {
+            int from;
+            int to;
+            if (prefix) {
+                from = lowerBound(term);
+                to = lowerBound(term + Character.MAX_VALUE);
+            } else {
+                from = Arrays.binarySearch(terms, term);
+                if (from < 0) {
+                    return;
+                }
+                to = from + 1;
+            }
+            for (int i = offsets[from]; i < offsets[to]; i++) {
+                target.set(rows[i]);
+            }
+        }
+
+        // Position of the first term not less than the key
+        private int lowerBound(String key) {
+            int low = 0;
+            int high = terms.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (terms[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    // Collects (term, row) pairs in row order and sorts them into postings
+    private static class PostingsBuilder {
+        private final Map<String, Integer> termIds = new HashMap<>();
+        private final List<String> terms = new ArrayList<>();
+        private int[] pairTerms = new int[16];
+        private int[] pairRows = new int[16];
+        private int pairCount;
+
+        void add(String term, int row) {
+            if (term.isEmpty()) {
+                return;
+            }
+            Integer id = termIds.get(term);
+            if (id == null) {
+                id = terms.size();
+                termIds.put(term, id);
+                terms.add(term);
+            }
+            if (pairCount == pairTerms.length) {
+                pairTerms = Arrays.copyOf(pairTerms, pairCount * 2);
+                pairRows = Arrays.copyOf(pairRows, pairCount * 2);
+            }
+            pairTerms[pairCount] = id;
+            pairRows[pairCount] = row;
+            pairCount++;
+        }
+
+        Postings build() {
+            String[] sorted = terms.toArray(new String[0]);
+            Arrays.sort(sorted);
+            int[] position = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                position[termIds.get(sorted[i])] = i;
+            }
+
+            // Counting sort of the pairs by term position; rows stay ascending because pairs were added in row order
+            int[] offsets = new int[sorted.length + 1];
+            for (int i = 0; i < pairCount; i++) {
+                offsets[position[pairTerms[i]] + 1]++;
+            }
+            for (int i = 0; i < sorted.length; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            int[] next = Arrays.copyOf(offsets, sorted.length);
+            int[] rows = new int[pairCount];
+            for (int i = 0; i < pairCount; i++) {
+                rows[next[position[pairTerms[i]]]++] = pairRows[i];
+            }
+            return new Postings(sorted, offsets, rows);
+        }
+    }
+}
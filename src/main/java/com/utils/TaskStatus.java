@@ -0,0 +1,23 @@
+package com.utils;
+
+// Task status codes, resolved once when a row is ingested
+public enum TaskStatus {
+    PENDING,
+    LODGE,
+    OTHER;
+
+    // Map the Status column to a code, comparison is case-insensitive like the rest of the dashboard
+    public static TaskStatus fromText(String status) {
+        if (status == null) {
+            return OTHER;
+        }
+        String value = status.trim();
+        if ("PENDING".equalsIgnoreCase(value)) {
+            return PENDING;
+        }
+        if ("LODGE".equalsIgnoreCase(value)) {
+            return LODGE;
+        }
+        return OTHER;
+    }
+}
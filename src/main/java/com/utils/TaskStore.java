@@ -0,0 +1,47 @@
+package com.utils;
+
+import java.util.List;
+
+// Storage engine behind ExcelDataReader, rows are addressed by their ingest position
+public interface TaskStore {
+
+    // Append a task as the last row
+    void add(ExcelDataReader.TaskData task);
+
+    // Replace the task at the given row
+    void set(int row, ExcelDataReader.TaskData task);
+
+    // Task at the given row; column-wise stores materialize a new record on every call
+    ExcelDataReader.TaskData get(int row);
+
+    // Date of the given row as an epoch day, without materializing the task
+    int getEpochDay(int row);
+
+    // RowStyle of the given row, kept next to the row when it is stored
+    byte getRowStyle(int row);
+
+    int size();
+
+    void clear();
+
+    // Independent copy that later changes to this store do not affect. The copy shares the stored chunks
+    // with this store and either side copies a chunk before writing to it, so the cost is per chunk, not per row
+    TaskStore copy();
+
+    // Read-only list view over all rows
+    List<ExcelDataReader.TaskData> asList();
+
+    // Approximate heap used by the stored rows, in bytes
+    long estimateMemoryBytes();
+
+    // Short name used in reports
+    String getName();
+
+    // Create the engine selected by the "dashboard.store" system property ("list" or "columnar")
+    static TaskStore create(String kind) {
+        if ("columnar".equalsIgnoreCase(kind)) {
+            return new ColumnarTaskStore();
+        }
+        return new ListTaskStore();
+    }
+}
@@ -0,0 +1,140 @@
+package com.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Watches the workbook's directory and reports a change once the file has stopped changing,
+// so half-written saves from Excel or the export job are never handed to the parser
+public class WorkbookWatcher implements Closeable {
+    private final Path file;
+    private final long debounceMillis;
+    private final Runnable onChange;
+
+    private WatchService watchService;
+    private Thread watchThread;
+    private final ScheduledExecutorService debouncer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "workbook-debounce");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Pending stability check, replaced by every new event
+    private ScheduledFuture<?> pendingCheck;
+
+    // Size and modification time seen by the previous stability check
+    private long checkedSize = -1;
+    private long checkedModified = -1;
+
+    public WorkbookWatcher(String filePath, long debounceMillis, Runnable onChange) {
+        this.file = new File(filePath).getAbsoluteFile().toPath();
+        this.debounceMillis = debounceMillis;
+        this.onChange = onChange;
+    }
+
+    // Start watching, returns false if the file system does not support watching this directory
+    public boolean start() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException e) {
+            System.err.println("Cannot watch " + file.getParent() + ": " + e.getMessage());
+            close();
+            return false;
+        }
+
+        watchThread = new Thread(this::watchLoop, "workbook-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        return true;
+    }
+
+    private void watchLoop() {
+        Path fileName = file.getFileName();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                boolean relevant = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    // Overflow means events were lost, so the workbook may have changed
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                        relevant = true;
+                    }
+                }
+                if (relevant) {
+                    scheduleCheck();
+                }
+                if (!key.reset()) {
+                    System.err.println("Stopped watching " + file.getParent() + ", the directory is no longer accessible");
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Watcher closed
+        }
+    }
+
+    // Restart the quiet period; the check only runs once no event arrived for debounceMillis
+    private synchronized void scheduleCheck() {
+        if (pendingCheck != null) {
+            pendingCheck.cancel(false);
+        }
+        pendingCheck = debouncer.schedule(this::checkStable, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Report the change only if size and mtime held still over a quiet period and the file can be opened
+    private synchronized void checkStable() {
+        File workbook = file.toFile();
+        long size = workbook.length();
+        long modified = workbook.lastModified();
+        boolean stable = size > 0 && size == checkedSize && modified == checkedModified && canOpen(workbook);
+        checkedSize = size;
+        checkedModified = modified;
+
+        if (stable) {
+            pendingCheck = null;
+            onChange.run();
+        } else if (workbook.exists()) {
+            pendingCheck = debouncer.schedule(this::checkStable, debounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // A file still locked by the writer cannot be opened on Windows
+    private static boolean canOpen(File workbook) {
+        try {
+            new RandomAccessFile(workbook, "r").close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        debouncer.shutdownNow();
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.utils;
+
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BusinessCalendarTest {
+    private static final DateTimeFormatter WEEK_LABEL = DateTimeFormatter.ofPattern("MM.dd");
+
+    @Test
+    public void weeksMatchTheWeekendOnlyLogic() {
+        BusinessCalendar calendar = new BusinessCalendar(Collections.emptySet());
+        for (int year = 2024; year <= 2027; year++) {
+            for (int month = 1; month <= 12; month++) {
+                List<String> expected = weekendOnlyWeeks(LocalDate.of(year, month, 1));
+                List<String> actual = new ArrayList<>();
+                for (BusinessCalendar.Week week : calendar.getWeeks(year, month)) {
+                    actual.add(week.getLabel() + " " + week.getStart() + " " + week.getEnd());
+                }
+                assertEquals(year + "-" + month, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void holidayOnAMonday() {
+        // 1 April 2024 (Easter Monday) starts the month, 15 April is a Monday mid-month
+        BusinessCalendar calendar = new BusinessCalendar(days(LocalDate.of(2024, 4, 1), LocalDate.of(2024, 4, 15)));
+        assertFalse(calendar.isWorkday(day(2024, 4, 1)));
+        assertNull(calendar.getWeek(day(2024, 4, 1)));
+        assertEquals(1, calendar.getWorkdayOfMonth(day(2024, 4, 2)));
+        assertEquals(10, calendar.getWorkdayOfMonth(day(2024, 4, 16)));
+
+        List<BusinessCalendar.Week> weeks = calendar.getWeeks(2024, 4);
+        assertEquals(5, weeks.size());
+        assertEquals("Week 1(04.02-04.05)", weeks.get(0).getLabel());
+        assertEquals("Week 3(04.16-04.19)", weeks.get(2).getLabel());
+        assertEquals("Week 5(04.29-04.30)", weeks.get(4).getLabel());
+        assertEquals(3, calendar.getWeek(day(2024, 4, 19)).getNumber());
+
+        assertEquals(Arrays.asList(LocalDate.of(2024, 3, 28), LocalDate.of(2024, 3, 29), LocalDate.of(2024, 4, 2)),
+                calendar.getLastWorkdays(LocalDate.of(2024, 4, 2), 3));
+        assertEquals(Arrays.asList(LocalDate.of(2024, 4, 12), LocalDate.of(2024, 4, 16)),
+                calendar.getLastWorkdays(LocalDate.of(2024, 4, 16), 2));
+    }
+
+    @Test
+    public void monthStartingOnAWeekend() {
+        // June 2024 starts on a Saturday, September 2024 on a Sunday
+        BusinessCalendar calendar = new BusinessCalendar(Collections.emptySet());
+        assertEquals(0, calendar.getWorkdayOfMonth(day(2024, 6, 1)));
+        assertEquals(0, calendar.getWorkdayOfMonth(day(2024, 6, 2)));
+        assertNull(calendar.getWeek(day(2024, 6, 2)));
+        assertEquals(1, calendar.getWorkdayOfMonth(day(2024, 6, 3)));
+        List<BusinessCalendar.Week> june = calendar.getWeeks(2024, 6);
+        assertEquals(4, june.size());
+        assertEquals("Week 1(06.03-06.07)", june.get(0).getLabel());
+        assertEquals("Week 4(06.24-06.28)", june.get(3).getLabel());
+        assertEquals(20, calendar.getWorkdayOfMonth(day(2024, 6, 28)));
+
+        assertEquals("Week 1(09.02-09.06)", calendar.getWeeks(2024, 9).get(0).getLabel());
+        assertEquals(1, calendar.getWeek(day(2024, 9, 2)).getNumber());
+    }
+
+    @Test
+    public void weekWithoutWorkdaysIsLeftOut() {
+        Set<Integer> holidays = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            holidays.add(day(2025, 2, 10 + i));
+        }
+        List<BusinessCalendar.Week> weeks = new BusinessCalendar(holidays).getWeeks(2025, 2);
+        assertEquals(3, weeks.size());
+        assertEquals("Week 1(02.03-02.07)", weeks.get(0).getLabel());
+        assertEquals("Week 2(02.17-02.21)", weeks.get(1).getLabel());
+        assertTrue(new BusinessCalendar(holidays).isHoliday(day(2025, 2, 12)));
+    }
+
+    // The Monday-Friday weeks of a month as worked out before holidays were known, one "label start end" each
+    private static List<String> weekendOnlyWeeks(LocalDate firstDayOfMonth) {
+        List<String> weeks = new ArrayList<>();
+        LocalDate lastDayOfMonth = firstDayOfMonth.withDayOfMonth(firstDayOfMonth.lengthOfMonth());
+        LocalDate currentDate = firstDayOfMonth;
+        int weekNumber = 1;
+        while (currentDate.getMonth() == firstDayOfMonth.getMonth()) {
+            if (isWeekend(currentDate)) {
+                currentDate = currentDate.plusDays(1);
+                continue;
+            }
+            LocalDate weekEnd = currentDate;
+            while (weekEnd.isBefore(lastDayOfMonth) && weekEnd.getDayOfWeek() != DayOfWeek.FRIDAY) {
+                weekEnd = weekEnd.plusDays(1);
+            }
+            weeks.add(String.format("Week %d(%s-%s)", weekNumber++, currentDate.format(WEEK_LABEL), weekEnd.format(WEEK_LABEL))
+                    + " " + currentDate + " " + weekEnd);
+            currentDate = weekEnd.plusDays(1);
+            while (isWeekend(currentDate)) {
+                currentDate = currentDate.plusDays(1);
+            }
+        }
+        return weeks;
+    }
+
+    private static boolean isWeekend(LocalDate date) {
+        return date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+    }
+
+    private static Set<Integer> days(LocalDate... dates) {
+        Set<Integer> days = new HashSet<>();
+        for (LocalDate date : dates) {
+            days.add((int) date.toEpochDay());
+        }
+        return days;
+    }
+
+    private static int day(int year, int month, int dayOfMonth) {
+        return (int) LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+}
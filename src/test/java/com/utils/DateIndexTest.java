@@ -0,0 +1,98 @@
+package com.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DateIndexTest {
+    // Rows 0..5 dated 10, 12, 10, NO_DATE, 15, 12
+    private static final int[] DAYS = {10, 12, 10, TaskFields.NO_DATE, 15, 12};
+
+    @Test
+    public void rangeIncludesBothBounds() {
+        DateIndex index = DateIndex.build(store());
+        assertEquals(serials(0, 2, 1, 5, 4), serials(index.range(10, 15)));
+        assertEquals(serials(0, 2), serials(index.range(10, 10)));
+        assertEquals(serials(1, 5), serials(index.range(11, 12)));
+        assertEquals(serials(1, 5, 4), serials(index.range(12, 100)));
+    }
+
+    @Test
+    public void rangeOutsideTheDaysIsEmpty() {
+        DateIndex index = DateIndex.build(store());
+        assertTrue(index.range(0, 9).isEmpty());
+        assertTrue(index.range(16, 20).isEmpty());
+        assertTrue(index.range(13, 14).isEmpty());
+        assertTrue(index.range(15, 10).isEmpty());
+    }
+
+    @Test
+    public void rowsWithoutDateSortFirst() {
+        DateIndex index = DateIndex.build(store());
+        assertEquals(4, index.dayCount());
+        assertEquals(TaskFields.NO_DATE, index.day(0));
+        assertEquals(serials(3), serials(index.range(TaskFields.NO_DATE, TaskFields.NO_DATE)));
+        assertEquals(serials(3, 0, 2), serials(index.range(TaskFields.NO_DATE, 10)));
+    }
+
+    @Test
+    public void marksRowsOfRange() {
+        DateIndex index = DateIndex.build(store());
+        BitSet rows = new BitSet();
+        index.markRange(11, 15, rows);
+        assertEquals("{1, 4, 5}", rows.toString());
+        index.markRange(15, 11, rows);
+        assertEquals(3, rows.cardinality());
+    }
+
+    @Test
+    public void copiesRowsByDay() {
+        DateIndex index = DateIndex.build(store());
+        int[] rows = new int[index.rowCount()];
+        int count = index.copyRows(1, rows, 0);
+        count = index.copyRows(3, rows, count);
+        assertEquals(3, count);
+        assertEquals(0, rows[0]);
+        assertEquals(2, rows[1]);
+        assertEquals(4, rows[2]);
+    }
+
+    @Test
+    public void emptyStore() {
+        DateIndex index = DateIndex.build(new ListTaskStore());
+        assertEquals(0, index.dayCount());
+        assertTrue(index.range(0, 100).isEmpty());
+    }
+
+    private static TaskStore store() {
+        TaskStore store = new ColumnarTaskStore();
+        for (int row = 0; row < DAYS.length; row++) {
+            store.add(new ExcelDataReader.TaskData(String.valueOf(row), null, null, null, TaskStatus.OTHER, null,
+                    TaskFields.NO_DURATION, null, DAYS[row], null, TaskFields.NO_TIME, TaskFields.NO_TIME,
+                    TaskFields.NO_DURATION, TaskFields.NO_TIME, TaskFields.NO_DURATION, TaskFields.NO_TIME,
+                    TaskFields.NO_TIME, TaskFields.NO_DURATION, TaskFields.NO_TIME, TaskFields.NO_TIME));
+        }
+        return store;
+    }
+
+    private static List<String> serials(List<ExcelDataReader.TaskData> tasks) {
+        List<String> serials = new ArrayList<>();
+        for (ExcelDataReader.TaskData task : tasks) {
+            serials.add(task.getDocumentSerial());
+        }
+        return serials;
+    }
+
+    private static List<String> serials(int... rows) {
+        List<String> serials = new ArrayList<>();
+        for (int row : rows) {
+            serials.add(String.valueOf(row));
+        }
+        return serials;
+    }
+}
@@ -0,0 +1,153 @@
+package com.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DelimitedTaskReaderTest {
+    private static final String HEADER = "Date\tDocumentSerial\tStatus\tReferenceNumber\tAuthorizedBy\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void splitsPlainValues() {
+        assertEquals(Arrays.asList("a", "b", "", "c", ""), DelimitedTaskReader.split("a,b,,c,", ','));
+        assertEquals(Arrays.asList("a b", "c"), DelimitedTaskReader.split("a b\tc", '\t'));
+        assertEquals(Arrays.asList(""), DelimitedTaskReader.split("", ','));
+    }
+
+    @Test
+    public void splitsQuotedValues() {
+        assertEquals(Arrays.asList("USD 1,000.00", "C Co.Ltd"), DelimitedTaskReader.split("\"USD 1,000.00\",C Co.Ltd", ','));
+        assertEquals(Arrays.asList("say \"hi\"", "x"), DelimitedTaskReader.split("\"say \"\"hi\"\"\",x", ','));
+        assertEquals(Arrays.asList("", "b"), DelimitedTaskReader.split("\"\",b", ','));
+        // A quote inside an unquoted value is kept as it is
+        assertEquals(Arrays.asList("5\" disk", "b"), DelimitedTaskReader.split("5\" disk,b", ','));
+    }
+
+    @Test
+    public void detectsDelimitedText() throws IOException {
+        File text = write("export.tsv", HEADER);
+        File zip = folder.newFile("data.xlsx");
+        try (FileOutputStream out = new FileOutputStream(zip)) {
+            out.write(new byte[]{'P', 'K', 3, 4, 0, 0});
+        }
+        assertTrue(DelimitedTaskReader.isDelimitedText(text.getPath()));
+        assertFalse(DelimitedTaskReader.isDelimitedText(zip.getPath()));
+    }
+
+    @Test
+    public void readsColumnsByHeaderName() throws IOException {
+        File file = write("export.tsv", "﻿" + HEADER.replace("\n", "\r\n")
+                + "7-Aug-26\t11500000\tLodge\t643000000\tJack\r\n");
+        List<ExcelDataReader.ExcelModel> rows = new ArrayList<>();
+        new DelimitedTaskReader(file.getPath()).readAll(rows::add);
+
+        assertEquals(1, rows.size());
+        ExcelDataReader.ExcelModel row = rows.get(0);
+        assertEquals("7-Aug-26", row.getDate());
+        assertEquals("11500000", row.getDocumentSerial());
+        assertEquals("Lodge", row.getStatus());
+        assertEquals("643000000", row.getReferenceNumber());
+        assertEquals("Jack", row.getHandler());
+    }
+
+    @Test
+    public void readsOnlyAppendedLines() throws IOException {
+        File file = write("export.tsv", HEADER + "7-Aug-26\t1\tLodge\t10\tJack\n");
+        DelimitedTaskReader reader = new DelimitedTaskReader(file.getPath());
+        List<ExcelDataReader.ExcelModel> rows = new ArrayList<>();
+        reader.readAll(rows::add);
+        long offset = reader.getOffset();
+
+        append(file, "8-Aug-26\t2\tPending\t20\tJason\n");
+        rows.clear();
+        assertTrue(reader.readAppended(rows::add));
+        assertEquals(1, rows.size());
+        assertEquals("2", rows.get(0).getDocumentSerial());
+        assertEquals(file.length(), reader.getOffset());
+        assertTrue(reader.getOffset() > offset);
+    }
+
+    @Test
+    public void rewrittenFileIsNotReadAsAppended() throws IOException {
+        File file = write("export.tsv", HEADER + "7-Aug-26\t1\tLodge\t10\tJack\n");
+        DelimitedTaskReader reader = new DelimitedTaskReader(file.getPath());
+        reader.readAll(row -> { });
+
+        write("export.tsv", HEADER + "7-Aug-26\t1\tPending\t10\tJack\n8-Aug-26\t2\tLodge\t20\tJason\n");
+        assertFalse(reader.readAppended(row -> { }));
+    }
+
+    @Test
+    public void unterminatedLastLineIsReadAgain() throws IOException {
+        // The writer is caught in the middle of the last field
+        File file = write("export.tsv", HEADER + "7-Aug-26\t1\tLodge\t10\tJack\n8-Aug-26\t2\tPending\t20\tJa");
+        DelimitedTaskReader reader = new DelimitedTaskReader(file.getPath());
+        List<ExcelDataReader.ExcelModel> rows = new ArrayList<>();
+        reader.readAll(rows::add);
+        assertEquals(2, rows.size());
+        assertEquals("Ja", rows.get(1).getHandler());
+        long lineStart = file.length() - "8-Aug-26\t2\tPending\t20\tJa".length();
+        assertEquals(lineStart, reader.getOffset());
+
+        // The rest of the line is not taken as a line of its own, the whole line is read again
+        append(file, "son\n");
+        rows.clear();
+        assertTrue(reader.readAppended(rows::add));
+        assertEquals(1, rows.size());
+        assertEquals("2", rows.get(0).getDocumentSerial());
+        assertEquals("Jason", rows.get(0).getHandler());
+        assertEquals(file.length(), reader.getOffset());
+    }
+
+    @Test
+    public void lastLineWithMissingColumnsIsNotTaken() throws IOException {
+        File file = write("export.tsv", HEADER + "7-Aug-26\t1\tLodge\t10\tJack\n8-Aug-26\t2\tPend");
+        List<ExcelDataReader.ExcelModel> rows = new ArrayList<>();
+        new DelimitedTaskReader(file.getPath()).readAll(rows::add);
+        assertEquals(1, rows.size());
+    }
+
+    @Test
+    public void readerReplacesTruncatedLastRow() throws IOException {
+        File file = write("export.tsv", HEADER + "7-Aug-26\t1\tLodge\t10\tJack\n8-Aug-26\t2\tPending\t20\tJa");
+        ExcelDataReader reader = new ExcelDataReader(file.getPath(), new ListTaskStore());
+        reader.readExcelData();
+        assertEquals(2, reader.getTaskList().size());
+
+        append(file, "son\n");
+        assertTrue(reader.refresh());
+        List<ExcelDataReader.TaskData> tasks = reader.getTaskList();
+        assertEquals(2, tasks.size());
+        assertEquals("Jason", tasks.get(1).getHandler());
+        assertEquals(1, reader.getOngoingTasksCount());
+    }
+
+    private File write(String name, String text) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    private static void append(File file, String text) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ExcelDataReaderTest {
+    private static final String HEADER = "Date\tDocumentType\tDocumentSerial\tStatus\tReferenceNumber"
+            + "\tDescription (ClientDetail)\tTAT\tAuthorizedBy\n";
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("d-MMM-yy", Locale.ENGLISH);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void incrementalReadsMatchFullRead() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            lines.add(line(i, i % 4 == 0 ? "Pending" : "Lodge"));
+        }
+        File file = write(lines);
+        ExcelDataReader reader = new ExcelDataReader(file.getPath(), new ColumnarTaskStore());
+        reader.readExcelData();
+        DataSnapshot first = reader.createSnapshot();
+
+        // Appended rows are read from the previous offset
+        for (int i = 3000; i < 3500; i++) {
+            lines.add(line(i, "Pending"));
+        }
+        write(lines);
+        assertTrue(reader.refresh());
+
+        // Rows taken out and rows moved from PENDING to LODGE make the file shorter, so it is read in full
+        lines.remove(10);
+        lines.remove(2000);
+        for (int i = 0; i < 3500; i += 40) {
+            lines.set(i, lines.get(i).replace("\tPending\t", "\tLodge\t"));
+        }
+        write(lines);
+        assertTrue(reader.refresh());
+
+        ExcelDataReader fresh = new ExcelDataReader(file.getPath(), new ColumnarTaskStore());
+        fresh.readExcelData();
+        assertEquals(fresh.getTaskList(), reader.getTaskList());
+        assertEquals(fresh.getNewTasksCount(), reader.getNewTasksCount());
+        assertEquals(fresh.getOngoingTasksCount(), reader.getOngoingTasksCount());
+        assertEquals(fresh.getCompletedTasksCount(), reader.getCompletedTasksCount());
+        assertEquals(fresh.getNormalTATCount(), reader.getNormalTATCount());
+        assertEquals(fresh.getAbnormalTATCount(), reader.getAbnormalTATCount());
+        LocalDate today = LocalDate.now();
+        for (int day = 0; day < 30; day++) {
+            assertCounters(fresh.getDayCounters(today.minusDays(day)), reader.getDayCounters(today.minusDays(day)));
+        }
+        assertCounters(fresh.getRangeCounters(today.minusDays(29), today),
+                reader.getRangeCounters(today.minusDays(29), today));
+
+        DataSnapshot latest = reader.createSnapshot();
+        for (int row = 0; row < latest.getTaskStore().size(); row++) {
+            assertEquals(fresh.createSnapshot().getTaskStore().getRowStyle(row), latest.getRowStyle(row));
+        }
+
+        // The first version still holds the rows as they were read
+        assertEquals(3000, first.getTaskStore().size());
+        assertEquals("11500010", first.getTaskStore().get(10).getDocumentSerial());
+        assertEquals(TaskStatus.PENDING, first.getTaskStore().get(40).getStatus());
+    }
+
+    @Test
+    public void dateRangeViewsKeepTheirVersion() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            lines.add(line(i, "Pending"));
+        }
+        File file = write(lines);
+        ExcelDataReader reader = new ExcelDataReader(file.getPath(), new ListTaskStore());
+        reader.readExcelData();
+        LocalDate today = LocalDate.now();
+        List<ExcelDataReader.TaskData> range = reader.getTasksByDateRange(today.minusDays(1), today);
+        assertEquals(2, range.size());
+        assertEquals("11500000", range.get(1).getDocumentSerial());
+
+        // A later read replaces and removes rows; the view still shows the rows of its version
+        lines.remove(0);
+        lines.set(0, lines.get(0).replace("\tPending\t", "\tLodge\t"));
+        write(lines);
+        assertTrue(reader.refresh());
+        assertEquals(2, range.size());
+        assertEquals("11500001", range.get(0).getDocumentSerial());
+        assertEquals(TaskStatus.PENDING, range.get(0).getStatus());
+        assertEquals("11500000", range.get(1).getDocumentSerial());
+
+        List<ExcelDataReader.TaskData> latest = reader.getTasksByDateRange(today.minusDays(1), today);
+        assertEquals(1, latest.size());
+        assertEquals(TaskStatus.LODGE, latest.get(0).getStatus());
+    }
+
+    @Test
+    public void countersFollowReplacedTasks() {
+        TaskCounters counters = new TaskCounters();
+        counters.addTask(true, false, false, false);
+        counters.addTask(false, true, true, false);
+        counters.addTask(false, true, true, true);
+
+        // A pending task is lodged within the target TAT
+        counters.removeTask(true, false, false, false);
+        counters.addTask(false, true, true, true);
+        assertCounters(new TaskCounters(3, 0, 3, 2, 1), counters);
+
+        TaskCounters before = new TaskCounters(2, 1, 1, 0, 1);
+        TaskCounters delta = new TaskCounters();
+        delta.add(counters);
+        delta.subtract(before);
+        assertCounters(new TaskCounters(1, -1, 2, 2, 0), delta);
+    }
+
+    private static void assertCounters(TaskCounters expected, TaskCounters actual) {
+        assertEquals(expected.getNewTasks(), actual.getNewTasks());
+        assertEquals(expected.getOngoing(), actual.getOngoing());
+        assertEquals(expected.getCompleted(), actual.getCompleted());
+        assertEquals(expected.getWithinTat(), actual.getWithinTat());
+        assertEquals(expected.getOverTat(), actual.getOverTat());
+    }
+
+    // Export collections over the target TAT for every third row, spread over the last 30 days
+    private static String line(int i, String status) {
+        String tat = i % 3 == 0 ? "00005:00:00" : "00001:30:00";
+        String type = i % 2 == 0 ? "Ecoll - Export Collection" : "Icoll - Import Collection";
+        return LocalDate.now().minusDays(i % 30).format(DATE) + "\t" + type + "\t" + (11500000 + i) + "\t" + status
+                + "\t" + (643000000 + i) + "\tClient " + (i % 7) + "\t" + tat + "\tHandler " + (i % 5) + "\n";
+    }
+
+    private File write(List<String> lines) throws IOException {
+        File file = new File(folder.getRoot(), "export.tsv");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(HEADER.getBytes(StandardCharsets.UTF_8));
+            for (String line : lines) {
+                out.write(line.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return file;
+    }
+}
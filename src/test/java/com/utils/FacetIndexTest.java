@@ -0,0 +1,146 @@
+package com.utils;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FacetIndexTest {
+    private static final String EXPORT = "Ecoll - Export Collection";
+    private static final String IMPORT = "Icoll - Import Collection";
+
+    @Test
+    public void valuesOfOneFacetAreAlternatives() {
+        FacetIndex index = FacetIndex.build(store());
+        assertEquals("{0, 2, 4}", index.select(filter(set("Jack"), null, null)).toString());
+        assertEquals("{0, 1, 2, 4}", index.select(filter(set("Jack", "Jason"), null, null)).toString());
+        assertEquals("{1, 5}", index.select(filter(null, set("Pending"), null)).toString());
+    }
+
+    @Test
+    public void facetsAreCombined() {
+        FacetIndex index = FacetIndex.build(store());
+        assertEquals("{0, 4}", index.select(filter(set("Jack"), set("Lodge"), set(EXPORT))).toString());
+        assertEquals("{0, 2, 4}", index.select(filter(set("Jack", "Jason"), set("Lodge"), null)).toString());
+        assertTrue(index.select(filter(set("Jason"), set("Lodge"), null)).isEmpty());
+    }
+
+    @Test
+    public void valuesAreTrimmedAndMatchedWithoutCase() {
+        FacetIndex index = FacetIndex.build(store());
+        assertEquals(Arrays.asList("Jack", "Jason"), Arrays.asList(index.getHandlers().toArray()));
+        assertEquals("{0, 2, 4}", index.select(filter(set("JACK"), null, null)).toString());
+        // An unknown value selects nothing, a blank handler is never selected
+        assertTrue(index.select(filter(set("Jill"), null, null)).isEmpty());
+        assertFalse(index.select(filter(set("Jack", "Jason"), null, null)).get(3));
+        assertEquals(6, index.select(TaskFilter.NONE).cardinality());
+    }
+
+    @Test
+    public void dateWindowIncludesBothEnds() {
+        FacetIndex index = FacetIndex.build(store());
+        assertEquals("{2, 3, 4}", index.select(new TaskFilter(null, null, null, 11, 12)).toString());
+        assertEquals("{4, 5}", index.select(new TaskFilter(null, null, null, 12, TaskFields.NO_DATE)).toString());
+        assertEquals("{0, 1}", index.select(new TaskFilter(null, null, null, TaskFields.NO_DATE, 10)).toString());
+        assertEquals("{4}", index.select(new TaskFilter(null, null, set("Jack"), 12, 12)).toString());
+    }
+
+    @Test
+    public void countsAreIntersections() {
+        FacetIndex index = FacetIndex.build(store());
+        BitSet rows = index.select(filter(set("Jack", "Jason"), null, null));
+        TaskCounters counters = index.count(rows);
+        assertEquals(4, counters.getNewTasks());
+        assertEquals(1, counters.getOngoing());
+        assertEquals(3, counters.getCompleted());
+        // Lodged export collections only: row 0 within the target TAT, row 4 over it
+        assertEquals(1, counters.getWithinTat());
+        assertEquals(1, counters.getOverTat());
+
+        TaskCounters day = index.count(rows, LocalDate.ofEpochDay(12), LocalDate.ofEpochDay(12));
+        assertEquals(1, day.getNewTasks());
+        assertEquals(1, day.getOverTat());
+
+        TaskCounters statistics = index.countStatistics(rows, LocalDate.ofEpochDay(10));
+        assertEquals(2, statistics.getNewTasks());
+        assertEquals(3, statistics.getCompleted());
+    }
+
+    @Test
+    public void statisticsAddArchivedDays() {
+        FacetIndex index = FacetIndex.build(store());
+        TreeMap<Integer, TaskCounters> archived = new TreeMap<>();
+        archived.put(1, new TaskCounters(3, 1, 2, 1, 1));
+        TaskCounters statistics = index.countStatistics(index.select(filter(set("Jason"), null, null)),
+                LocalDate.ofEpochDay(10), archived);
+        assertEquals(1, statistics.getNewTasks());
+        assertEquals(2, statistics.getOngoing());
+        assertEquals(2, statistics.getCompleted());
+        assertEquals(1, statistics.getWithinTat());
+        assertEquals(1, statistics.getOverTat());
+    }
+
+    @Test
+    public void filtersEqualWithoutCaseHashAlike() {
+        TaskFilter lower = filter(set("jack", "jason"), set("lodge"), null);
+        TaskFilter upper = filter(set("JASON", "Jack"), set("LODGE"), null);
+        assertEquals(lower, upper);
+        assertEquals(lower.hashCode(), upper.hashCode());
+        assertNotEquals(lower.hashCode(), filter(set("jack", "jill"), set("lodge"), null).hashCode());
+    }
+
+    @Test
+    public void singleTaskMatchesLikeTheIndex() {
+        TaskStore store = store();
+        FacetIndex index = FacetIndex.build(store);
+        TaskFilter[] filters = {
+                filter(set("jack"), set("LODGE"), null),
+                filter(set("Jason", "Jack"), null, set(IMPORT)),
+                new TaskFilter(null, set("Pending"), null, 11, TaskFields.NO_DATE),
+                filter(set("Jill"), null, null),
+        };
+        for (TaskFilter filter : filters) {
+            BitSet rows = index.select(filter);
+            for (int row = 0; row < store.size(); row++) {
+                assertEquals(rows.get(row), filter.matches(store.get(row)));
+            }
+        }
+    }
+
+    private static TaskFilter filter(Set<String> handlers, Set<String> statuses, Set<String> documentTypes) {
+        return new TaskFilter(statuses, documentTypes, handlers, TaskFields.NO_DATE, TaskFields.NO_DATE);
+    }
+
+    private static Set<String> set(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
+    // Rows 0..5 on days 10, 10, 11, 11, 12, 13
+    private static TaskStore store() {
+        TaskStore store = new ListTaskStore();
+        store.add(task(" Jack ", "Lodge", TaskStatus.LODGE, EXPORT, 600, 10));
+        store.add(task("Jason", "Pending", TaskStatus.PENDING, IMPORT, TaskFields.NO_DURATION, 10));
+        store.add(task("jack", "LODGE", TaskStatus.LODGE, IMPORT, 600, 11));
+        store.add(task("  ", "Lodge", TaskStatus.LODGE, EXPORT, 600, 11));
+        store.add(task("Jack", "Lodge", TaskStatus.LODGE, EXPORT, TaskFields.TARGET_TAT_SECONDS + 1, 12));
+        store.add(task(null, "Pending", TaskStatus.PENDING, EXPORT, TaskFields.NO_DURATION, 13));
+        return store;
+    }
+
+    private static ExcelDataReader.TaskData task(String handler, String statusText, TaskStatus status, String type,
+                                                 int tat, int day) {
+        return new ExcelDataReader.TaskData("1", "REF", null, null, status, statusText, tat, handler, day, type,
+                TaskFields.NO_TIME, TaskFields.NO_TIME, TaskFields.NO_DURATION, TaskFields.NO_TIME,
+                TaskFields.NO_DURATION, TaskFields.NO_TIME, TaskFields.NO_TIME, TaskFields.NO_DURATION,
+                TaskFields.NO_TIME, TaskFields.NO_TIME);
+    }
+}
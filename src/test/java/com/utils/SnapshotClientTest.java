@@ -0,0 +1,116 @@
+package com.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotClientTest {
+    private static final String HEADER = "Date\tDocumentType\tDocumentSerial\tStatus\tReferenceNumber\tTAT\tAuthorizedBy\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void serverCountersReplaceCountsOfAppliedTasks() throws IOException {
+        ExcelDataReader reader = new ExcelDataReader(folder.newFile("unused.xlsx").getPath());
+        int today = (int) LocalDate.now().toEpochDay();
+        List<ExcelDataReader.TaskData> tasks = new ArrayList<>();
+        tasks.add(task("1", TaskStatus.PENDING, today));
+
+        // The server also counts two archived tasks of an old day that it does not send
+        Map<Integer, TaskCounters> days = new TreeMap<>();
+        days.put(today, new TaskCounters(1, 1, 0, 0, 0));
+        days.put(today - 100, new TaskCounters(2, 0, 2, 1, 1));
+        assertTrue(reader.applyTasks(tasks, true, totals(1, 1, 2, 1, 1), days));
+        assertEquals(1, reader.getNewTasksCount());
+        assertEquals(1, reader.getOngoingTasksCount());
+        assertEquals(2, reader.getCompletedTasksCount());
+        assertEquals(1, reader.getNormalTATCount());
+        assertEquals(2, reader.getDayCounters(LocalDate.ofEpochDay(today - 100)).getCompleted());
+
+        // A delta lists only the days it changed, the others are kept
+        Map<Integer, TaskCounters> changed = new TreeMap<>();
+        changed.put(today, new TaskCounters(2, 2, 0, 0, 0));
+        assertTrue(reader.applyTasks(Collections.singletonList(task("2", TaskStatus.PENDING, today)), false,
+                totals(2, 2, 2, 1, 1), changed));
+        assertEquals(2, reader.getNewTasksCount());
+        assertEquals(2, reader.getOngoingTasksCount());
+        assertEquals(2, reader.getCompletedTasksCount());
+        assertEquals(2, reader.getDayCounters(LocalDate.ofEpochDay(today - 100)).getNewTasks());
+        assertEquals(2, reader.createSnapshot().getTaskStore().size());
+
+        // A complete snapshot drops the days the server no longer has
+        days.remove(today - 100);
+        days.put(today, new TaskCounters(2, 2, 0, 0, 0));
+        assertTrue(reader.applyTasks(new ArrayList<>(reader.getTaskList()), true, totals(2, 2, 0, 0, 0), days));
+        assertEquals(0, reader.getCompletedTasksCount());
+        assertEquals(0, reader.getDayCounters(LocalDate.ofEpochDay(today - 100)).getNewTasks());
+    }
+
+    @Test
+    public void clientFollowsServer() throws Exception {
+        String day = LocalDate.now().format(DateTimeFormatter.ofPattern("d-MMM-yy", Locale.ENGLISH));
+        File file = write(HEADER + day + "\tEcoll - Export Collection\t1\tLodge\t10\t00001:00:00\tJack\n"
+                + day + "\tEcoll - Export Collection\t2\tPending\t20\t00001:00:00\tJason\n");
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        SnapshotServer server = new SnapshotServer(file.getPath());
+        try {
+            server.start("127.0.0.1", port);
+            ExcelDataReader reader = new ExcelDataReader(folder.newFile("client.xlsx").getPath());
+            SnapshotClient client = new SnapshotClient("http://127.0.0.1:" + port, reader);
+            assertTrue(client.refresh());
+            assertEquals(2, reader.getTaskList().size());
+            assertEquals(2, reader.getNewTasksCount());
+            assertEquals(1, reader.getOngoingTasksCount());
+            assertEquals(1, reader.getNormalTATCount());
+            assertEquals(2, reader.getDayCounters(LocalDate.now()).getNewTasks());
+        } finally {
+            server.close();
+        }
+    }
+
+    private static Map<String, Integer> totals(int newTasks, int ongoing, int completed, int withinTat, int overTat) {
+        Map<String, Integer> totals = new HashMap<>();
+        totals.put("NEW", newTasks);
+        totals.put("ONGOING", ongoing);
+        totals.put("COMPLETED", completed);
+        totals.put("WITHIN_TAT", withinTat);
+        totals.put("OVER_TAT", overTat);
+        return totals;
+    }
+
+    private static ExcelDataReader.TaskData task(String serial, TaskStatus status, int epochDay) {
+        return new ExcelDataReader.TaskData(serial, "REF" + serial, null, null, status, status.name(),
+                TaskFields.NO_DURATION, "Jack", epochDay, "Icoll - Import Collection",
+                0L, 0L, 0, 0L, 0, 0L, 0L, 0, 0L, 0L);
+    }
+
+    private File write(String text) throws IOException {
+        File file = new File(folder.getRoot(), "export.tsv");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+}
@@ -0,0 +1,116 @@
+package com.utils;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TaskFieldsTest {
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("d-MMM-yy", Locale.ENGLISH);
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("MMM dd yyyy hh:mm:ss a", Locale.ENGLISH);
+
+    @Test
+    public void datesRoundTripOverTheTwoDigitYears() {
+        for (LocalDate day = LocalDate.of(2000, 1, 1); day.getYear() < 2100; day = day.plusDays(1)) {
+            String text = day.format(DATE);
+            assertEquals(text, (int) day.toEpochDay(), TaskFields.parseDate(text));
+            assertEquals(text, TaskFields.formatDate(TaskFields.parseDate(text)));
+        }
+    }
+
+    @Test
+    public void parsesTwoDigitYearsAndMonthNames() {
+        assertEquals(LocalDate.of(2000, 1, 5).toEpochDay(), TaskFields.parseDate("5-Jan-00"));
+        assertEquals(LocalDate.of(2099, 12, 31).toEpochDay(), TaskFields.parseDate("31-DEC-99"));
+        assertEquals(LocalDate.of(2026, 8, 7).toEpochDay(), TaskFields.parseDate(" 07-aug-26 "));
+        assertEquals(LocalDate.of(2026, 8, 7).toEpochDay(), TaskFields.parseDate("7-八月-26"));
+        assertEquals(LocalDate.of(2024, 11, 4).toEpochDay(), TaskFields.parseDate("4-十一月-24"));
+        assertEquals(LocalDate.of(2024, 1, 4).toEpochDay(), TaskFields.parseDate("4-一月-24"));
+        assertEquals("7-Aug-26", TaskFields.formatDate(TaskFields.parseDate("7-八月-26")));
+    }
+
+    @Test
+    public void rejectsMalformedDates() {
+        assertEquals(TaskFields.NO_DATE, TaskFields.parseDate(null));
+        assertEquals(TaskFields.NO_DATE, TaskFields.parseDate(""));
+        assertEquals(TaskFields.NO_DATE, TaskFields.parseDate("7-Agu-26"));
+        assertEquals(TaskFields.NO_DATE, TaskFields.parseDate("7-Aug-2026"));
+        assertEquals(TaskFields.NO_DATE, TaskFields.parseDate("0-Aug-26"));
+        assertEquals(TaskFields.NO_DATE, TaskFields.parseDate("32-Aug-26"));
+        assertEquals(TaskFields.NO_DATE, TaskFields.parseDate("7/Aug/26"));
+        assertEquals("", TaskFields.formatDate(TaskFields.NO_DATE));
+    }
+
+    @Test
+    public void clampsDaysPastTheEndOfTheMonth() {
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), TaskFields.parseDate("31-Feb-24"));
+        assertEquals(LocalDate.of(2023, 2, 28).toEpochDay(), TaskFields.parseDate("29-Feb-23"));
+        assertEquals(LocalDate.of(2026, 4, 30).toEpochDay(), TaskFields.parseDate("31-Apr-26"));
+        // The same as DateTimeFormatter resolves them
+        assertEquals(LocalDate.parse("31-Feb-24", DATE).toEpochDay(), TaskFields.parseDate("31-Feb-24"));
+    }
+
+    @Test
+    public void timestampsRoundTrip() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            LocalDateTime time = LocalDateTime.of(2000, 1, 1, 0, 0).plusSeconds(random.nextInt(Integer.MAX_VALUE));
+            String text = time.format(TIME);
+            long millis = time.toEpochSecond(ZoneOffset.UTC) * 1000L;
+            assertEquals(text, millis, TaskFields.parseTimestamp(text));
+            assertEquals(text, TaskFields.formatTimestamp(millis));
+        }
+    }
+
+    @Test
+    public void parsesTwelveAndZeroHours() {
+        assertEquals(millis(2024, 11, 4, 0, 8), TaskFields.parseTimestamp("Nov 04 2024 12:08:00 AM"));
+        assertEquals(millis(2024, 11, 4, 12, 8), TaskFields.parseTimestamp("Nov 04 2024 12:08:00 PM"));
+        // Hour 0 is read like hour 12 of the same half of the day
+        assertEquals(millis(2024, 11, 4, 0, 8), TaskFields.parseTimestamp("Nov 04 2024 00:08:00 AM"));
+        assertEquals(millis(2024, 11, 4, 12, 8), TaskFields.parseTimestamp("Nov 04 2024 00:08:00 PM"));
+        assertEquals(millis(2024, 11, 4, 23, 59), TaskFields.parseTimestamp("Nov 04 2024 11:59:00 PM"));
+        assertEquals(millis(2024, 11, 4, 11, 8), TaskFields.parseTimestamp("十一月 04 2024 11:08:00 AM"));
+    }
+
+    @Test
+    public void rejectsMalformedTimestamps() {
+        assertEquals(TaskFields.NO_TIME, TaskFields.parseTimestamp(null));
+        assertEquals(TaskFields.NO_TIME, TaskFields.parseTimestamp("Nov 04 2024 13:08:00 PM"));
+        assertEquals(TaskFields.NO_TIME, TaskFields.parseTimestamp("Nov 04 2024 11:60:00 AM"));
+        assertEquals(TaskFields.NO_TIME, TaskFields.parseTimestamp("Nov 04 2024 11:08:00 XM"));
+        assertEquals(TaskFields.NO_TIME, TaskFields.parseTimestamp("Nov 4 2024 11:08:00 AM"));
+        assertEquals("", TaskFields.formatTimestamp(TaskFields.NO_TIME));
+    }
+
+    @Test
+    public void durationsRoundTrip() {
+        assertEquals(30 * 3600 + 25 * 60 + 53, TaskFields.parseDuration("00030:25:53"));
+        assertEquals("00030:25:53", TaskFields.formatDuration(TaskFields.parseDuration("00030:25:53")));
+        assertEquals(3600, TaskFields.parseDuration("1:00:00"));
+        assertEquals(3600, TaskFields.parseDuration("01:00:00:99"));
+        assertEquals("00000:00:00", TaskFields.formatDuration(0));
+        assertEquals(TaskFields.NO_DURATION, TaskFields.parseDuration("10h24m"));
+        assertEquals(TaskFields.NO_DURATION, TaskFields.parseDuration("01:00"));
+        assertEquals("", TaskFields.formatDuration(TaskFields.NO_DURATION));
+    }
+
+    @Test
+    public void targetTat() {
+        assertTrue(TaskFields.isWithinTargetTat(TaskFields.TARGET_TAT_SECONDS));
+        assertFalse(TaskFields.isWithinTargetTat(TaskFields.TARGET_TAT_SECONDS + 1));
+        assertFalse(TaskFields.isWithinTargetTat(TaskFields.NO_DURATION));
+    }
+
+    private static long millis(int year, int month, int day, int hour, int minute) {
+        return LocalDateTime.of(year, month, day, hour, minute).toEpochSecond(ZoneOffset.UTC) * 1000L;
+    }
+}
@@ -0,0 +1,159 @@
+package com.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TaskHistoryTest {
+    private static final String HEADER = "Date\tDocumentType\tDocumentSerial\tStatus\tReferenceNumber"
+            + "\tDescription (ClientDetail)\tTAT\tAuthorizedBy\n";
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("d-MMM-yy", Locale.ENGLISH);
+
+    // Behind the in-memory window, and 40 days apart so always in different months
+    private static final int OLD = 60;
+    private static final int OLDER = 100;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void historyFollowsTheWorkbook() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            lines.add(line(i, OLD, i % 2 == 0 ? "Lodge" : "Pending"));
+        }
+        for (int i = 10; i < 15; i++) {
+            lines.add(line(i, 0, "Pending"));
+        }
+        File file = write(lines);
+        File directory = folder.newFolder("history");
+        ExcelDataReader reader = reader(file, directory);
+        assertEquals(5, reader.getTaskList().size());
+        assertSameCounters(file, reader);
+
+        // Task 0 is re-dated into another old month and task 1 is deleted
+        lines.set(0, line(0, OLDER, "Lodge"));
+        lines.remove(1);
+        write(lines);
+        assertTrue(reader.refresh());
+        assertSameCounters(file, reader);
+        assertEquals(1, reader.getTasksByDateRange(day(OLDER), day(OLDER)).size());
+        assertEquals(8, reader.getTasksByDateRange(day(OLD), day(OLD)).size());
+
+        // Task 2 is dated into the window again, and task 3 is deleted to make the file shorter
+        lines.set(1, line(2, 0, "Lodge"));
+        lines.remove(2);
+        write(lines);
+        assertTrue(reader.refresh());
+        assertSameCounters(file, reader);
+        assertEquals(6, reader.getTaskList().size());
+        assertEquals(6, reader.getTasksByDateRange(day(OLD), day(OLD)).size());
+
+        // Reopened, the unchanged archived rows are recognised and counted once
+        ExcelDataReader reopened = reader(file, directory);
+        assertSameCounters(file, reopened);
+        assertEquals(6, reopened.getTasksByDateRange(day(OLD), day(OLD)).size());
+    }
+
+    @Test
+    public void rotatedDaysKeepTheirTasks() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(line(0, OLDER, "Lodge"));
+        lines.add(line(1, OLD, "Lodge"));
+        lines.add(line(2, OLD, "Lodge"));
+        lines.add(line(3, 0, "Pending"));
+        File file = write(lines);
+        ExcelDataReader reader = reader(file, folder.newFolder("history"));
+
+        // The oldest day leaves the workbook and another task of the old day is deleted
+        lines.remove(0);
+        lines.remove(0);
+        write(lines);
+        assertTrue(reader.refresh());
+        assertEquals(1, reader.getTasksByDateRange(day(OLDER), day(OLDER)).size());
+        assertEquals(1, reader.getTasksByDateRange(day(OLD), day(OLD)).size());
+        assertEquals(2, reader.getCompletedTasksCount());
+    }
+
+    @Test
+    public void archivedCountersFollowTheFilter() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            lines.add(line(i, OLD, "Lodge"));
+        }
+        lines.add(line(10, 0, "Pending"));
+        ExcelDataReader reader = reader(write(lines), folder.newFolder("history"));
+
+        TaskFilter handler = new TaskFilter(null, null, Collections.singleton("handler 1"), TaskFields.NO_DATE, TaskFields.NO_DATE);
+        NavigableMap<Integer, TaskCounters> archived = reader.getArchivedCounters(handler);
+        assertEquals(1, archived.size());
+        assertEquals(2, archived.get((int) day(OLD).toEpochDay()).getCompleted());
+
+        TaskFilter window = new TaskFilter(null, null, null, (int) day(OLD).toEpochDay() + 1, TaskFields.NO_DATE);
+        assertTrue(reader.getArchivedCounters(window).isEmpty());
+        assertTrue(reader.getArchivedCounters(new TaskFilter(Collections.singleton("Pending"), null, null,
+                TaskFields.NO_DATE, TaskFields.NO_DATE)).isEmpty());
+    }
+
+    private static ExcelDataReader reader(File file, File directory) {
+        ExcelDataReader reader = new ExcelDataReader(file.getPath(), new ListTaskStore());
+        reader.setHistory(directory);
+        reader.readExcelData();
+        return reader;
+    }
+
+    // The counters of a reader with history match a fresh read of the workbook without it
+    private static void assertSameCounters(File file, ExcelDataReader reader) {
+        ExcelDataReader fresh = new ExcelDataReader(file.getPath(), new ListTaskStore());
+        fresh.readExcelData();
+        assertEquals(fresh.getNewTasksCount(), reader.getNewTasksCount());
+        assertEquals(fresh.getOngoingTasksCount(), reader.getOngoingTasksCount());
+        assertEquals(fresh.getCompletedTasksCount(), reader.getCompletedTasksCount());
+        assertEquals(fresh.getNormalTATCount(), reader.getNormalTATCount());
+        assertEquals(fresh.getAbnormalTATCount(), reader.getAbnormalTATCount());
+        for (int days : new int[] {0, OLD, OLDER}) {
+            TaskCounters expected = fresh.getDayCounters(day(days));
+            TaskCounters actual = reader.getDayCounters(day(days));
+            assertEquals(expected.getNewTasks(), actual.getNewTasks());
+            assertEquals(expected.getOngoing(), actual.getOngoing());
+            assertEquals(expected.getCompleted(), actual.getCompleted());
+        }
+    }
+
+    private static LocalDate day(int daysAgo) {
+        return LocalDate.now().minusDays(daysAgo);
+    }
+
+    // Export collections within the target TAT, handled by five handlers in turn
+    private static String line(int i, int daysAgo, String status) {
+        return day(daysAgo).format(DATE) + "\tEcoll - Export Collection\t" + (11500000 + i) + "\t" + status
+                + "\t" + (643000000 + i) + "\tClient " + (i % 7) + "\t00001:30:00\tHandler " + (i % 5) + "\n";
+    }
+
+    private File write(List<String> lines) throws IOException {
+        File file = new File(folder.getRoot(), "export.tsv");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(HEADER.getBytes(StandardCharsets.UTF_8));
+            for (String line : lines) {
+                out.write(line.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return file;
+    }
+}
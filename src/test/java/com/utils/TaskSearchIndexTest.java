@@ -0,0 +1,134 @@
+package com.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TaskSearchIndexTest {
+    @Test
+    public void matchesWholeSerialsAndReferences() {
+        TaskSearchIndex index = TaskSearchIndex.build(store());
+        assertArrayEquals(new int[] {0}, index.search("11500001 "));
+        assertArrayEquals(new int[] {2}, index.search("ref-3 "));
+        assertArrayEquals(new int[] {2}, index.search(" REF-3 "));
+        // Part of a serial only matches while it is typed
+        assertArrayEquals(new int[0], index.search("115 "));
+        assertArrayEquals(new int[] {0, 1, 2, 3}, index.search("115"));
+    }
+
+    @Test
+    public void lastTermMatchesByPrefixWhileTyped() {
+        TaskSearchIndex index = TaskSearchIndex.build(store());
+        assertArrayEquals(new int[] {0, 3}, index.search("cha"));
+        assertArrayEquals(new int[0], index.search("cha "));
+        assertArrayEquals(new int[] {0, 3}, index.search("chan "));
+        // Only the last term is a prefix
+        assertArrayEquals(new int[0], index.search("cha ma"));
+        assertArrayEquals(new int[] {0}, index.search("chan ma"));
+    }
+
+    @Test
+    public void termMatchesAllItsWords() {
+        TaskSearchIndex index = TaskSearchIndex.build(store());
+        // "Chan Tai-man" and "Chan Siu-ming" share the first word only
+        assertArrayEquals(new int[] {0}, index.search("chan-tai"));
+        assertArrayEquals(new int[] {3}, index.search("Chan Siu-m"));
+        // Words of the client name and of the handler
+        assertArrayEquals(new int[] {1, 3}, index.search("jack"));
+        assertArrayEquals(new int[] {3}, index.search("jack siu"));
+    }
+
+    @Test
+    public void prefixesAtTheEndsOfTheTerms() {
+        TaskSearchIndex index = TaskSearchIndex.build(store());
+        assertArrayEquals(new int[] {0, 1, 2}, index.search("a"));
+        assertArrayEquals(new int[] {2}, index.search("wo"));
+        assertArrayEquals(new int[0], index.search("zz"));
+        assertArrayEquals(new int[0], index.search("0"));
+    }
+
+    @Test
+    public void blankQueryIsNoSearch() {
+        TaskSearchIndex index = TaskSearchIndex.build(store());
+        assertNull(index.search(""));
+        assertNull(index.search("   "));
+        assertEquals(0, TaskSearchIndex.build(new ListTaskStore()).search("chan").length);
+    }
+
+    @Test
+    public void matchesALinearScan() {
+        Random random = new Random(7);
+        String[] words = {"chan", "chang", "cheung", "lee", "leung", "wong", "wang", "ng"};
+        TaskStore store = new ColumnarTaskStore();
+        for (int row = 0; row < 2000; row++) {
+            String client = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+            store.add(task(String.valueOf(random.nextInt(500)), "REF" + random.nextInt(50), client,
+                    words[random.nextInt(words.length)]));
+        }
+        TaskSearchIndex index = TaskSearchIndex.build(store);
+        for (String query : new String[] {"ch", "chan", "chan ", "c", "le", "1", "12", "12 ", "ref1", "wong ch", "n", "ng "}) {
+            assertArrayEquals(query, scan(store, query), index.search(query));
+        }
+    }
+
+    // The rows search should find, worked out row by row
+    private static int[] scan(TaskStore store, String query) {
+        String[] terms = query.toLowerCase(Locale.ROOT).trim().split("\\s+");
+        boolean typing = !query.endsWith(" ");
+        List<Integer> rows = new ArrayList<>();
+        for (int row = 0; row < store.size(); row++) {
+            ExcelDataReader.TaskData task = store.get(row);
+            List<String> taskWords = new ArrayList<>();
+            taskWords.addAll(Arrays.asList(task.getClientName().toLowerCase(Locale.ROOT).split(" ")));
+            taskWords.add(task.getHandler().toLowerCase(Locale.ROOT));
+            boolean all = true;
+            for (int i = 0; i < terms.length && all; i++) {
+                boolean prefix = typing && i == terms.length - 1;
+                all = matches(task.getDocumentSerial().toLowerCase(Locale.ROOT), terms[i], prefix)
+                        || matches(task.getReferenceNumber().toLowerCase(Locale.ROOT), terms[i], prefix)
+                        || matchesWord(taskWords, terms[i], prefix);
+            }
+            if (all) {
+                rows.add(row);
+            }
+        }
+        return rows.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static boolean matchesWord(List<String> words, String term, boolean prefix) {
+        for (String word : words) {
+            if (matches(word, term, prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(String value, String term, boolean prefix) {
+        return prefix ? value.startsWith(term) : value.equals(term);
+    }
+
+    private static TaskStore store() {
+        TaskStore store = new ListTaskStore();
+        store.add(task("11500001", "REF-1", "Chan Tai-man", "Amy"));
+        store.add(task("11500002", "REF-2", "Jack Import Ltd", "Alan"));
+        store.add(task("11500003", "REF-3", "Wong & Co", "Ada"));
+        store.add(task("11500004", "REF-4", "Chan Siu-ming", "Jack"));
+        return store;
+    }
+
+    private static ExcelDataReader.TaskData task(String serial, String reference, String client, String handler) {
+        return new ExcelDataReader.TaskData(serial, reference, null, client, TaskStatus.PENDING, "Pending",
+                TaskFields.NO_DURATION, handler, 20000, "Icoll - Import Collection", TaskFields.NO_TIME,
+                TaskFields.NO_TIME, TaskFields.NO_DURATION, TaskFields.NO_TIME, TaskFields.NO_DURATION,
+                TaskFields.NO_TIME, TaskFields.NO_TIME, TaskFields.NO_DURATION, TaskFields.NO_TIME, TaskFields.NO_TIME);
+    }
+}
@@ -0,0 +1,85 @@
+package com.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TaskStoreTest {
+    // More rows than one chunk of either store, so copies share several chunks
+    private static final int ROWS = 10000;
+
+    @Test
+    public void listStoreCopyIsIndependent() {
+        copyIsIndependent(new ListTaskStore());
+    }
+
+    @Test
+    public void columnarStoreCopyIsIndependent() {
+        copyIsIndependent(new ColumnarTaskStore());
+    }
+
+    @Test
+    public void columnarStoreKeepsValues() {
+        TaskStore store = new ColumnarTaskStore();
+        ExcelDataReader.TaskData odd = new ExcelDataReader.TaskData("0012", "REF-1", "USD 1.00", null,
+                TaskStatus.OTHER, "Reject", TaskFields.NO_DURATION, "Jack", 20000, "Icoll - Import Collection",
+                1L, 2L, 3, 4L, 5, 6L, 7L, 8, 9L, 10L);
+        store.add(odd);
+        assertEquals(odd, store.get(0));
+        assertEquals(20000, store.getEpochDay(0));
+    }
+
+    private static void copyIsIndependent(TaskStore store) {
+        List<ExcelDataReader.TaskData> expected = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            ExcelDataReader.TaskData task = task(i, i % 3 == 0 ? TaskStatus.LODGE : TaskStatus.PENDING);
+            store.add(task);
+            expected.add(task);
+        }
+        TaskStore copy = store.copy();
+
+        // Writes to either side after the copy, in a shared chunk and past the copied rows
+        store.set(5, task(5, TaskStatus.OTHER));
+        store.set(3000, task(3000, TaskStatus.PENDING));
+        store.add(task(ROWS, TaskStatus.LODGE));
+        copy.set(ROWS - 1, task(ROWS - 1, TaskStatus.OTHER));
+
+        assertEquals(ROWS, copy.size());
+        assertEquals(ROWS + 1, store.size());
+        assertEquals(expected.get(5), copy.get(5));
+        assertEquals(TaskStatus.OTHER, store.get(5).getStatus());
+        assertEquals(expected.get(ROWS - 1), store.get(ROWS - 1));
+        assertEquals(TaskStatus.OTHER, copy.get(ROWS - 1).getStatus());
+        for (int row = 0; row < ROWS - 1; row++) {
+            if (row != 5) {
+                assertEquals(expected.get(row), copy.get(row));
+            }
+            if (row != 5 && row != 3000) {
+                assertEquals(expected.get(row), store.get(row));
+            }
+        }
+
+        // The style is stored with the row: lodged export collections over the target TAT
+        assertEquals(RowStyle.OVER_TAT, copy.getRowStyle(0));
+        assertEquals(RowStyle.PLAIN, copy.getRowStyle(1));
+        assertEquals(RowStyle.OVER_TAT, copy.getRowStyle(3));
+        assertEquals(RowStyle.PLAIN, store.getRowStyle(3 * 1000));
+        assertEquals(RowStyle.OVER_TAT, copy.getRowStyle(3 * 1000));
+
+        // Clearing the store leaves the copy as it was
+        store.clear();
+        assertEquals(expected.get(1), copy.get(1));
+    }
+
+    // Export collection, over the target TAT for multiples of 3 and within it otherwise
+    private static ExcelDataReader.TaskData task(int i, TaskStatus status) {
+        int tat = i % 3 == 0 ? TaskFields.TARGET_TAT_SECONDS + 60 : 600;
+        return new ExcelDataReader.TaskData(String.valueOf(11500000 + i), String.valueOf(643000000 + i),
+                "USD " + i + ".00", "Client " + (i % 7), status, status.name(), tat, "Handler " + (i % 5),
+                20000 + i % 30, "Ecoll - Export Collection", i * 1000L, i * 1000L + 1, 1, i * 1000L + 2, 1,
+                i * 1000L + 3, i * 1000L + 4, 1, i * 1000L + 5, i * 1000L + 6);
+    }
+}